@@ -0,0 +1,290 @@
+//------------------------------------------------------------------------------
+//  File       : BoardBenchmark.java
+//  Course     : DouShouQi
+//  Date:      : 10/18/2026
+//  Author     : Jason Qiao Meng
+//  Author ID  : 10652564
+//  Description: This file contains JMH benchmarks of the Board primitives.
+//------------------------------------------------------------------------------
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * JMH benchmarks of the {@link Board} primitives on 3 kinds of positions.
+ * <pre>
+ *     Positions:
+ *         opening   The initial board.
+ *         midgame   After 60 plies of a seeded random game, 7 red and 7 black pieces left.
+ *         river     Red to move, its lion and tiger between the waters and the black ones on
+ *                   the banks, with a rat of each side in the water: 3 of the 12 red moves are
+ *                   river jumps, and a jump of each side is blocked by a rat.
+ *
+ *     Usage (this directory is a source root of its own; compile it against ../src with
+ *     jmh-core and the jmh-generator-annprocess annotation processor on the class path):
+ *         java -cp ... BoardBenchmark                        all benchmarks with the gc profiler
+ *         java -cp ... org.openjdk.jmh.Main BoardBenchmark -prof gc
+ *
+ *     Every benchmark is reported as throughput; the gc profiler adds the allocation rate
+ *     ({@code gc.alloc.rate.norm} is the bytes allocated per operation).
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardBenchmark {
+
+    /**
+     * The moves from the initial board to the midgame position
+     */
+    private static final String[] fMidgame = {
+            "a3a4", "f8g8", "g3g2", "c7b7", "b2a2", "a9a8", "e3d3", "g7f7", "f2e2", "f7g7",
+            "a4a3", "g7g6", "a3b3", "g8g7", "g1f1", "g9f9", "e2e1", "g6g5", "d3d4", "e7f7",
+            "e1e2", "f9e9", "e2e3", "e9f9", "d4d5", "g7g6", "f1e1", "g5g4", "a2a3", "g4g3",
+            "a1a2", "g6g7", "d5d6", "f7f8", "e3f3", "g7g6", "c3c2", "g6g7", "a2a1", "g7f7",
+            "e1f1", "g3f3", "g2g3", "f3e3", "d6d7", "b8c8", "c2b2", "c8c7", "b2a2", "f8g8",
+            "b3c3", "e3d3", "f1e1", "d3e3", "g3g2", "e3f3", "g2g3", "b7b8", "g3f3", "f9e9"};
+    /**
+     * The pieces of the river position, each followed by its cell: the red lion at (3, 3) jumps
+     * both ways, the red tiger at (4, 3) jumps to the left only, since the black rat at (4, 5)
+     * is in its way, and the red rat at (5, 4) blocks the jump of the black tiger at (6, 4)
+     */
+    private static final int[] fRiver = {
+            Board.rRat, 39, Board.rLion, 24, Board.rTiger, 31, Board.rElephant, 8,
+            Board.bRat, 33, Board.bCat, 50, Board.bLion, 43, Board.bTiger, 46, Board.bElephant, 54};
+
+    /**
+     * The kind of position to benchmark
+     */
+    @Param({"opening", "midgame", "river"})
+    public String position;
+
+    /**
+     * The board of the position
+     */
+    private Board board;
+    /**
+     * A copy of the board, for the comparisons
+     */
+    private Board copy;
+    /**
+     * A buffer of moves
+     */
+    private final int[] moves = new int[Board.fMaxMoves];
+    /**
+     * A quiet move of the side to move which can be moved back by the same piece
+     */
+    private int quietMove;
+
+
+    /**
+     * Set up the position and find a reversible quiet move in it.
+     */
+    @Setup
+    public void setUp() {
+        if (position.equals("river")) {
+            int squares[] = new int[Board.bElephant + 1];
+            Arrays.fill(squares, -1);
+            for (int i = 0; i < fRiver.length; i += 2) squares[fRiver[i]] = fRiver[i + 1];
+            board = new Board(squares, false);
+        } else {
+            board = new Board();
+            String[] line = position.equals("midgame") ? fMidgame : new String[0];
+            for (String text : line) {
+                int move = board.parseMove(text);
+                if (move == Board.fNoMove) throw new IllegalStateException("Illegal move " + text);
+                board.makeMove(move);
+            }
+            board = new Board(board);
+        }
+        copy = new Board(board);
+
+        int count = board.generateMoves(moves);
+        for (int i = 0; i < count && quietMove == Board.fNoMove; i++) {
+            if (Board.moveCaptured(moves[i]) != Board.rbNone) continue;
+            Board b = new Board(board);
+            int from = Board.moveFrom(moves[i]), to = Board.moveTo(moves[i]);
+            b.doMove(Board.toRow(from), Board.toColumn(from), Board.toRow(to), Board.toColumn(to));
+            if (b.isValidMove(Board.toRow(to), Board.toColumn(to), Board.toRow(from), Board.toColumn(from)))
+                quietMove = moves[i];
+        }
+    }
+
+    /**
+     * Probe {@link Board#isValidMove(int, int, int, int)} with every piece of the side to move
+     * and every cell, which is how legal moves had to be listed before generateMoves.
+     *
+     * @return The number of valid moves.
+     */
+    @Benchmark
+    public int isValidMove() {
+        int count = 0;
+        Board.Color side = board.mBlacksTurn ? Board.Color.Black : Board.Color.Red;
+        for (int from = 0; from < Board.fCells; from++) {
+            int fr = Board.toRow(from), fc = Board.toColumn(from);
+            if (board.getColor(fr, fc) != side) continue;
+            for (int to = 0; to < Board.fCells; to++)
+                if (board.isValidMove(fr, fc, Board.toRow(to), Board.toColumn(to))) count++;
+        }
+        return count;
+    }
+
+    /**
+     * List the legal moves with {@link Board#generateMoves(int[])}.
+     *
+     * @return The number of legal moves.
+     */
+    @Benchmark
+    public int generateMoves() {
+        return board.generateMoves(moves);
+    }
+
+    /**
+     * Move a piece and back with {@link Board#doMove(int, int, int, int)}.
+     *
+     * @return Whether both moves were done.
+     */
+    @Benchmark
+    public boolean doMove() {
+        int fr = Board.toRow(Board.moveFrom(quietMove)), fc = Board.toColumn(Board.moveFrom(quietMove));
+        int tr = Board.toRow(Board.moveTo(quietMove)), tc = Board.toColumn(Board.moveTo(quietMove));
+        return board.doMove(fr, fc, tr, tc) & board.doMove(tr, tc, fr, fc);
+    }
+
+    /**
+     * Make and unmake a move with {@link Board#makeMove(int)} and {@link Board#unmakeMove()}.
+     *
+     * @return The move which was unmade.
+     */
+    @Benchmark
+    public int makeUnmakeMove() {
+        board.makeMove(quietMove);
+        return board.unmakeMove();
+    }
+
+    /**
+     * Read every cell with {@link Board#getPiece(int, int)}.
+     *
+     * @return The sum of the pieces.
+     */
+    @Benchmark
+    public int getPiece() {
+        int sum = 0;
+        for (int r = 0; r < Board.fRows; r++)
+            for (int c = 0; c < Board.fCols; c++)
+                sum += board.getPiece(r, c);
+        return sum;
+    }
+
+    /**
+     * Read every cell with {@link Board#getColor(int, int)}.
+     *
+     * @return The sum of the colors' ordinals.
+     */
+    @Benchmark
+    public int getColor() {
+        int sum = 0;
+        for (int r = 0; r < Board.fRows; r++)
+            for (int c = 0; c < Board.fCols; c++)
+                sum += board.getColor(r, c).ordinal();
+        return sum;
+    }
+
+    /**
+     * Read every cell with {@link Board#getRank(int, int)}.
+     *
+     * @return The sum of the ranks.
+     */
+    @Benchmark
+    public int getRank() {
+        int sum = 0;
+        for (int r = 0; r < Board.fRows; r++)
+            for (int c = 0; c < Board.fCols; c++)
+                sum += board.getRank(r, c);
+        return sum;
+    }
+
+    /**
+     * Hash the board with {@link Board#hashCode()}.
+     *
+     * @return The hash code.
+     */
+    @Benchmark
+    public int hashCodeOfBoard() {
+        return board.hashCode();
+    }
+
+    /**
+     * Compare the board with an identical copy by {@link Board#equals(Object)}.
+     *
+     * @return Whether they are equal.
+     */
+    @Benchmark
+    public boolean equalsOfBoard() {
+        return board.equals(copy);
+    }
+
+    /**
+     * Compare the board with an identical copy by {@link Board#equalsBoard(Board)}.
+     *
+     * @return Whether they are equal.
+     */
+    @Benchmark
+    public boolean equalsBoard() {
+        return board.equalsBoard(copy);
+    }
+
+    /**
+     * Print the board with {@link Board#toString()}.
+     *
+     * @return The text of the board.
+     */
+    @Benchmark
+    public String toStringOfBoard() {
+        return board.toString();
+    }
+
+    /**
+     * Copy the board with {@link Board#Board(Board)}.
+     *
+     * @return The copy.
+     */
+    @Benchmark
+    public Board copyConstructor() {
+        return new Board(board);
+    }
+
+    /**
+     * Run all the benchmarks of this class with the gc profiler.
+     *
+     * @param args Not used.
+     * @throws RunnerException if JMH fails to run.
+     */
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(BoardBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
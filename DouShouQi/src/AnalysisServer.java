@@ -0,0 +1,422 @@
+//------------------------------------------------------------------------------
+//  File       : AnalysisServer.java
+//  Course     : DouShouQi
+//  Date:      : 10/18/2026
+//  Author     : Jason Qiao Meng
+//  Author ID  : 10652564
+//  Description: This file contains the HTTP analysis endpoint of the DouShouQi engine.
+//------------------------------------------------------------------------------
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An HTTP endpoint which tells the best move and the score of a position.
+ * <pre>
+ *     Usage:
+ *         java AnalysisServer [port P] [threads T] [cache N] [engine SPEC]
+ *
+ *         port P         The port (default 8080)
+ *         threads T      The number of searches run at the same time (default: the number of processors)
+ *         cache N        The number of results kept (default 65536)
+ *         engine SPEC    The limits of every search, see EngineConfig (default "analysis:time=1000,hash=64")
+ *
+ *     Request:
+ *         GET /analyze?position=startpos|HEX&amp;moves=a3a4,a7a6
+ *
+ *         position   The initial board ("startpos", the default) or PackedPosition.toString()
+ *         moves      The moves played from it, separated by commas or spaces,
+ *                    at most Engine.fMaxGamePlies
+ *
+ *     Reply (application/json):
+ *         {"key":"1f2e...","bestmove":"g3g4","score":0,"depth":8,"nodes":143020,"pv":["g3g4","a7a8"],"cached":false}
+ *         {"error":"illegal move: a3a4"}                  with status 400
+ *
+ *     Note:
+ *         1. Results are kept in an LRU cache keyed by the Zobrist key of the position.
+ *         2. Requests of a position which is being searched wait for that search instead of
+ *            starting another one.
+ *         3. The searches share one transposition table.
+ * </pre>
+ */
+public class AnalysisServer implements AutoCloseable {
+
+    /**
+     * The default port of the server
+     */
+    public static final int fDefaultPort = 8080;
+    /**
+     * The default number of results kept
+     */
+    public static final int fDefaultCacheSize = 65536;
+
+    /**
+     * The HTTP server
+     */
+    private final HttpServer mServer;
+    /**
+     * The threads which handle the requests
+     */
+    private final ExecutorService mHandlers;
+    /**
+     * The threads which run the searches
+     */
+    private final ExecutorService mSearchers;
+    /**
+     * The configuration of the searches
+     */
+    private final EngineConfig mConfig;
+    /**
+     * The transposition table shared by all searches
+     */
+    private final TranspositionTable mTable;
+    /**
+     * The engine of every search thread
+     */
+    private final ThreadLocal<Engine> mEngines;
+    /**
+     * The finished results by position key, least recently used first
+     */
+    private final Map<Long, Engine.Result> mCache;
+    /**
+     * The searches being run by position key
+     */
+    private final ConcurrentHashMap<Long, CompletableFuture<Engine.Result>> mRunning = new ConcurrentHashMap<>();
+    /**
+     * The number of searches run
+     */
+    private final AtomicLong mSearches = new AtomicLong();
+
+
+    /**
+     * Create a server listening on an address; it accepts requests after {@link #start()}.
+     *
+     * @param address   The address, whose port may be 0 for any free port
+     * @param config    The configuration of the searches
+     * @param threads   The number of searches run at the same time
+     * @param cacheSize The number of results kept
+     * @throws IOException if the address cannot be bound.
+     */
+    public AnalysisServer(InetSocketAddress address, EngineConfig config, int threads, int cacheSize)
+            throws IOException {
+        if (threads < 1 || cacheSize < 1)
+            throw new IllegalArgumentException("An analysis server needs at least 1 thread and 1 cached result");
+        mConfig = config;
+        mTable = config.createEngine().getTable();
+        mEngines = ThreadLocal.withInitial(() -> {
+            Engine engine = new Engine(mTable);
+            engine.setEvaluation(config.getEvaluation());
+            return engine;
+        });
+        mCache = new LinkedHashMap<Long, Engine.Result>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Engine.Result> eldest) {
+                return size() > cacheSize;
+            }
+        };
+        mSearchers = Executors.newFixedThreadPool(threads, daemonThreads("analysis-search"));
+        mHandlers = Executors.newCachedThreadPool(daemonThreads("analysis-http"));
+        mServer = HttpServer.create(address, 0);
+        mServer.createContext("/analyze", this::handle);
+        mServer.setExecutor(mHandlers);
+    }
+
+    /**
+     * Get the port the server listens on.
+     *
+     * @return The port.
+     */
+    public int getPort() {
+        return mServer.getAddress().getPort();
+    }
+
+    /**
+     * Get the number of searches run, i.e. the requests which were neither cached nor coalesced.
+     *
+     * @return The number of searches.
+     */
+    public long getSearchCount() {
+        return mSearches.get();
+    }
+
+    /**
+     * Start accepting requests.
+     */
+    public void start() {
+        mServer.start();
+    }
+
+    /**
+     * Stop the server; the running searches are abandoned.
+     */
+    @Override
+    public void close() {
+        mServer.stop(0);
+        mHandlers.shutdownNow();
+        mSearchers.shutdownNow();
+    }
+
+    /**
+     * Analyze a board, from the cache, by a running search of the same position or by a new search.
+     *
+     * @param board The board, which is not changed
+     * @return The result and whether it was cached.
+     * @throws InterruptedException if the thread is interrupted while waiting for the search.
+     */
+    public Analysis analyze(Board board) throws InterruptedException {
+        long key = board.zobristKey();
+        Engine.Result result;
+        synchronized (mCache) {
+            result = mCache.get(key);
+        }
+        if (result != null) return new Analysis(key, result, true);
+
+        CompletableFuture<Engine.Result> created = new CompletableFuture<>();
+        CompletableFuture<Engine.Result> search = mRunning.putIfAbsent(key, created);
+        if (search == null) {
+            search = created;
+            Board copy = new Board(board);
+            mSearchers.execute(() -> search(key, copy, created));
+        }
+        try {
+            return new Analysis(key, search.get(), false);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("The search failed", e.getCause());
+        }
+    }
+
+    /**
+     * Run a search on a search thread, keep its result and complete the requests waiting for it.
+     *
+     * @param key    The key of the position
+     * @param board  The board to search
+     * @param future The future of the requests
+     */
+    private void search(long key, Board board, CompletableFuture<Engine.Result> future) {
+        try {
+            Engine.Result result;
+            synchronized (mCache) {
+                // a search of the same position may have finished since the cache was looked up
+                result = mCache.get(key);
+            }
+            if (result == null) {
+                mSearches.incrementAndGet();
+                result = mEngines.get().search(board, mConfig.getLimits());
+                // cached before it stops running, so no request in between misses both
+                synchronized (mCache) {
+                    mCache.put(key, result);
+                }
+            }
+            mRunning.remove(key, future);
+            future.complete(result);
+        } catch (RuntimeException | Error e) {
+            mRunning.remove(key, future);
+            future.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Handle a request of {@code /analyze}.
+     *
+     * @param exchange The request and its reply
+     * @throws IOException if the reply cannot be written.
+     */
+    private void handle(HttpExchange exchange) throws IOException {
+        int status = 200;
+        String body;
+        try {
+            if (!exchange.getRequestMethod().equals("GET")) {
+                status = 405;
+                body = toJsonError("only GET is supported");
+            } else {
+                Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+                body = analyze(parseBoard(query)).toJson();
+            }
+        } catch (IllegalArgumentException e) {
+            status = 400;
+            body = toJsonError(e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            status = 503;
+            body = toJsonError("the server is stopping");
+        } catch (RuntimeException e) {
+            status = 500;
+            body = toJsonError(String.valueOf(e.getMessage()));
+        }
+        byte bytes[] = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Set up the board of a request.
+     *
+     * @param query The parameters of the request
+     * @return The board.
+     * @throws IllegalArgumentException if the position or a move is not valid, or there are too many moves.
+     */
+    static Board parseBoard(Map<String, String> query) {
+        String position = query.getOrDefault("position", "startpos");
+        Board board = position.equals("startpos") ? new Board() : PackedPosition.parse(position).toBoard();
+        String moves = query.getOrDefault("moves", "").trim();
+        if (moves.isEmpty()) return board;
+        String texts[] = moves.split("[,\\s]+");
+        // the search of the board makes moves on top of these
+        if (texts.length > Engine.fMaxGamePlies)
+            throw new IllegalArgumentException("too many moves: " + texts.length + ", at most " + Engine.fMaxGamePlies);
+        for (String text : texts) {
+            int move = board.parseMove(text);
+            if (move == Board.fNoMove)
+                throw new IllegalArgumentException("illegal move: " + text);
+            board.makeMove(move);
+        }
+        return board;
+    }
+
+    /**
+     * Parse the query of a request URI.
+     *
+     * @param rawQuery The raw query, or {@code null}
+     * @return The parameters by name.
+     */
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null) return query;
+        try {
+            for (String pair : rawQuery.split("&")) {
+                int equal = pair.indexOf('=');
+                if (equal < 0) query.put(URLDecoder.decode(pair, "UTF-8"), "");
+                else query.put(URLDecoder.decode(pair.substring(0, equal), "UTF-8"),
+                        URLDecoder.decode(pair.substring(equal + 1), "UTF-8"));
+            }
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException("UTF-8 is not supported", e);
+        }
+        return query;
+    }
+
+    /**
+     * Get the JSON reply of an error.
+     *
+     * @param message The message of the error
+     * @return The JSON object.
+     */
+    private static String toJsonError(String message) {
+        return "{\"error\":\"" + message.replace("\\", "\\\\").replace("\"", "\\\"") + "\"}";
+    }
+
+    /**
+     * The analysis of a position.
+     */
+    public static class Analysis {
+        /**
+         * The Zobrist key of the position
+         */
+        public final long key;
+        /**
+         * The result of the search
+         */
+        public final Engine.Result result;
+        /**
+         * Whether the result was taken from the cache
+         */
+        public final boolean cached;
+
+        /**
+         * Create an analysis.
+         *
+         * @param key    The Zobrist key of the position
+         * @param result The result of the search
+         * @param cached Whether the result was taken from the cache
+         */
+        Analysis(long key, Engine.Result result, boolean cached) {
+            this.key = key;
+            this.result = result;
+            this.cached = cached;
+        }
+
+        /**
+         * Get the JSON reply of this analysis, see the reply above.
+         *
+         * @return The JSON object.
+         */
+        public String toJson() {
+            StringBuilder sb = new StringBuilder("{\"key\":\"").append(Long.toHexString(key))
+                    .append("\",\"bestmove\":\"").append(Board.moveToString(result.move))
+                    .append("\",\"score\":").append(result.score)
+                    .append(",\"depth\":").append(result.depth)
+                    .append(",\"nodes\":").append(result.nodes)
+                    .append(",\"pv\":[");
+            for (int i = 0; i < result.pv.length; i++)
+                sb.append((i > 0) ? "," : "").append('"').append(Board.moveToString(result.pv[i])).append('"');
+            return sb.append("],\"cached\":").append(cached).append('}').toString();
+        }
+    }
+
+    /**
+     * Create a factory of daemon threads.
+     *
+     * @param name The name of the threads
+     * @return The thread factory.
+     */
+    private static ThreadFactory daemonThreads(String name) {
+        return r -> {
+            Thread t = new Thread(r, name);
+            t.setDaemon(true);
+            return t;
+        };
+    }
+
+    /**
+     * Run a server from the command line until it is killed, see the usage above.
+     *
+     * @param args The command line arguments.
+     * @throws IOException if the port cannot be bound.
+     */
+    public static void main(String[] args) throws IOException {
+        int port = fDefaultPort, threads = Runtime.getRuntime().availableProcessors(), cache = fDefaultCacheSize;
+        EngineConfig config = EngineConfig.parse("analysis:time=1000,hash=64");
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "port":
+                    port = Integer.parseInt(args[i + 1]);
+                    break;
+                case "threads":
+                    threads = Integer.parseInt(args[i + 1]);
+                    break;
+                case "cache":
+                    cache = Integer.parseInt(args[i + 1]);
+                    break;
+                case "engine":
+                    config = EngineConfig.parse(args[i + 1]);
+                    break;
+                default:
+                    System.err.println("usage: java AnalysisServer [port P] [threads T] [cache N] [engine SPEC]");
+                    System.exit(1);
+            }
+        }
+        AnalysisServer server = new AnalysisServer(new InetSocketAddress(port), config, threads, cache);
+        server.start();
+        System.out.println("analysis server listening on port " + server.getPort() + ", engine " + config);
+    }
+}
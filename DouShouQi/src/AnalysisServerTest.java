@@ -0,0 +1,133 @@
+//------------------------------------------------------------------------------
+//  File       : AnalysisServerTest.java
+//  Course     : CSC610
+//  Date:      : 10/18/2026
+//  Author     : Jason Qiao Meng
+//  Author ID  : 10652564
+//  Description: This file contains unit tests against AnalysisServer.java
+//------------------------------------------------------------------------------
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+
+
+/**
+ * A unit test class against class {@link AnalysisServer}
+ */
+public class AnalysisServerTest {
+
+    /**
+     * Start a server on any free loopback port.
+     *
+     * @param cacheSize The number of results kept
+     * @return The server.
+     * @throws Exception
+     */
+    private static AnalysisServer startServer(int cacheSize) throws Exception {
+        AnalysisServer server = new AnalysisServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0),
+                EngineConfig.parse("test:depth=7,hash=4"), 2, cacheSize);
+        server.start();
+        return server;
+    }
+
+    /**
+     * Send a GET request to a server.
+     *
+     * @param server The server
+     * @param query  The query of {@code /analyze}
+     * @return The status and the body of the reply, separated by a space.
+     * @throws Exception
+     */
+    private static String get(AnalysisServer server, String query) throws Exception {
+        URL url = new URL("http://127.0.0.1:" + server.getPort() + "/analyze?" + query);
+        HttpURLConnection connection = (HttpURLConnection)url.openConnection();
+        int status = connection.getResponseCode();
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        try (InputStream in = (status == 200) ? connection.getInputStream() : connection.getErrorStream()) {
+            in.transferTo(body);
+        }
+        return status + " " + body.toString(StandardCharsets.UTF_8.name());
+    }
+
+
+    /**
+     * Test whether concurrent requests of a position share one search and later ones hit the cache.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testCoalescing() throws Exception {
+        System.out.println("Test whether concurrent requests of a position share one search");
+
+        ExecutorService clients = Executors.newFixedThreadPool(4);
+        try (AnalysisServer server = startServer(16)) {
+            List<Future<String>> replies = new ArrayList<>();
+            for (int i = 0; i < 4; i++)
+                replies.add(clients.submit(() -> get(server, "position=startpos&moves=a3a4,a7a6")));
+            List<String> bodies = new ArrayList<>();
+            for (Future<String> reply : replies) bodies.add(reply.get().replace("\"cached\":true", "\"cached\":false"));
+            String again = get(server, "moves=a3a4%20a7a6");
+            System.out.println(bodies.get(0));
+            System.out.println(again);
+
+            boolean actual = bodies.get(0).startsWith("200 {\"key\":") && bodies.get(0).contains("\"depth\":7") &&
+                    bodies.stream().allMatch(bodies.get(0)::equals) && again.endsWith("\"cached\":true}") &&
+                    server.getSearchCount() == 1;
+            String msg = "The requests share one search? Expected: %1$b, Actual: %2$b";
+            msg = String.format(msg, true, actual);
+            assertTrue(msg, actual);
+        } finally {
+            clients.shutdown();
+        }
+    }
+
+
+    /**
+     * Test whether the least recently used result is evicted and bad requests are rejected.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testEvictionAndErrors() throws Exception {
+        System.out.println("Test whether the least recently used result is evicted and bad requests are rejected");
+
+        try (AnalysisServer server = startServer(1)) {
+            Board first = new Board(), second = new Board();
+            second.makeMove(second.parseMove("g3g4"));
+            boolean cached = !server.analyze(first).cached && server.analyze(first).cached &&
+                    !server.analyze(second).cached && !server.analyze(first).cached;
+            String illegal = get(server, "moves=a3a4,a3a4");
+            String badPosition = get(server, "position=xyz");
+            // the lions moved back and forth, one move more than a search allows
+            String shuffle[] = {"g1f1", "a9b9", "f1g1", "b9a9"};
+            StringBuilder moves = new StringBuilder("moves=");
+            for (int ply = 0; ply <= Engine.fMaxGamePlies; ply++)
+                moves.append(ply > 0 ? "," : "").append(shuffle[ply % 4]);
+            String tooLong = get(server, moves.toString());
+            System.out.println(illegal);
+            System.out.println(badPosition);
+            System.out.println(tooLong);
+
+            boolean actual = cached && server.getSearchCount() == 3 &&
+                    illegal.equals("400 {\"error\":\"illegal move: a3a4\"}") && badPosition.startsWith("400 ") &&
+                    tooLong.startsWith("400 {\"error\":\"too many moves: ");
+            String msg = "The results are evicted and errors reported? Expected: %1$b, Actual: %2$b";
+            msg = String.format(msg, true, actual);
+            assertTrue(msg, actual);
+        }
+    }
+}
@@ -159,6 +159,109 @@ public class Board {
      * The count of columns of this board
      */
     public static final int fCols = 7;  //# of board cols
+    /**
+     * The count of cells of this board. All of them fit in the low order bits of a {@code long},
+     * where bit {@code r * fCols + c} stands for the cell at {@code (r, c)}.
+     */
+    public static final int fCells = fRows * fCols;
+    /**
+     * A bit mask of all the legal cells on the board.
+     */
+    public static final long fAllBits = (1L << fCells) - 1;
+    /**
+     * The underlying board cell types (no pieces) indexed by cell (square) number.
+     * The board layout never changes, so it is shared by all instances.
+     */
+    private static final byte[] fTerrain = buildTerrain();
+    /**
+     * A bit mask of all the water cells.
+     */
+    public static final long fWaterBits = buildTerrainBits(cWater);
+    /**
+     * A bit mask of the red traps.
+     */
+    public static final long fRedTrapBits = buildTerrainBits(cRTrap);
+    /**
+     * A bit mask of the black traps.
+     */
+    public static final long fBlackTrapBits = buildTerrainBits(cBTrap);
+    /**
+     * A bit mask of all the traps regardless of their colors (all traps are universal).
+     */
+    public static final long fTrapBits = fRedTrapBits | fBlackTrapBits;
+    /**
+     * A bit mask of the red den.
+     */
+    public static final long fRedDenBits = buildTerrainBits(cRDen);
+    /**
+     * A bit mask of the black den.
+     */
+    public static final long fBlackDenBits = buildTerrainBits(cBDen);
+    /**
+     * The maximum number of legal moves of one side in any position:
+     * 8 pieces, each of which moves in at most 4 directions.
+     */
+    public static final int fMaxMoves = 8 * 4;
+    /**
+     * A packed move value which stands for no move. No legal move packs to 0
+     * because a legal move always has a moving piece.
+     */
+    public static final int fNoMove = 0;
+    /**
+     * The maximum number of moves that can be made by {@link #makeMove(int)} without
+     * being unmade, i.e. the capacity of the undo stack.
+     */
+    public static final int fMaxUndo = 1024;
+    /**
+     * Row steps of the 4 move directions: up, down, left, right.
+     */
+    private static final int[] fRowSteps = {-1, 1, 0, 0};
+    /**
+     * Column steps of the 4 move directions: up, down, left, right.
+     */
+    private static final int[] fColSteps = {0, 0, -1, 1};
+    /**
+     * The Zobrist keys of the pieces, indexed by piece value and cell number.
+     * The keys are generated from a fixed seed so that they are the same in every run.
+     */
+    private static final long[][] fZobristPieces = new long[bElephant + 1][fCells];
+    /**
+     * The Zobrist key of black's turn.
+     */
+    private static final long fZobristBlacksTurn;
+    /**
+     * The river jump targets indexed by {@code from * 4 + direction}: the cell where a tiger or lion
+     * lands when it jumps from cell {@code from} across the river in the direction, or -1 if
+     * there is no water next to {@code from} in that direction.
+     */
+    private static final int[] fJumpTargets = new int[fCells * 4];
+    /**
+     * The river jump paths indexed like {@link #fJumpTargets}: a bit mask of the water cells
+     * which are crossed by the jump. The jump is blocked if any piece stands on them.
+     */
+    private static final long[] fJumpPaths = new long[fCells * 4];
+    /**
+     * The capture matrix indexed by {@code attacker * (bElephant + 1) + defender}, where each entry
+     * is a 64-bit mask indexed by {@code attackerTerrain * 8 + defenderTerrain} (see {@link #terrainIndex(int)}).
+     * A bit is set if the attacker standing on its terrain can take the defender standing on its terrain.
+     * Whether a river jump is blocked is the only thing it doesn't cover.
+     */
+    private static final long[] fCaptures = buildCaptureTable();
+
+    static {
+        // splitmix64, which doesn't depend on the JDK's implementation of Random
+        long seed = 0x446f755368755169L;
+        for (int p = rRat; p <= bElephant; p++) {
+            for (int sq = 0; sq < fCells; sq++) {
+                seed += 0x9e3779b97f4a7c15L;
+                fZobristPieces[p][sq] = mix64(seed);
+            }
+        }
+        seed += 0x9e3779b97f4a7c15L;
+        fZobristBlacksTurn = mix64(seed);
+
+        buildJumpTables();
+    }
 
     /**
      * Color code of a piece
@@ -188,6 +291,63 @@ public class Board {
      * By convention, black goes first.
      */
     protected boolean mBlacksTurn = true;
+    /**
+     * The pieces (or {@link #rbNone}) indexed by cell (square) number.
+     * This is the flat counterpart of the piece bits in {@link #mBoard}.
+     */
+    protected byte mSquares[] = new byte[fCells];
+    /**
+     * The bit boards of the pieces, indexed by piece value. {@code mPieceBits[rbNone]} is always 0.
+     */
+    protected long mPieceBits[] = new long[bElephant + 1];
+    /**
+     * A bit mask of all the cells occupied by red pieces.
+     */
+    protected long mRedBits = 0;
+    /**
+     * A bit mask of all the cells occupied by black pieces.
+     */
+    protected long mBlackBits = 0;
+    /**
+     * The piece list: the cell number of every piece indexed by piece value, or -1 if the piece
+     * is not on the board. Each piece value stands for one piece, so a list of 8 covers a side.
+     */
+    protected byte mPieceSquares[] = buildEmptyPieceSquares();
+    /**
+     * The number of red pieces on the board.
+     */
+    private int mRedCount = 0;
+    /**
+     * The number of black pieces on the board.
+     */
+    private int mBlackCount = 0;
+    /**
+     * The undo stack of {@link #makeMove(int)}. Each entry is a packed move, which carries
+     * the captured piece, with bit 31 set if it was black's turn before the move.
+     * It is allocated by the first {@link #makeMove(int)} so that copies which never use it stay small.
+     */
+    private int mUndo[] = null;
+    /**
+     * The number of entries on the undo stack.
+     */
+    private int mUndoCount = 0;
+    /**
+     * The Zobrist key of the pieces on the board, not including the turn.
+     *
+     * @see #zobristKey()
+     */
+    private long mPieceKey = 0;
+    /**
+     * The material, piece-square and den distance terms of the evaluation from red's view,
+     * kept up to date as pieces are placed and removed.
+     *
+     * @see Evaluation
+     */
+    private int mScore = 0;
+    /**
+     * The evaluation whose terms {@link #mScore} keeps
+     */
+    private Evaluation mEvaluation = Evaluation.getDefault();
 
 
     /**
@@ -196,33 +356,10 @@ public class Board {
      * and black will start in the bottom half.
      */
     public Board() {
-        int mRow = getBoardRowMedian();
-        int mCol = getBoardColumnMedian();
-        // set red den
-        mBoard[0][mCol] = cRDen;
-        // set black den
-        mBoard[fRows - 1][mCol] = cBDen;
-        // set red trap
-        for (int c = mCol - 1; c <= mCol + 1; c++) {
-            if (c != mCol) {
-                mBoard[0][c] = cRTrap;
-                mBoard[fRows - 1][c] = cBTrap;
-            } else {
-                mBoard[1][c] = cRTrap;
-                mBoard[fRows - 2][c] = cBTrap;
-            }
-        }
-        // set water
-        for (int r = mRow - 1; r <= mRow + 1; r++) {
-            for (int c = 1; c < mCol; c++)
-                mBoard[r][c] = cWater;
-            for (int c = mCol + 1; c < fCols - 1; c++)
-                mBoard[r][c] = cWater;
-        }
-        // set ground
+        // set the underlying board cells
         for (int r = 0; r < fRows; r++)
             for (int c = 0; c < fCols; c++)
-                if (mBoard[r][c] == 0) mBoard[r][c] = cGround;
+                mBoard[r][c] = fTerrain[toSquare(r, c)];
 
         // set pieces for red
         setPiece(0, 0, rLion);
@@ -244,6 +381,47 @@ public class Board {
         setPiece(fRows - 3, 0, bElephant);
     }
 
+    /**
+     * Create an instance of class {@link Board} from the cell of every piece.
+     * This is the inverse of the piece list, see {@link #getSquare(int)}.
+     *
+     * @param squares    The cell numbers indexed by piece value from {@link #rRat} to {@link #bElephant},
+     *                   or -1 for a piece which is not on the board. Element 0 is not used.
+     * @param blacksTurn Whether it is black's turn.
+     * @throws IllegalArgumentException if a cell is out of the board, taken by 2 pieces,
+     *                                  or cannot be stood on by its piece (see {@link #canStand(int, int)}).
+     */
+    public Board(int[] squares, boolean blacksTurn) {
+        for (int r = 0; r < fRows; r++)
+            for (int c = 0; c < fCols; c++)
+                mBoard[r][c] = fTerrain[toSquare(r, c)];
+        setUp(squares, blacksTurn);
+    }
+
+    /**
+     * Set up the board from the cell of every piece, taking off all the pieces first.
+     * The undo stack is emptied. It lets a loop over many positions reuse one board.
+     *
+     * @param squares    The cell numbers indexed by piece value, see {@link #Board(int[], boolean)}
+     * @param blacksTurn Whether it is black's turn.
+     * @throws IllegalArgumentException if a piece cannot be placed, see {@link #Board(int[], boolean)}.
+     */
+    void setUp(int[] squares, boolean blacksTurn) {
+        if (squares == null || squares.length != bElephant + 1)
+            throw new IllegalArgumentException("A piece list must have " + (bElephant + 1) + " elements");
+        for (int p = rRat; p <= bElephant; p++)
+            if (mPieceSquares[p] >= 0) removePiece(mPieceSquares[p]);
+        for (int p = rRat; p <= bElephant; p++) {
+            int sq = squares[p];
+            if (sq == -1) continue;
+            if (sq < 0 || sq >= fCells || mSquares[sq] != rbNone || !canStand(p, sq))
+                throw new IllegalArgumentException("Piece " + p + " cannot be placed at cell " + sq);
+            setPiece(sq, p);
+        }
+        mBlacksTurn = blacksTurn;
+        mUndoCount = 0;
+    }
+
     /**
      * Test whether a coming move is valid or not regardless of whose turn it is.
      *
@@ -269,6 +447,106 @@ public class Board {
         return getPiece(toRow, toCol) == rbNone || canCapture(fromRow, fromCol, toRow, toCol);
     }
 
+    /**
+     * List all the legal moves of the side whose turn it is (see {@link #mBlacksTurn}) in one pass.
+     * Each move is packed into an {@code int} by {@link #packMove(int, int, int, int)}.
+     * Nothing is allocated; the moves are written to the given buffer.
+     *
+     * @param moves A buffer of at least {@link #fMaxMoves} elements to write the moves to.
+     * @return The number of moves written to {@code moves}.
+     */
+    public int generateMoves(int[] moves) {
+        long own = mBlacksTurn ? mBlackBits : mRedBits;
+        long occupied = mRedBits | mBlackBits;
+        // none stands in a DEN when they are in the same color
+        long forbidden = own | (mBlacksTurn ? fBlackDenBits : fRedDenBits);
+        int count = 0;
+        // walk the piece list of the side, at most 8 pieces
+        int first = mBlacksTurn ? bRat : rRat;
+        for (int piece = first; piece < first + rElephant; piece++) {
+            int from = mPieceSquares[piece];
+            if (from < 0) continue;
+            int rank = piece - first + 1;
+            int fr = toRow(from), fc = toColumn(from);
+            for (int d = 0; d < fRowSteps.length; d++) {
+                int tr = fr + fRowSteps[d], tc = fc + fColSteps[d];
+                if (!isLegalPosition(tr, tc)) continue;
+                long bit = 1L << toSquare(tr, tc);
+                if ((bit & fWaterBits) != 0) {
+                    if (rank == rTiger || rank == rLion) {
+                        // tiger or lion jump from one river bank to the other,
+                        // but no other piece may stand in the river on the way
+                        int jump = from * 4 + d;
+                        if ((fJumpPaths[jump] & occupied) != 0) continue;
+                        tr = toRow(fJumpTargets[jump]);
+                        tc = toColumn(fJumpTargets[jump]);
+                        bit = 1L << fJumpTargets[jump];
+                    } else if (rank != rRat) {
+                        // only rat can enter a water cell
+                        continue;
+                    }
+                }
+                if ((bit & forbidden) != 0) continue;
+                int to = toSquare(tr, tc);
+                int captured = mSquares[to];
+                // a blocked jump has been skipped above, so the capture matrix alone decides
+                if (captured != rbNone && !isCaptureAllowed(piece, captured, from, to)) continue;
+                moves[count++] = packMove(from, to, piece, captured);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Make a move generated by {@link #generateMoves(int[])} and pass the turn to the other side.
+     * The move is not validated. It can be taken back by {@link #unmakeMove()}.
+     *
+     * @param move A packed legal move of the side whose turn it is.
+     * @throws IllegalStateException if the undo stack is full.
+     */
+    public void makeMove(int move) {
+        if (mUndoCount == fMaxUndo)
+            throw new IllegalStateException("Too many moves to be unmade");
+        if (mUndo == null) mUndo = new int[fMaxUndo];
+        mUndo[mUndoCount++] = mBlacksTurn ? move | 0x80000000 : move;
+        int from = moveFrom(move);
+        int to = moveTo(move);
+        removePiece(from);
+        removePiece(to);
+        setPiece(to, movePiece(move));
+        mBlacksTurn = !mBlacksTurn;
+    }
+
+    /**
+     * Take back the last move made by {@link #makeMove(int)}, restoring the captured piece
+     * and the turn.
+     *
+     * @return The packed move which is taken back.
+     * @throws IllegalStateException if there is no move to be unmade.
+     */
+    public int unmakeMove() {
+        if (mUndoCount == 0)
+            throw new IllegalStateException("No move to be unmade");
+        int entry = mUndo[--mUndoCount];
+        int move = entry & 0x7fffffff;
+        int to = moveTo(move);
+        int captured = moveCaptured(move);
+        removePiece(to);
+        if (captured != rbNone) setPiece(to, captured);
+        setPiece(moveFrom(move), movePiece(move));
+        mBlacksTurn = entry < 0;
+        return move;
+    }
+
+    /**
+     * Get the number of moves which can be taken back by {@link #unmakeMove()}.
+     *
+     * @return The number of entries on the undo stack.
+     */
+    public int getUndoCount() {
+        return mUndoCount;
+    }
+
     /**
      * Perform the specified move but only if it's valid.
      *
@@ -292,6 +570,48 @@ public class Board {
         return true;
     }
 
+    /**
+     * Perform the specified move of the side whose turn it is, then pass the turn,
+     * but only if the piece belongs to that side and the move is valid.
+     *
+     * @param fromRow The row index of the piece's current position.
+     * @param fromCol The column index of the piece's current position.
+     * @param toRow   The row index of the destination position.
+     * @param toCol   The column index of the destination position.
+     * @return Returns {@code true) if the move is played; returns {@code false} otherwise.
+     */
+    public boolean doTurn(int fromRow, int fromCol, int toRow, int toCol) {
+        if (getColor(fromRow, fromCol) != getTurn() || !doMove(fromRow, fromCol, toRow, toCol))
+            return false;
+        switchTurn();
+        return true;
+    }
+
+    /**
+     * Test whether it is black side's turn.
+     *
+     * @return Returns {@code true} if black is to move; returns {@code false} if red is.
+     */
+    public boolean isBlacksTurn() {
+        return mBlacksTurn;
+    }
+
+    /**
+     * Get the side whose turn it is.
+     *
+     * @return {@link Color#Black} or {@link Color#Red}.
+     */
+    public Color getTurn() {
+        return mBlacksTurn ? Color.Black : Color.Red;
+    }
+
+    /**
+     * Pass the turn to the other side, e.g. after {@link #doMove(int, int, int, int)}.
+     */
+    public void switchTurn() {
+        mBlacksTurn = !mBlacksTurn;
+    }
+
     /**
      * Return the specific (moveable) piece (e.g., bWolf or rbNone) at the
      * indicated position.
@@ -302,7 +622,7 @@ public class Board {
      */
     public int getPiece(int r, int c) {
         return (isLegalPosition(r, c)) ?
-                fPieceMask & mBoard[r][c] :
+                mSquares[toSquare(r, c)] :
                 rbNone;
     }
 
@@ -328,7 +648,7 @@ public class Board {
      */
     public int getRank(int r, int c) {
         if (!isLegalPosition(r, c)) return rbNone;
-        int p = fPieceMask & mBoard[r][c];
+        int p = mSquares[toSquare(r, c)];
         if (p == rbNone) return rbNone;
         return (p % rElephant == 0) ? rElephant : p % rElephant;
     }
@@ -342,7 +662,7 @@ public class Board {
      */
     public int getBoard(int r, int c) {
         return (isLegalPosition(r, c)) ?
-                fBoardMask & mBoard[r][c] :
+                fTerrain[toSquare(r, c)] :
                 cNone;
     }
 
@@ -357,10 +677,9 @@ public class Board {
     public Color getColor(int r, int c) {
         if (!isLegalPosition(r, c))
             return Color.None;
-        // get piece first
-        int p = fPieceMask & mBoard[r][c];
-        return (p == rbNone) ? Color.None :
-                (p - rElephant > rbNone) ? Color.Black : Color.Red;
+        long bit = 1L << toSquare(r, c);
+        return ((mRedBits & bit) != 0) ? Color.Red :
+                ((mBlackBits & bit) != 0) ? Color.Black : Color.None;
     }
 
     /**
@@ -372,7 +691,7 @@ public class Board {
      */
     public boolean isEmpty(int r, int c) {
         return isLegalPosition(r, c) &&
-                rbNone == (fPieceMask & mBoard[r][c]);
+                ((mRedBits | mBlackBits) & (1L << toSquare(r, c))) == 0;
     }
 
     /**
@@ -412,11 +731,7 @@ public class Board {
      * @return An integer number which represents the number of black pieces on the board.
      */
     public int countBlack() {
-        int count = 0;
-        for (int r = 0; r < fRows; r++)
-            for (int c = 0; c < fCols; c++)
-                count += (getColor(r, c) == Color.Black) ? 1 : 0;
-        return count;
+        return mBlackCount;
     }
 
     /**
@@ -425,11 +740,40 @@ public class Board {
      * @return An integer number which represents the number of red pieces on the board.
      */
     public int countRed() {
-        int count = 0;
-        for (int r = 0; r < fRows; r++)
-            for (int c = 0; c < fCols; c++)
-                count += (getColor(r, c) == Color.Red) ? 1 : 0;
-        return count;
+        return mRedCount;
+    }
+
+    /**
+     * Test whether the side whose turn it is has no piece left.
+     *
+     * @return Return {@code true} if the side to move is out of pieces, false otherwise
+     */
+    public boolean isOutOfPieces() {
+        return (mBlacksTurn ? mBlackCount : mRedCount) == 0;
+    }
+
+    /**
+     * Test whether a piece may stand on a cell by the rules, regardless of the other pieces:
+     * only rat can enter a water cell and none stands in a DEN when they are in the same color.
+     *
+     * @param p  A piece, from {@link #rRat} to {@link #bElephant}
+     * @param sq A cell number
+     * @return Return {@code true} if the piece may stand there, false otherwise
+     */
+    static boolean canStand(int p, int sq) {
+        byte cell = fTerrain[sq];
+        if (cell == cWater) return p == rRat || p == bRat;
+        return !(cell == cRDen && p <= rElephant || cell == cBDen && p > rElephant);
+    }
+
+    /**
+     * Get the cell number where a piece stands, from the piece list.
+     *
+     * @param p A piece, from {@link #rRat} to {@link #bElephant}
+     * @return The cell number of the piece, or -1 if it is not on the board.
+     */
+    int getSquare(int p) {
+        return mPieceSquares[p];
     }
 
     /**
@@ -438,7 +782,7 @@ public class Board {
      * @return Return {@code true} if red wins, false otherwise
      */
     public boolean isRedWinner() {
-        return getColor(fRows - 1, getBoardColumnMedian()) == Color.Red;
+        return (mRedBits & fBlackDenBits) != 0;
     }
 
     /**
@@ -447,7 +791,7 @@ public class Board {
      * @return Return {@code true} if red wins, false otherwise
      */
     public boolean isBlackWinner() {
-        return getColor(0, getBoardColumnMedian()) == Color.Black;
+        return (mBlackBits & fRedDenBits) != 0;
     }
 
     /**
@@ -462,8 +806,19 @@ public class Board {
         // a copy constructor should do the following:
         // 1. copy board configuration
         // 2. copy the current turn
+        // the undo stack is not copied, the copy starts with no moves to be unmade.
         for (int r = 0; r < fRows; r++)
             System.arraycopy(other.mBoard[r], 0, mBoard[r], 0, fCols);
+        System.arraycopy(other.mSquares, 0, mSquares, 0, fCells);
+        System.arraycopy(other.mPieceBits, 0, mPieceBits, 0, mPieceBits.length);
+        System.arraycopy(other.mPieceSquares, 0, mPieceSquares, 0, mPieceSquares.length);
+        mRedCount = other.mRedCount;
+        mBlackCount = other.mBlackCount;
+        mRedBits = other.mRedBits;
+        mBlackBits = other.mBlackBits;
+        mPieceKey = other.mPieceKey;
+        mScore = other.mScore;
+        mEvaluation = other.mEvaluation;
         mBlacksTurn = other.mBlacksTurn;
     }
 
@@ -490,7 +845,9 @@ public class Board {
      * @return Return {@code true} if identical, false otherwise.
      */
     public boolean equalsBoard(Board other) {
-        return Arrays.deepEquals(other.mBoard, mBoard);
+        // the underlying board cells never change, so only the pieces have to be compared
+        return other.mRedBits == mRedBits && other.mBlackBits == mBlackBits &&
+                Arrays.equals(other.mSquares, mSquares);
     }
 
     /**
@@ -503,35 +860,55 @@ public class Board {
         // from "Effective Java" by J. Bloch:
         // "Item 9: Always override hashCode when you override equals"
         //
-        // use the string algorithm from
-        // https://en.wikipedia.org/wiki/Java_hashCode%28%29#The_java.lang.String_hash_function.
-        // simply treat the individual board values (i.e., mBoard[r][c]) as the
-        // individual character values.  (DO NOT use charAt on the string returned
-        // from toString for this function.)  also include the value of mBlacksTurn
-        // as described below as the last (i.e., nth) character.
-        //
-        //include individual board values
-        int hash = 0, i = 0;
-        for (int r = 0; r < Board.fRows; r++) {
-            for (int c = 0; c < Board.fCols; c++) {
-                // hash += (int)Math.pow(31, fRows * fCols - 1 - i) * mBoard[r][c];
-                // Math.pow() always gets wrong answer because of the number is too big
-                int power = 1;
-                if (i > 0) {
-                    for (int p = 1; p <= fRows * fCols - 1 - i; p++)
-                        power *= 31;
-                }
-                hash += power * mBoard[r][c];
-                i++;
-            }
-        }
-//        for (int r = 0; r < Board.fRows; r++)
-//            for (int c = 0; c < Board.fCols; c++)
-//                hash = hash * 31 + mBoard[r][c];
+        // fold the 64-bit Zobrist key, which already includes mBlacksTurn.
+        long key = zobristKey();
+        return (int)(key ^ (key >>> 32));
+    }
+
+    /**
+     * Get the 64-bit Zobrist key of the current board configuration and turn.
+     * The piece part of the key is updated incrementally whenever a piece is placed or removed,
+     * so this takes constant time. Two boards that are {@link #equals(Object)} have the same key.
+     *
+     * @return A {@code long} which is the Zobrist key of this board.
+     */
+    public long zobristKey() {
+        // the turn is folded in here rather than on every change
+        // because mBlacksTurn can be flipped directly by the users of this class.
+        return mPieceKey ^ (mBlacksTurn ? fZobristBlacksTurn : 0);
+    }
+
+    /**
+     * Get the material, piece-square and den distance terms of the evaluation,
+     * which are updated incrementally by every move.
+     *
+     * @return The terms of {@link #getEvaluation()} from red's view.
+     * @see Evaluation#evaluate(Board)
+     */
+    public int getScore() {
+        return mScore;
+    }
+
+    /**
+     * Get the evaluation whose terms {@link #getScore()} keeps.
+     *
+     * @return The evaluation, {@link Evaluation#getDefault()} unless another one is set.
+     */
+    public Evaluation getEvaluation() {
+        return mEvaluation;
+    }
 
-        //include mBlacksTurn as the last character value by using a value of 1 if it
-        // is true, and a value of 2 if it is false.
-        return hash + ((mBlacksTurn) ? 1 : 2);
+    /**
+     * Keep the terms of another evaluation, which are computed from scratch here.
+     *
+     * @param evaluation The evaluation
+     */
+    public void setEvaluation(Evaluation evaluation) {
+        if (evaluation == null)
+            throw new IllegalArgumentException("The given evaluation is null");
+        if (evaluation == mEvaluation) return;
+        mEvaluation = evaluation;
+        mScore = evaluation.getPieceScores(this);
     }
 
     /**
@@ -570,6 +947,223 @@ public class Board {
                 (count % 2 == 0) ? (count - 1) >> 1 : count >> 1;
     }
 
+    /**
+     * Get the cell (square) number of a board position, which is also the bit index
+     * of the position in a bit board.
+     *
+     * @param r Row index
+     * @param c Column index
+     * @return An integer which is {@code r * fCols + c}.
+     */
+    static int toSquare(int r, int c) {
+        return r * fCols + c;
+    }
+
+    /**
+     * Get the row index of a cell (square) number.
+     *
+     * @param sq The cell number
+     * @return The row index of the cell.
+     */
+    static int toRow(int sq) {
+        return sq / fCols;
+    }
+
+    /**
+     * Get the column index of a cell (square) number.
+     *
+     * @param sq The cell number
+     * @return The column index of the cell.
+     */
+    static int toColumn(int sq) {
+        return sq % fCols;
+    }
+
+    /**
+     * Pack a move into an {@code int}:
+     * <pre>
+     *     bits  0 -  5: the cell number where the piece moves from
+     *     bits  6 - 11: the cell number where the piece moves to
+     *     bits 12 - 16: the moving piece
+     *     bits 17 - 21: the captured piece or rbNone
+     * </pre>
+     *
+     * @param from     The cell number where the piece moves from
+     * @param to       The cell number where the piece moves to
+     * @param piece    The moving piece
+     * @param captured The captured piece or {@link #rbNone}
+     * @return The packed move.
+     */
+    static int packMove(int from, int to, int piece, int captured) {
+        return from | (to << 6) | (piece << 12) | (captured << 17);
+    }
+
+    /**
+     * Get the cell number where the piece of a packed move moves from.
+     *
+     * @param move A packed move
+     * @return The cell number where the piece moves from.
+     */
+    static int moveFrom(int move) {
+        return move & 0x3f;
+    }
+
+    /**
+     * Get the cell number where the piece of a packed move moves to.
+     *
+     * @param move A packed move
+     * @return The cell number where the piece moves to.
+     */
+    static int moveTo(int move) {
+        return (move >>> 6) & 0x3f;
+    }
+
+    /**
+     * Get the moving piece of a packed move.
+     *
+     * @param move A packed move
+     * @return The moving piece.
+     */
+    static int movePiece(int move) {
+        return (move >>> 12) & fPieceMask;
+    }
+
+    /**
+     * Get the captured piece of a packed move.
+     *
+     * @param move A packed move
+     * @return The captured piece or {@link #rbNone}.
+     */
+    static int moveCaptured(int move) {
+        return (move >>> 17) & fPieceMask;
+    }
+
+    /**
+     * The finalizer of the splitmix64 generator, which scrambles the bits of a {@code long}.
+     *
+     * @param z The value to be scrambled
+     * @return The scrambled value.
+     */
+    static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Get the text form of a packed move: the column letter and the row number of the
+     * cell where it moves from, followed by those of the cell where it moves to,
+     * e.g. {@code "a3a4"}. Columns are lettered from {@code a} at the left and rows are
+     * numbered from {@code 1} at the bottom (black's side).
+     *
+     * @param move A packed move
+     * @return A {@link String} of the move, or {@code "none"} for {@link #fNoMove}.
+     */
+    static String moveToString(int move) {
+        if (move == fNoMove) return "none";
+        return squareToString(moveFrom(move)) + squareToString(moveTo(move));
+    }
+
+    /**
+     * Get the text form of a cell, e.g. {@code "a3"}.
+     *
+     * @param sq The cell number
+     * @return A {@link String} of the cell.
+     * @see #moveToString(int)
+     */
+    static String squareToString(int sq) {
+        return String.valueOf((char)('a' + toColumn(sq))) + (fRows - toRow(sq));
+    }
+
+    /**
+     * Find a cell by its text form, e.g. {@code "a3"}.
+     *
+     * @param text The text form of a cell
+     * @return The cell number, or -1 if it is not a cell.
+     * @see #squareToString(int)
+     */
+    static int parseSquare(String text) {
+        if (text.length() != 2) return -1;
+        int c = text.charAt(0) - 'a', r = fRows - (text.charAt(1) - '0');
+        return (r >= 0 && r < fRows && c >= 0 && c < fCols) ? toSquare(r, c) : -1;
+    }
+
+    /**
+     * Find the legal move of the side whose turn it is by its text form.
+     *
+     * @param text The text form of a move, e.g. {@code "a3a4"}
+     * @return The packed move, or {@link #fNoMove} if it is not a legal move.
+     * @see #moveToString(int)
+     */
+    public int parseMove(String text) {
+        int[] moves = new int[fMaxMoves];
+        int count = generateMoves(moves);
+        for (int i = 0; i < count; i++)
+            if (moveToString(moves[i]).equals(text)) return moves[i];
+        return fNoMove;
+    }
+
+    /**
+     * Build the underlying board cells (no pieces) indexed by cell number.
+     * By convention, the red den is at the top (row 0) and the black den is at the bottom.
+     *
+     * @return An array of {@code byte} of cell types.
+     */
+    private static byte[] buildTerrain() {
+        byte[] cells = new byte[fCells];
+        int mRow = getBoardRowMedian();
+        int mCol = getBoardColumnMedian();
+        // set red den
+        cells[toSquare(0, mCol)] = cRDen;
+        // set black den
+        cells[toSquare(fRows - 1, mCol)] = cBDen;
+        // set red trap
+        for (int c = mCol - 1; c <= mCol + 1; c++) {
+            if (c != mCol) {
+                cells[toSquare(0, c)] = cRTrap;
+                cells[toSquare(fRows - 1, c)] = cBTrap;
+            } else {
+                cells[toSquare(1, c)] = cRTrap;
+                cells[toSquare(fRows - 2, c)] = cBTrap;
+            }
+        }
+        // set water
+        for (int r = mRow - 1; r <= mRow + 1; r++) {
+            for (int c = 1; c < mCol; c++)
+                cells[toSquare(r, c)] = cWater;
+            for (int c = mCol + 1; c < fCols - 1; c++)
+                cells[toSquare(r, c)] = cWater;
+        }
+        // set ground
+        for (int sq = 0; sq < fCells; sq++)
+            if (cells[sq] == 0) cells[sq] = cGround;
+        return cells;
+    }
+
+    /**
+     * Build an empty piece list, where no piece is on the board.
+     *
+     * @return An array of {@code byte} of -1 indexed by piece value.
+     */
+    private static byte[] buildEmptyPieceSquares() {
+        byte[] squares = new byte[bElephant + 1];
+        Arrays.fill(squares, (byte)-1);
+        return squares;
+    }
+
+    /**
+     * Build a bit mask of all the cells of the given type.
+     *
+     * @param type A cell type, e.g. {@link #cWater}
+     * @return A {@code long} bit mask of the cells.
+     */
+    private static long buildTerrainBits(byte type) {
+        long bits = 0;
+        for (int sq = 0; sq < fCells; sq++)
+            if (fTerrain[sq] == type) bits |= 1L << sq;
+        return bits;
+    }
+
     /**
      * Place a piece at an empty board cell.
      * Note: This method is for internal use merely.
@@ -582,7 +1176,31 @@ public class Board {
      * @param p The piece to be placed.
      */
     private void setPiece(int r, int c, int p) {
-        mBoard[r][c] |= p;
+        setPiece(toSquare(r, c), p);
+    }
+
+    /**
+     * Place a piece at an empty board cell by the cell number.
+     *
+     * @param sq The cell number.
+     * @param p  The piece to be placed.
+     * @see #setPiece(int, int, int)
+     */
+    private void setPiece(int sq, int p) {
+        mBoard[toRow(sq)][toColumn(sq)] |= p;
+        long bit = 1L << sq;
+        mSquares[sq] = (byte)p;
+        mPieceBits[p] |= bit;
+        mPieceSquares[p] = (byte)sq;
+        mPieceKey ^= fZobristPieces[p][sq];
+        mScore += mEvaluation.mPieceScores[p * fCells + sq];
+        if (p > rElephant) {
+            mBlackBits |= bit;
+            mBlackCount++;
+        } else {
+            mRedBits |= bit;
+            mRedCount++;
+        }
     }
 
     /**
@@ -592,19 +1210,39 @@ public class Board {
      * @param c Column index of the position
      */
     private void removePiece(int r, int c) {
-        mBoard[r][c] &= fBoardMask;
+        removePiece(toSquare(r, c));
+    }
+
+    /**
+     * Removes a piece at the specified cell by the cell number.
+     *
+     * @param sq The cell number.
+     */
+    private void removePiece(int sq) {
+        mBoard[toRow(sq)][toColumn(sq)] &= fBoardMask;
+        int p = mSquares[sq];
+        if (p == rbNone) return;
+        long bit = ~(1L << sq);
+        mSquares[sq] = rbNone;
+        mPieceBits[p] &= bit;
+        mPieceSquares[p] = -1;
+        mPieceKey ^= fZobristPieces[p][sq];
+        mScore -= mEvaluation.mPieceScores[p * fCells + sq];
+        mRedBits &= bit;
+        mBlackBits &= bit;
+        if (p > rElephant) mBlackCount--;
+        else mRedCount--;
     }
 
     /**
      * Check against rules whether one piece can take another out.
      * <pre>
      *     Note:
-     *         1. Both {@code attacker} and {@code attacked} values would be modified inside.
-     *         2. This method simply compares the revised values of attacker and attacked.
-     *         3. The 2 values are revised according to the types of cells where the 2 pieces are,
-     *         with regards to the rules.
-     *         4. This method does not check whether the 2 pieces' values are valid or not.
-     *         5. Invokers have to validate whether the 2 pieces' values are valid.
+     *         1. The rules are looked up in the capture matrix {@link #fCaptures} by the 2 pieces
+     *         and the types of cells where they are, see {@link #buildCaptureTable()}.
+     *         2. The only rule which depends on other pieces, a lion or tiger jumping across
+     *         a river with a rat in it, is checked here.
+     *         3. This method does not check whether the 2 pieces' values are valid or not.
      * </pre>
      *
      * @param fr The row index of the piece's current position.
@@ -614,39 +1252,137 @@ public class Board {
      * @return Returns {@code true} if {@code attacker} wins; {@code false} otherwise.
      */
     private boolean canCapture(int fr, int fc, int tr, int tc) {
-        int attacker = getPiece(fr, fc);
-        int attacked = getPiece(tr, tc);
-        Color attackerColor = getColor(fr, fc);
-        Color attackedColor = getColor(tr, tc);
-        int attackerCell = getBoard(fr, fc);
-        int attackedCell = getBoard(tr, tc);
-
-        // general: neither of the pieces can be rbNone.
-        // this is tested by the invoker
-        // if (attacker == rbNone || attacked == rbNone) return false;
-        // rule 0: same color, no attack
-        if (attackerColor == attackedColor) return false;
+        int from = toSquare(fr, fc), to = toSquare(tr, tc);
+        int attacker = mSquares[from];
+        // rule 5: lion and tiger cannot attack a piece at the other side of river, only when a rat is in the river
+        if ((attacker == rLion || attacker == rTiger || attacker == bLion || attacker == bTiger) &&
+                isRiverBlocked(fr, fc, tr, tc))
+            return false;
+        return isCaptureAllowed(attacker, mSquares[to], from, to);
+    }
+
+    /**
+     * Look up in the capture matrix {@link #fCaptures} whether one piece can take another out,
+     * regardless of the other pieces on the board.
+     *
+     * @param attacker The attacking piece
+     * @param defender The attacked piece
+     * @param from     The cell number where the attacker stands
+     * @param to       The cell number where the defender stands
+     * @return Returns {@code true} if {@code attacker} wins; {@code false} otherwise.
+     */
+    static boolean isCaptureAllowed(int attacker, int defender, int from, int to) {
+        long terrains = fCaptures[attacker * (bElephant + 1) + defender];
+        return ((terrains >>> (terrainIndex(from) << 3 | terrainIndex(to))) & 1) != 0;
+    }
 
+    /**
+     * Find the pieces of a side which can step or jump to a cell, whatever stands there,
+     * e.g. to find the attackers of a piece in a static exchange.
+     * <pre>
+     *     Note:
+     *         1. Only a rat steps into water, and no piece steps into its own den.
+     *         2. A tiger or lion jumps across a river only if no cell of {@code occupied} is on the way.
+     *         3. Whether a piece may take the one on the cell is not checked,
+     *         see {@link #isCaptureAllowed(int, int, int, int)}.
+     * </pre>
+     *
+     * @param to       The cell number
+     * @param black    Whether the pieces are black's
+     * @param occupied The cells taken as occupied; pieces off them are not counted
+     * @return A bit mask of the cells of the pieces.
+     */
+    long getAttackers(int to, boolean black, long occupied) {
+        long own = (black ? mBlackBits : mRedBits) & occupied;
+        if (((black ? fBlackDenBits : fRedDenBits) & (1L << to)) != 0) return 0;
+        int rat = black ? bRat : rRat, tiger = black ? bTiger : rTiger, lion = black ? bLion : rLion;
+        int tr = toRow(to), tc = toColumn(to);
+        boolean water = fTerrain[to] == cWater;
+        long attackers = 0;
+        for (int d = 0; d < fRowSteps.length; d++) {
+            int r = tr + fRowSteps[d], c = tc + fColSteps[d];
+            if (r < 0 || r >= fRows || c < 0 || c >= fCols) continue;
+            int from = toSquare(r, c);
+            if ((own & (1L << from)) != 0 && (!water || mSquares[from] == rat))
+                attackers |= 1L << from;
+            // a jump is symmetric: it lands on the cell it would start from the other way
+            int jump = to * 4 + d;
+            int bank = fJumpTargets[jump];
+            if (bank >= 0 && (own & (1L << bank)) != 0 && (fJumpPaths[jump] & occupied) == 0 &&
+                    (mSquares[bank] == tiger || mSquares[bank] == lion))
+                attackers |= 1L << bank;
+        }
+        return attackers;
+    }
+
+    /**
+     * Get the type of the underlying cell as a small index from 0 to 7,
+     * i.e. the cell type ({@link #cWater}, {@link #cGround}, ...) shifted down to the lowest bits.
+     *
+     * @param sq A cell number
+     * @return The index of the cell type.
+     */
+    private static int terrainIndex(int sq) {
+        return (fTerrain[sq] & 0xff) >>> 5;
+    }
+
+    /**
+     * Build the capture matrix {@link #fCaptures} by applying the capture rules
+     * to every pair of pieces on every pair of cell types.
+     *
+     * @return An array of {@code long} bit masks, see {@link #fCaptures}.
+     */
+    private static long[] buildCaptureTable() {
+        long[] table = new long[(bElephant + 1) * (bElephant + 1)];
+        for (int p = rRat; p <= bElephant; p++) {
+            for (int q = rRat; q <= bElephant; q++) {
+                // rule 0: same color, no attack
+                if ((p <= rElephant) == (q <= rElephant)) continue;
+                for (int src = 0; src < 8; src++) {
+                    for (int dst = 0; dst < 8; dst++) {
+                        if (isCaptureRuled(p, q, src << 5, dst << 5))
+                            table[p * (bElephant + 1) + q] |= 1L << (src << 3 | dst);
+                    }
+                }
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Check against rules whether one piece can take another out of the other color,
+     * by the types of cells where the 2 pieces are.
+     * <pre>
+     *     Note:
+     *         1. This method simply compares the revised values of attacker and attacked.
+     *         2. The 2 values are revised according to the types of cells where the 2 pieces are,
+     *         with regards to the rules.
+     *         3. The river jump rule is not checked, see {@link #canCapture(int, int, int, int)}.
+     * </pre>
+     *
+     * @param attacker     The attacking piece
+     * @param attacked     The attacked piece
+     * @param attackerCell The type of cell where the attacker stands
+     * @param attackedCell The type of cell where the attacked piece stands
+     * @return Returns {@code true} if {@code attacker} wins; {@code false} otherwise.
+     */
+    private static boolean isCaptureRuled(int attacker, int attacked, int attackerCell, int attackedCell) {
         // -------- set both values into range rat...elephant --------- //
         attacker = (attacker % rElephant == 0) ? rElephant : attacker % rElephant;
         attacked = (attacked % rElephant == 0) ? rElephant : attacked % rElephant;
 
         // rule 1: only rat can attack from anywhere, just simply do value comparison
-        attacker = (attackerCell == cWater && attacker != rRat) ? rbNone : attacker;
+        attacker = (attackerCell == (cWater & 0xff) && attacker != rRat) ? rbNone : attacker;
         // rule 1-1: but, a rat in a water cell cannot attack an elephant
-        attacker = (attackerCell == cWater && attacker == rRat && attacked == rElephant) ?
+        attacker = (attackerCell == (cWater & 0xff) && attacker == rRat && attacked == rElephant) ?
                 rbNone : attacker;
         // rule 2: none except a rat, can attack a piece in a water cell
-        attacker = (attacker != rRat && attackedCell == cWater) ? rbNone : attacker;
+        attacker = (attacker != rRat && attackedCell == (cWater & 0xff)) ? rbNone : attacker;
         // rule 3: a piece can be attacked in a trap regardless of its power
-        attacked = (attackedCell == cRTrap || attackedCell == cBTrap) ? rbNone : attacked;
+        attacked = (attackedCell == (cRTrap & 0xff) || attackedCell == (cBTrap & 0xff)) ? rbNone : attacked;
         // rule 4: a rat can attack an elephant but an elephant cannot attack a rat
         attacker = (attacker == rRat && attacked == rElephant) ? rElephant :
                 (attacker == rElephant && attacked == rRat) ? rbNone : attacker;
-        // rule 5: lion and tiger cannot attack a piece at the other side of river, only when a rat is in the river
-        //         --- don't care what color of that rat is in
-        attacker = ((attacker == rLion || attacker == rTiger) && !noPieceStandingInWater(fr, fc, tr, tc)) ?
-                rbNone : attacker;
         // comparing 2 ranks
         return attacker - attacked >= 0;
     }
@@ -680,12 +1416,11 @@ public class Board {
             return false;
         // rule 2: tiger or lion jump from one river bank to the other
         if ((rowDist > 1 || colDist > 1) && (piece == rTiger || piece == rLion)) {
-            // only one bank to another
-            if (!isRiverBank(fr, fc) || !isRiverBank(tr, tc)) return false;
-            // only one river at a time
-            if (!onlyWaterInBetween(fr, fc, tr, tc)) return false;
+            // only one bank to the other bank across one river
+            if (fJumpTargets[toSquare(fr, fc) * 4 + getDirection(fr, fc, tr, tc)] != toSquare(tr, tc))
+                return false;
             // no other piece standing in the river
-            if (!noPieceStandingInWater(fr, fc, tr, tc)) return false;
+            if (isRiverBlocked(fr, fc, tr, tc)) return false;
         }
         // rule 3: only rat can enter a water cell
         if (dst == cWater && piece != rRat) return false;
@@ -693,18 +1428,6 @@ public class Board {
         return !(dst == cBDen && srcColor == Color.Black || dst == cRDen && srcColor == Color.Red);
     }
 
-    /**
-     * Test whether a board cell is adjacent to a water cell
-     *
-     * @param r Row index
-     * @param c Column index
-     * @return Return {@code true} if the cell is adjacent to a water cell; return {@code false} otherwise;
-     */
-    private boolean isRiverBank(int r, int c) {
-        return (getBoard(r - 1, c) == cWater || getBoard(r + 1, c) == cWater || getBoard(r, c - 1) == cWater || getBoard
-                (r, c + 1) == cWater) && getBoard(r, c) != cWater;
-    }
-
     /**
      * Test whether a piece is actually placed at the same position where it is at.
      *
@@ -719,77 +1442,56 @@ public class Board {
     }
 
     /**
-     * Test if only water cells are in between 2 positions
+     * Get the direction of a straight move, i.e. the index into {@link #fRowSteps} and {@link #fColSteps}.
      *
      * @param fr Row index of the cell where the piece stands
      * @param fc Column index of the cell where the piece stands
      * @param tr Row index of the destination cell
      * @param tc Column index of the destination cell
-     * @return Returns {@code true} if the move is valid; {@code false} otherwise.
+     * @return The direction: 0 up, 1 down, 2 left or 3 right.
      */
-    private boolean onlyWaterInBetween(int fr, int fc, int tr, int tc) {
-        int startCol = ((tc > fc) ? fc : tc) + 1;
-        int endCol = ((tc > fc) ? tc : fc) - 1;
-        int startRow = ((tr > fr) ? fr : tr) + 1;
-        int endRow = ((tr > fr) ? tr : fr) - 1;
-        boolean checkRow = fr == tr;
-        boolean checkCol = fc == tc;
-
-        if (!checkCol && !checkRow) return false;
-
-        // check rows
-        if (checkRow) {
-            for (int c = startCol; c <= endCol; c++) {
-                checkRow = checkRow && (getBoard(fr, c) == cWater);
-            }
-            return checkRow;
-        }
-        // check columns
-        if (checkCol) {
-            for (int r = startRow; r <= endRow; r++) {
-                checkCol = checkCol && (getBoard(r, fc) == cWater);
-            }
-            return checkCol;
-        }
-
-        return false;
+    private static int getDirection(int fr, int fc, int tr, int tc) {
+        return (fr == tr) ? ((tc > fc) ? 3 : 2) : ((tr > fr) ? 1 : 0);
     }
 
     /**
-     * Test whether there is a piece in a water cell in the way from (fr, fc) to (tr, tc)
+     * Test whether a straight move of a tiger or lion is a river jump blocked by a piece in the water.
      *
      * @param fr Row index of the cell where the piece stands
      * @param fc Column index of the cell where the piece stands
      * @param tr Row index of the destination cell
      * @param tc Column index of the destination cell
-     * @return Returns {@code true} if the move is valid; {@code false} otherwise.
+     * @return Returns {@code true} if a piece stands in the water in the way; {@code false} otherwise.
      */
-    private boolean noPieceStandingInWater(int fr, int fc, int tr, int tc) {
-        int startCol = ((tc > fc) ? fc : tc) + 1;
-        int endCol = ((tc > fc) ? tc : fc) - 1;
-        int startRow = ((tr > fr) ? fr : tr) + 1;
-        int endRow = ((tr > fr) ? tr : fr) - 1;
-        boolean checkRow = fr == tr;
-        boolean checkCol = fc == tc;
-
-        if (!checkCol && !checkRow) return false;
+    private boolean isRiverBlocked(int fr, int fc, int tr, int tc) {
+        if (abs(fr - tr) + abs(fc - tc) <= 1) return false;
+        long path = fJumpPaths[toSquare(fr, fc) * 4 + getDirection(fr, fc, tr, tc)];
+        return (path & (mRedBits | mBlackBits)) != 0;
+    }
 
-        // check rows
-        if (checkRow) {
-            for (int c = startCol; c <= endCol; c++) {
-                checkRow = checkRow && (getPiece(fr, c) == rbNone);
-            }
-            return checkRow;
-        }
-        // check columns
-        if (checkCol) {
-            for (int r = startRow; r <= endRow; r++) {
-                checkCol = checkCol && (getPiece(r, fc) == rbNone);
+    /**
+     * Build the river jump tables {@link #fJumpTargets} and {@link #fJumpPaths}
+     * from the underlying board cells.
+     */
+    private static void buildJumpTables() {
+        for (int from = 0; from < fCells; from++) {
+            for (int d = 0; d < fRowSteps.length; d++) {
+                int i = from * 4 + d;
+                fJumpTargets[i] = -1;
+                if (fTerrain[from] == cWater) continue;
+                // cross the water cells, if any, to the first cell which is not water
+                int r = toRow(from) + fRowSteps[d], c = toColumn(from) + fColSteps[d];
+                long path = 0;
+                while (r >= 0 && r < fRows && c >= 0 && c < fCols && fTerrain[toSquare(r, c)] == cWater) {
+                    path |= 1L << toSquare(r, c);
+                    r += fRowSteps[d];
+                    c += fColSteps[d];
+                }
+                if (path == 0 || r < 0 || r >= fRows || c < 0 || c >= fCols) continue;
+                fJumpTargets[i] = toSquare(r, c);
+                fJumpPaths[i] = path;
             }
-            return checkCol;
         }
-
-        return false;
     }
 
     /**
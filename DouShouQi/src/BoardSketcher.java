@@ -228,8 +228,7 @@ class BoardSketcher extends JPanel implements MouseInputListener {
         if (fromR == -1) {  //are we are waiting for a click on the first (from) piece?
             toR = toC = -1;
             Board.Color clr = b.getColor(r, c);
-            if ((b.mBlacksTurn && clr == Board.Color.Black) ||
-                    (!b.mBlacksTurn && clr == Board.Color.Red)) {
+            if (clr == b.getTurn()) {
                 fromR = r;
                 fromC = c;
                 toR = toC = -1;  //next state is waiting for the "to" click
@@ -246,8 +245,7 @@ class BoardSketcher extends JPanel implements MouseInputListener {
             toR = r;
             toC = c;
             boolean pieceThere = b.getPiece(toR, toC) != Board.rbNone;  //capture?
-            if (b.doMove(fromR, fromC, toR, toC)) {
-                b.mBlacksTurn = !b.mBlacksTurn;
+            if (b.doTurn(fromR, fromC, toR, toC)) {
                 if (pieceThere) play(Sound.capture);      //capture
                 else play(Sound.secondClick);  //ordinary move
             } else {
@@ -595,6 +595,265 @@ public class BoardTest {
     }
 
 
+    /**
+     * Test whether the bit boards agree with the board cells after some moves.
+     */
+    @Test
+    public void testBitBoardsMatchBoardCells() {
+        System.out.println("Test whether the bit boards agree with the board cells");
+
+        // black elephant takes 2 steps forward, red rat takes 1 step forward
+        board.doMove(Board.fRows - 3, 0, Board.fRows - 4, 0);
+        board.doMove(Board.fRows - 4, 0, Board.fRows - 5, 0);
+        board.doMove(2, 0, 3, 0);
+
+        boolean actual = true;
+        for (int r = 0; r < Board.fRows; r++) {
+            for (int c = 0; c < Board.fCols; c++) {
+                long bit = 1L << Board.toSquare(r, c);
+                int piece = board.mBoard[r][c] & Board.fPieceMask;
+                int cell = board.mBoard[r][c] & Board.fBoardMask;
+                actual &= piece == board.getPiece(r, c);
+                actual &= (piece != Board.rbNone) == ((board.mPieceBits[piece] & bit) != 0);
+                actual &= (getExpectedColor(piece) == Board.Color.Red) == ((board.mRedBits & bit) != 0);
+                actual &= (getExpectedColor(piece) == Board.Color.Black) == ((board.mBlackBits & bit) != 0);
+                actual &= (cell == Board.cWater) == ((Board.fWaterBits & bit) != 0);
+                actual &= (cell == Board.cRTrap || cell == Board.cBTrap) == ((Board.fTrapBits & bit) != 0);
+            }
+        }
+        actual &= board.countRed() == 8 && board.countBlack() == 8;
+
+        String msg = "Bit boards agree with the board cells? Expected: %1$b, Actual: %2$b";
+        msg = String.format(msg, true, actual);
+        assertTrue(msg, actual);
+    }
+
+
+    /**
+     * Test whether the piece list and the piece counts follow a capture and its undo.
+     */
+    @Test
+    public void testPieceListAndCounts() {
+        System.out.println("Test whether the piece list and the piece counts follow a capture");
+
+        // black elephant walks up to the red rat, which takes it
+        for (int r = Board.fRows - 3; r > 3; r--)
+            board.doMove(r, 0, r - 1, 0);
+        board.mBlacksTurn = false;
+        int move = board.parseMove(Board.squareToString(Board.toSquare(2, 0)) +
+                Board.squareToString(Board.toSquare(3, 0)));
+        board.makeMove(move);
+        System.out.print(board);
+
+        boolean listed = true;
+        for (int p = Board.rRat; p <= Board.bElephant; p++) {
+            int sq = board.getSquare(p);
+            listed &= (sq < 0) ? board.mPieceBits[p] == 0 : board.mSquares[sq] == p;
+        }
+        boolean taken = board.getSquare(Board.bElephant) < 0 &&
+                board.getSquare(Board.rRat) == Board.toSquare(3, 0) &&
+                board.countRed() == 8 && board.countBlack() == 7;
+        board.unmakeMove();
+        boolean restored = board.getSquare(Board.bElephant) == Board.toSquare(3, 0) &&
+                board.countBlack() == 8 && !board.isOutOfPieces();
+
+        String header = formatTableHeader(new String[]{"Listed", "Taken", "Restored"}, 8);
+        System.out.println(header);
+        System.out.println(getRowSeparator('-', header.length()));
+        System.out.println(formatTableRow(new Boolean[]{listed, taken, restored}, 8));
+
+        boolean actual = move != Board.fNoMove && listed && taken && restored;
+        String msg = "The piece list and counts are correct? Expected: %1$b, Actual: %2$b";
+        msg = String.format(msg, true, actual);
+        assertTrue(msg, actual);
+    }
+
+
+    /**
+     * Test whether generateMoves() lists exactly the valid moves of the side to move
+     * while playing a random game.
+     */
+    @Test
+    public void testGenerateMovesMatchesValidMoves() {
+        System.out.println("Test whether generateMoves() lists exactly the valid moves of the side to move");
+
+        Random rnd = new Random(new Date().getTime());
+        int[] moves = new int[Board.fMaxMoves];
+        boolean actual = true;
+        for (int ply = 0; ply < 100 && actual; ply++) {
+            int count = board.generateMoves(moves);
+            System.out.printf("ply %d: %d moves%n", ply, count);
+            // brute-force all the from/to pairs of the side to move
+            int expected = 0;
+            for (int from = 0; from < Board.fCells; from++) {
+                Board.Color clr = board.getColor(Board.toRow(from), Board.toColumn(from));
+                if (clr != (board.mBlacksTurn ? Board.Color.Black : Board.Color.Red)) continue;
+                for (int to = 0; to < Board.fCells; to++) {
+                    if (!board.isValidMove(Board.toRow(from), Board.toColumn(from),
+                            Board.toRow(to), Board.toColumn(to))) continue;
+                    expected++;
+                    boolean found = false;
+                    for (int i = 0; i < count; i++)
+                        found |= Board.moveFrom(moves[i]) == from && Board.moveTo(moves[i]) == to;
+                    actual &= found;
+                }
+            }
+            actual &= expected == count;
+            if (count == 0 || board.isRedWinner() || board.isBlackWinner()) break;
+
+            int move = moves[rnd.nextInt(count)];
+            board.doMove(Board.toRow(Board.moveFrom(move)), Board.toColumn(Board.moveFrom(move)),
+                    Board.toRow(Board.moveTo(move)), Board.toColumn(Board.moveTo(move)));
+            board.mBlacksTurn = !board.mBlacksTurn;
+        }
+
+        String msg = "generateMoves() lists exactly the valid moves? Expected: %1$b, Actual: %2$b";
+        msg = String.format(msg, true, actual);
+        assertTrue(msg, actual);
+    }
+
+
+    /**
+     * Test whether unmakeMove() takes back every move made by makeMove() in a random game.
+     */
+    @Test
+    public void testMakeAndUnmakeMove() {
+        System.out.println("Test whether unmakeMove() takes back every move made by makeMove()");
+
+        Random rnd = new Random(new Date().getTime());
+        int[] moves = new int[Board.fMaxMoves];
+        Board[] history = new Board[200];
+        int plies = 0;
+        for (; plies < history.length; plies++) {
+            int count = board.generateMoves(moves);
+            if (count == 0 || board.isRedWinner() || board.isBlackWinner()) break;
+            history[plies] = new Board(board);
+            board.makeMove(moves[rnd.nextInt(count)]);
+        }
+        System.out.printf("Made %d moves%n", plies);
+
+        boolean actual = board.getUndoCount() == plies;
+        while (plies > 0) {
+            board.unmakeMove();
+            actual &= board.equals(history[--plies]);
+        }
+        actual &= board.equals(new Board()) && board.getUndoCount() == 0;
+
+        String msg = "All moves are taken back? Expected: %1$b, Actual: %2$b";
+        msg = String.format(msg, true, actual);
+        assertTrue(msg, actual);
+    }
+
+
+    /**
+     * Test whether the Zobrist key follows the moves and the turn.
+     */
+    @Test
+    public void testZobristKey() {
+        System.out.println("Test whether the Zobrist key follows the moves and the turn");
+
+        long initial = board.zobristKey();
+        System.out.printf("Initial key: %016x%n", initial);
+        // black dog steps up and back again: same configuration, same key
+        board.doMove(Board.fRows - 2, Board.fCols - 2, Board.fRows - 3, Board.fCols - 2);
+        boolean moved = board.zobristKey() != initial;
+        board.doMove(Board.fRows - 3, Board.fCols - 2, Board.fRows - 2, Board.fCols - 2);
+        boolean restored = board.zobristKey() == initial && board.hashCode() == new Board().hashCode();
+        // the turn is a part of the key
+        board.mBlacksTurn = !board.mBlacksTurn;
+        boolean turn = board.zobristKey() != initial;
+        board.mBlacksTurn = !board.mBlacksTurn;
+        // make/unmake keeps the key in step
+        int[] moves = new int[Board.fMaxMoves];
+        board.makeMove(moves[board.generateMoves(moves) - 1]);
+        boolean made = board.zobristKey() != initial;
+        board.unmakeMove();
+        boolean unmade = board.zobristKey() == initial;
+
+        String header = formatTableHeader(new String[]{"Moved", "Restored", "Turn", "Made", "Unmade"}, 8);
+        System.out.println(header);
+        System.out.println(getRowSeparator('-', header.length()));
+        System.out.println(formatTableRow(new Boolean[]{moved, restored, turn, made, unmade}, 8));
+
+        boolean actual = moved && restored && turn && made && unmade;
+        String msg = "The Zobrist key follows the moves and the turn? Expected: %1$b, Actual: %2$b";
+        msg = String.format(msg, true, actual);
+        assertTrue(msg, actual);
+    }
+
+
+    /**
+     * Test a lion's river jump which is blocked by a rat in the water and then freed.
+     */
+    @Test
+    public void testRiverJump() {
+        System.out.println("Test a lion's river jump blocked by a rat in the water");
+
+        int bottom = Board.fRows - 1;
+        // black rat leaves its place and swims into the water next to the right bank,
+        // black lion walks to that bank.
+        board.doMove(bottom - 2, Board.fCols - 1, bottom - 2, Board.fCols - 2);
+        board.doMove(bottom - 2, Board.fCols - 2, bottom - 3, Board.fCols - 2);
+        board.doMove(bottom, Board.fCols - 1, bottom - 1, Board.fCols - 1);
+        board.doMove(bottom - 1, Board.fCols - 1, bottom - 2, Board.fCols - 1);
+        board.doMove(bottom - 2, Board.fCols - 1, bottom - 3, Board.fCols - 1);
+        System.out.print(board);
+
+        int row = bottom - 3, colMed = Board.getBoardColumnMedian();
+        boolean blocked = !board.isValidMove(row, Board.fCols - 1, row, colMed);
+        // the rat swims on, then out of the way of the lion
+        board.doMove(row, Board.fCols - 2, row, Board.fCols - 3);
+        boolean stillBlocked = !board.isValidMove(row, Board.fCols - 1, row, colMed);
+        board.doMove(row, Board.fCols - 3, row - 1, Board.fCols - 3);
+        boolean free = board.isValidMove(row, Board.fCols - 1, row, colMed);
+        // no jump over the land, nor into the water
+        boolean noJumpToWater = !board.isValidMove(row, Board.fCols - 1, row, colMed + 1);
+
+        String header = formatTableHeader(new String[]{"Blocked", "Blocked", "Free", "No Water"}, 8);
+        System.out.println(header);
+        System.out.println(getRowSeparator('-', header.length()));
+        System.out.println(formatTableRow(new Boolean[]{blocked, stillBlocked, free, noJumpToWater}, 8));
+
+        boolean actual = blocked && stillBlocked && free && noJumpToWater;
+        String msg = "River jumps are checked correctly? Expected: %1$b, Actual: %2$b";
+        msg = String.format(msg, true, actual);
+        assertTrue(msg, actual);
+    }
+
+
+    /**
+     * Test the rat against the elephant on land and from the water.
+     */
+    @Test
+    public void testRatAgainstElephant() {
+        System.out.println("Test the rat against the elephant on land and from the water");
+
+        int elephantRow = Board.fRows - 3;
+        // red rat walks down the left column until it meets the black elephant
+        for (int r = 2; r < elephantRow - 1; r++)
+            board.doMove(r, 0, r + 1, 0);
+        System.out.print(board);
+
+        int ratRow = elephantRow - 1;
+        boolean ratTakesElephant = board.isValidMove(ratRow, 0, elephantRow, 0);
+        boolean elephantTakesRat = board.isValidMove(elephantRow, 0, ratRow, 0);
+        // the rat swims into the water, the elephant follows it along the bank
+        board.doMove(ratRow, 0, ratRow, 1);
+        board.doMove(elephantRow, 0, elephantRow, 1);
+        boolean ratTakesFromWater = board.isValidMove(ratRow, 1, elephantRow, 1);
+
+        String header = formatTableHeader(new String[]{"Rat>Ele", "Ele>Rat", "Water>Ele"}, 9);
+        System.out.println(header);
+        System.out.println(getRowSeparator('-', header.length()));
+        System.out.println(formatTableRow(new Boolean[]{ratTakesElephant, elephantTakesRat, ratTakesFromWater}, 9));
+
+        boolean actual = ratTakesElephant && !elephantTakesRat && !ratTakesFromWater;
+        String msg = "Rat and elephant captures are checked correctly? Expected: %1$b, Actual: %2$b";
+        msg = String.format(msg, true, actual);
+        assertTrue(msg, actual);
+    }
+
+
     /**
      * Generate a header row for a console/log message table
      *
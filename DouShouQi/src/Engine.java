@@ -0,0 +1,636 @@
+//------------------------------------------------------------------------------
+//  File       : Engine.java
+//  Course     : DouShouQi
+//  Date:      : 10/18/2026
+//  Author     : Jason Qiao Meng
+//  Author ID  : 10652564
+//  Description: This file contains the computer player (AI engine) for DouShouQi game.
+//------------------------------------------------------------------------------
+
+/**
+ * A computer player which searches {@link Board} positions by negamax alpha-beta with
+ * iterative deepening, principal variation search, a {@link TranspositionTable} and {@link MoveOrdering}.
+ * <pre>
+ *     Usage:
+ *         Engine engine = new Engine(16);
+ *         Engine.Result result = engine.search(board, Engine.Limits.time(1000));
+ *         board.makeMove(result.move);
+ *
+ *     Note:
+ *         1. The search walks the given board by makeMove/unmakeMove and leaves it as it was.
+ *         2. An engine searches one board at a time; {@link #stop()} may be called from any thread.
+ *         3. Scores are from the view of the side whose turn it is, in 1/100 of a rat.
+ * </pre>
+ */
+public class Engine {
+
+    /**
+     * The score of winning right now. A win in n plies scores {@code fWinScore - n}.
+     */
+    public static final int fWinScore = 30000;
+    /**
+     * A score larger than any real score
+     */
+    public static final int fInfinity = 32000;
+    /**
+     * The maximum number of plies a search can go down
+     */
+    public static final int fMaxPly = 128;
+    /**
+     * The most moves a searched board may have to be unmade: its undo stack holds
+     * {@link Board#fMaxUndo} moves, and a search makes up to {@link #fMaxPly} more
+     */
+    public static final int fMaxGamePlies = Board.fMaxUndo - fMaxPly;
+    /**
+     * The smallest score of a win: a win found at the last ply, or by the tablebase
+     * at most {@link #fMaxPly} plies further.
+     */
+    static final int fMinWinScore = fWinScore - 2 * fMaxPly;
+    /**
+     * The material values of the pieces indexed by rank: none, rat, cat, dog, wolf, leopard,
+     * tiger, lion and elephant.
+     */
+    static final int[] fRankValues = {0, 300, 150, 200, 250, 400, 700, 800, 900};
+    /**
+     * The number of nodes between 2 checks of the clock
+     */
+    private static final int fClockInterval = 1024;
+
+    /**
+     * The limits of a search. A limit of 0 means no limit.
+     */
+    public static class Limits {
+        /**
+         * The maximum depth in plies
+         */
+        public final int depth;
+        /**
+         * The maximum wall-clock time in milliseconds
+         */
+        public final long millis;
+        /**
+         * The maximum number of nodes
+         */
+        public final long nodes;
+
+        /**
+         * Create the limits of a search.
+         *
+         * @param depth  The maximum depth in plies, or 0
+         * @param millis The maximum wall-clock time in milliseconds, or 0
+         * @param nodes  The maximum number of nodes, or 0
+         */
+        public Limits(int depth, long millis, long nodes) {
+            this.depth = depth;
+            this.millis = millis;
+            this.nodes = nodes;
+        }
+
+        /**
+         * Limit a search to a depth.
+         *
+         * @param depth The maximum depth in plies
+         * @return The limits.
+         */
+        public static Limits depth(int depth) {
+            return new Limits(depth, 0, 0);
+        }
+
+        /**
+         * Limit a search to a wall-clock time.
+         *
+         * @param millis The maximum time in milliseconds
+         * @return The limits.
+         */
+        public static Limits time(long millis) {
+            return new Limits(0, millis, 0);
+        }
+
+        /**
+         * Limit a search to a number of nodes.
+         *
+         * @param nodes The maximum number of nodes
+         * @return The limits.
+         */
+        public static Limits nodes(long nodes) {
+            return new Limits(0, 0, nodes);
+        }
+    }
+
+    /**
+     * The result of a search, or of one completed iteration of it.
+     */
+    public static class Result {
+        /**
+         * The best move, or {@link Board#fNoMove} if the game is over
+         */
+        public final int move;
+        /**
+         * The score of the best move
+         */
+        public final int score;
+        /**
+         * The depth of the last completed iteration
+         */
+        public final int depth;
+        /**
+         * The number of nodes searched
+         */
+        public final long nodes;
+        /**
+         * The time spent in milliseconds
+         */
+        public final long millis;
+        /**
+         * The principal variation, starting with the best move
+         */
+        public final int[] pv;
+
+        /**
+         * Create a search result.
+         *
+         * @param move   The best move
+         * @param score  The score of the best move
+         * @param depth  The depth of the last completed iteration
+         * @param nodes  The number of nodes searched
+         * @param millis The time spent in milliseconds
+         * @param pv     The principal variation
+         */
+        public Result(int move, int score, int depth, long nodes, long millis, int[] pv) {
+            this.move = move;
+            this.score = score;
+            this.depth = depth;
+            this.nodes = nodes;
+            this.millis = millis;
+            this.pv = pv;
+        }
+
+        /**
+         * Get the number of nodes searched per second.
+         *
+         * @return The nodes per second.
+         */
+        public long nps() {
+            return nodes * 1000 / Math.max(1, millis);
+        }
+
+        /**
+         * Returns a line of the form
+         * {@code depth 8 score 120 nodes 123456 nps 2000000 time 61 pv a3a4 g7g6}.
+         *
+         * @return A {@link String} of this result.
+         */
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append("depth ").append(depth).append(" score ").append(score)
+                    .append(" nodes ").append(nodes).append(" nps ").append(nps())
+                    .append(" time ").append(millis).append(" pv");
+            for (int m : pv) sb.append(' ').append(Board.moveToString(m));
+            return sb.toString();
+        }
+    }
+
+    /**
+     * A listener which is told the result of every completed iteration.
+     */
+    public interface Listener {
+        /**
+         * Called after an iteration of the search is completed.
+         *
+         * @param info The result so far.
+         */
+        void onIteration(Result info);
+    }
+
+    /**
+     * The transposition table, which may be shared with other engines.
+     */
+    private final TranspositionTable mTable;
+    /**
+     * The move buffers indexed by ply.
+     */
+    private final int mMoves[][] = new int[fMaxPly][Board.fMaxMoves];
+    /**
+     * The principal variations indexed by ply: {@code mPv[ply]} is the best line from {@code ply}.
+     */
+    private final int mPv[][] = new int[fMaxPly + 1][fMaxPly + 1];
+    /**
+     * The lengths of {@link #mPv} indexed by ply.
+     */
+    private final int mPvLength[] = new int[fMaxPly + 1];
+    /**
+     * The move ordering heuristics of this engine
+     */
+    private final MoveOrdering mOrdering = new MoveOrdering();
+    /**
+     * The listener of iterations, or {@code null}.
+     */
+    private Listener mListener = null;
+    /**
+     * The endgame tablebase, or {@code null}.
+     */
+    private Tablebase mTablebase = null;
+    /**
+     * The static evaluation of this engine
+     */
+    private Evaluation mEvaluation = Evaluation.getDefault();
+    /**
+     * The number of nodes searched so far.
+     */
+    private long mNodes;
+    /**
+     * The maximum number of nodes of the current search, or {@code Long.MAX_VALUE}.
+     */
+    private long mNodeLimit;
+    /**
+     * The time when the current search must stop, or {@code Long.MAX_VALUE}.
+     */
+    private long mDeadline;
+    /**
+     * Whether the current search must stop as soon as possible.
+     */
+    private volatile boolean mStopped;
+    /**
+     * Whether the current iteration may be interrupted, i.e. it is not the first one.
+     */
+    private boolean mAbortable;
+
+
+    /**
+     * Create an engine with a transposition table of its own.
+     *
+     * @param hashMegabytes The size of the transposition table in MB.
+     */
+    public Engine(int hashMegabytes) {
+        this(new TranspositionTable(hashMegabytes));
+    }
+
+    /**
+     * Create an engine which uses the given transposition table.
+     *
+     * @param table A transposition table, which may be shared with other engines.
+     */
+    public Engine(TranspositionTable table) {
+        if (table == null)
+            throw new IllegalArgumentException("The given transposition table is null");
+        mTable = table;
+    }
+
+    /**
+     * Get the transposition table of this engine.
+     *
+     * @return The transposition table.
+     */
+    public TranspositionTable getTable() {
+        return mTable;
+    }
+
+    /**
+     * Set the listener which is told the result of every completed iteration.
+     *
+     * @param listener A listener or {@code null}.
+     */
+    public void setListener(Listener listener) {
+        mListener = listener;
+    }
+
+    /**
+     * Set the endgame tablebase which gives the exact scores of the positions it has.
+     *
+     * @param tablebase A tablebase or {@code null}.
+     */
+    public void setTablebase(Tablebase tablebase) {
+        mTablebase = tablebase;
+    }
+
+    /**
+     * Set the static evaluation, e.g. of tuned weights, to be used from the next search on.
+     *
+     * @param evaluation An evaluation
+     */
+    public void setEvaluation(Evaluation evaluation) {
+        if (evaluation == null)
+            throw new IllegalArgumentException("The given evaluation is null");
+        mEvaluation = evaluation;
+    }
+
+    /**
+     * Get the static evaluation of this engine.
+     *
+     * @return The evaluation, {@link Evaluation#getDefault()} unless another one is set.
+     */
+    public Evaluation getEvaluation() {
+        return mEvaluation;
+    }
+
+    /**
+     * Ask the running search, if any, to stop as soon as possible.
+     * The search still returns the best move of its last completed iteration.
+     */
+    public void stop() {
+        mStopped = true;
+    }
+
+    /**
+     * Clear a pending {@link #stop()} before a search is started by {@link #search(Board, Limits, int)}.
+     */
+    void clearStop() {
+        mStopped = false;
+    }
+
+    /**
+     * Search the best move of the side whose turn it is.
+     * The first iteration is always completed, so a legal move is returned unless the game is over.
+     *
+     * @param board  The board to search, which is left as it was.
+     * @param limits The limits of the search.
+     * @return The {@link Result} of the last completed iteration.
+     */
+    public Result search(Board board, Limits limits) {
+        mStopped = false;
+        mTable.newSearch();
+        return search(board, limits, 1);
+    }
+
+    /**
+     * Search the best move of the side whose turn it is, starting the iterations at a given depth.
+     * Helper threads of a parallel search start at different depths to diverge from each other.
+     * Unlike {@link #search(Board, Limits)}, it neither clears a pending {@link #stop()} nor
+     * starts a new search in the transposition table; the caller does, see {@link #clearStop()}.
+     *
+     * @param board      The board to search, which is left as it was.
+     * @param limits     The limits of the search.
+     * @param startDepth The depth of the first iteration, at least 1.
+     * @return The {@link Result} of the last completed iteration.
+     * @see ParallelSearch
+     */
+    Result search(Board board, Limits limits, int startDepth) {
+        // the board keeps the terms of this engine's evaluation while searching, then its own again
+        Evaluation kept = board.getEvaluation();
+        board.setEvaluation(mEvaluation);
+        try {
+            return iterate(board, limits, startDepth);
+        } finally {
+            board.setEvaluation(kept);
+        }
+    }
+
+    /**
+     * Run the iterations of a search, see {@link #search(Board, Limits, int)}.
+     *
+     * @param board      The board to search, which keeps the terms of {@link #mEvaluation}.
+     * @param limits     The limits of the search.
+     * @param startDepth The depth of the first iteration, at least 1.
+     * @return The {@link Result} of the last completed iteration.
+     */
+    private Result iterate(Board board, Limits limits, int startDepth) {
+        long start = System.currentTimeMillis();
+        mNodes = 0;
+        mNodeLimit = (limits.nodes > 0) ? limits.nodes : Long.MAX_VALUE;
+        mDeadline = (limits.millis > 0) ? start + limits.millis : Long.MAX_VALUE;
+        int maxDepth = (limits.depth > 0) ? Math.min(limits.depth, fMaxPly - 1) : fMaxPly - 1;
+
+        mOrdering.newSearch();
+        Result result = new Result(Board.fNoMove, 0, 0, 0, 0, new int[0]);
+        for (int depth = Math.min(startDepth, maxDepth); depth <= maxDepth; depth++) {
+            // an interrupted iteration is thrown away, so the first one must not be interrupted
+            mAbortable = depth > startDepth;
+            int score = search(board, depth, -fInfinity, fInfinity, 0);
+            if (mStopped && mAbortable) break;
+            int[] pv = new int[mPvLength[0]];
+            System.arraycopy(mPv[0], 0, pv, 0, pv.length);
+            result = new Result((pv.length > 0) ? pv[0] : Board.fNoMove, score, depth, mNodes,
+                    System.currentTimeMillis() - start, pv);
+            if (mListener != null) mListener.onIteration(result);
+            // no need to go deeper once the game is over or decided,
+            // or when the tablebase has the position, since the moves are scored exactly
+            if (pv.length == 0 || Math.abs(score) >= fMinWinScore || mStopped) break;
+            if (mTablebase != null && mTablebase.probe(board) != Tablebase.fNotFound) break;
+        }
+        return new Result(result.move, result.score, result.depth, mNodes,
+                System.currentTimeMillis() - start, result.pv);
+    }
+
+    /**
+     * Get the number of nodes searched by the current or the last search.
+     *
+     * @return The number of nodes.
+     */
+    public long getNodes() {
+        return mNodes;
+    }
+
+    /**
+     * The negamax alpha-beta search with principal variation search.
+     *
+     * @param board The board to search
+     * @param depth The remaining depth in plies
+     * @param alpha The lower bound of the window
+     * @param beta  The upper bound of the window
+     * @param ply   The distance from the root
+     * @return The score of the position from the view of the side whose turn it is.
+     */
+    private int search(Board board, int depth, int alpha, int beta, int ply) {
+        if (depth <= 0) return quiesce(board, alpha, beta, ply);
+        mPvLength[ply] = 0;
+        mNodes++;
+        if ((mNodes & (fClockInterval - 1)) == 0 && System.currentTimeMillis() >= mDeadline)
+            mStopped = true;
+        if (mNodes >= mNodeLimit) mStopped = true;
+        if (mStopped && mAbortable) return 0;
+
+        // the side which just moved has won by entering the den or taking the last piece
+        if (isLost(board)) return -(fWinScore - ply);
+        if (mTablebase != null && ply > 0) {
+            int value = mTablebase.probe(board);
+            if (value != Tablebase.fNotFound) return fromTablebase(value, ply);
+        }
+        if (ply >= fMaxPly - 1) return evaluate(board);
+
+        long key = board.zobristKey();
+        long data = mTable.probe(key);
+        int ttMove = TranspositionTable.getMove(data);
+        if (data != 0 && ply > 0 && TranspositionTable.getDepth(data) >= depth) {
+            int score = fromTableScore(TranspositionTable.getScore(data), ply);
+            int bound = TranspositionTable.getBound(data);
+            if (bound == TranspositionTable.fBoundExact ||
+                    bound == TranspositionTable.fBoundLower && score >= beta ||
+                    bound == TranspositionTable.fBoundUpper && score <= alpha)
+                return score;
+        }
+
+        int moves[] = mMoves[ply];
+        int count = board.generateMoves(moves);
+        // no legal move: the side whose turn it is loses
+        if (count == 0) return -(fWinScore - ply);
+        mOrdering.order(moves, count, ttMove, ply);
+
+        int bestScore = -fInfinity;
+        int bestMove = Board.fNoMove;
+        int bound = TranspositionTable.fBoundUpper;
+        for (int i = 0; i < count; i++) {
+            int move = moves[i];
+            board.makeMove(move);
+            int score;
+            if (i == 0) {
+                score = -search(board, depth - 1, -beta, -alpha, ply + 1);
+            } else {
+                // principal variation search: prove the move is worse with a null window
+                score = -search(board, depth - 1, -alpha - 1, -alpha, ply + 1);
+                if (score > alpha && score < beta)
+                    score = -search(board, depth - 1, -beta, -alpha, ply + 1);
+            }
+            board.unmakeMove();
+            if (mStopped && mAbortable) return 0;
+
+            if (score > bestScore) {
+                bestScore = score;
+                bestMove = move;
+                if (score > alpha) {
+                    alpha = score;
+                    bound = TranspositionTable.fBoundExact;
+                    updatePv(ply, move);
+                    if (score >= beta) {
+                        bound = TranspositionTable.fBoundLower;
+                        mOrdering.onCutoff(moves, i, depth, ply);
+                        break;
+                    }
+                }
+            }
+        }
+        mTable.store(key, bestMove, toTableScore(bestScore, ply), depth, bound);
+        return bestScore;
+    }
+
+    /**
+     * The quiescence search: the captures and den entries are searched until the position is quiet,
+     * so that a line is not scored in the middle of an exchange. The side to move may stand pat,
+     * i.e. take the static score instead of any capture, and captures which lose material
+     * by {@link StaticExchange} are not searched.
+     *
+     * @param board The board to search
+     * @param alpha The lower bound of the window
+     * @param beta  The upper bound of the window
+     * @param ply   The distance from the root
+     * @return The score of the position from the view of the side whose turn it is.
+     */
+    private int quiesce(Board board, int alpha, int beta, int ply) {
+        mPvLength[ply] = 0;
+        mNodes++;
+        if ((mNodes & (fClockInterval - 1)) == 0 && System.currentTimeMillis() >= mDeadline)
+            mStopped = true;
+        if (mNodes >= mNodeLimit) mStopped = true;
+        if (mStopped && mAbortable) return 0;
+        if (isLost(board)) return -(fWinScore - ply);
+        if (mTablebase != null && ply > 0) {
+            int value = mTablebase.probe(board);
+            if (value != Tablebase.fNotFound) return fromTablebase(value, ply);
+        }
+        int bestScore = evaluate(board);
+        if (bestScore >= beta || ply >= fMaxPly - 1) return bestScore;
+        if (bestScore > alpha) alpha = bestScore;
+
+        int moves[] = mMoves[ply];
+        int count = board.generateMoves(moves);
+        // keep the captures and the den entries only
+        int tactical = 0;
+        long enemyDen = board.mBlacksTurn ? Board.fRedDenBits : Board.fBlackDenBits;
+        for (int i = 0; i < count; i++) {
+            int move = moves[i];
+            if (Board.moveCaptured(move) != Board.rbNone || (enemyDen & (1L << Board.moveTo(move))) != 0)
+                moves[tactical++] = move;
+        }
+        mOrdering.order(moves, tactical, Board.fNoMove, ply);
+
+        for (int i = 0; i < tactical; i++) {
+            int move = moves[i];
+            if (Board.moveCaptured(move) != Board.rbNone && StaticExchange.evaluate(board, move) < 0) continue;
+            board.makeMove(move);
+            int score = -quiesce(board, -beta, -alpha, ply + 1);
+            board.unmakeMove();
+            if (mStopped && mAbortable) return 0;
+            if (score > bestScore) {
+                bestScore = score;
+                if (score > alpha) {
+                    alpha = score;
+                    if (score >= beta) break;
+                }
+            }
+        }
+        return bestScore;
+    }
+
+    /**
+     * Test whether the side whose turn it is has lost, i.e. the other side has entered its den
+     * or it has no piece left.
+     *
+     * @param board The board to test
+     * @return Returns {@code true} if the side whose turn it is has lost; {@code false} otherwise.
+     */
+    static boolean isLost(Board board) {
+        return board.isOutOfPieces() ||
+                (board.mBlacksTurn ? board.isRedWinner() : board.isBlackWinner());
+    }
+
+    /**
+     * Evaluate a position by {@link Evaluation}.
+     *
+     * @param board The board to evaluate
+     * @return The score from the view of the side whose turn it is.
+     */
+    int evaluate(Board board) {
+        int score = mEvaluation.evaluate(board);
+        return board.mBlacksTurn ? -score : score;
+    }
+
+    /**
+     * Convert a value of the tablebase to a score.
+     *
+     * @param value The value of a position in the tablebase
+     * @param ply   The distance of the position from the root
+     * @return The score from the view of the side whose turn it is.
+     */
+    private static int fromTablebase(int value, int ply) {
+        if (Tablebase.isWin(value)) return fWinScore - ply - Tablebase.getDistance(value);
+        if (Tablebase.isLoss(value)) return -(fWinScore - ply - Tablebase.getDistance(value));
+        return 0;
+    }
+
+    /**
+     * Set the principal variation of a ply to the given move followed by that of the next ply.
+     *
+     * @param ply  The ply
+     * @param move The best move at the ply
+     */
+    private void updatePv(int ply, int move) {
+        mPv[ply][0] = move;
+        System.arraycopy(mPv[ply + 1], 0, mPv[ply], 1, mPvLength[ply + 1]);
+        mPvLength[ply] = mPvLength[ply + 1] + 1;
+    }
+
+    /**
+     * Convert a score to be stored in the transposition table:
+     * a win is counted from the position instead of the root.
+     *
+     * @param score The score
+     * @param ply   The distance of the position from the root
+     * @return The score to be stored.
+     */
+    private static int toTableScore(int score, int ply) {
+        return (score >= fMinWinScore) ? score + ply :
+                (score <= -fMinWinScore) ? score - ply : score;
+    }
+
+    /**
+     * Convert a score from the transposition table back, see {@link #toTableScore(int, int)}.
+     *
+     * @param score The stored score
+     * @param ply   The distance of the position from the root
+     * @return The score.
+     */
+    private static int fromTableScore(int score, int ply) {
+        return (score >= fMinWinScore) ? score - ply :
+                (score <= -fMinWinScore) ? score + ply : score;
+    }
+}
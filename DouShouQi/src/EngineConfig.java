@@ -0,0 +1,196 @@
+//------------------------------------------------------------------------------
+//  File       : EngineConfig.java
+//  Course     : DouShouQi
+//  Date:      : 10/18/2026
+//  Author     : Jason Qiao Meng
+//  Author ID  : 10652564
+//  Description: This file contains the configuration of an engine for automated play.
+//------------------------------------------------------------------------------
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * The configuration of an {@link Engine} which plays automated games, e.g. in a {@link Tournament}.
+ * <pre>
+ *     Text form:
+ *         name:key=value,key=value,...
+ *
+ *         depth=N      the depth limit of every move in plies
+ *         time=MS      the time limit of every move in milliseconds
+ *         nodes=N      the node limit of every move
+ *         hash=MB      the size of the transposition table in MB (default 4)
+ *         eval=FILE    the weights of the evaluation, as written by Evaluation.writeWeights()
+ *                      (default Evaluation.getDefault())
+ *
+ *     Example:
+ *         base:depth=6,hash=8
+ *         tuned:depth=6,hash=8,eval=weights.txt
+ * </pre>
+ */
+public class EngineConfig {
+
+    /**
+     * The default size of the transposition table in MB
+     */
+    private static final int fDefaultHash = 4;
+
+    /**
+     * The name of the configuration
+     */
+    private final String mName;
+    /**
+     * The limits of every move
+     */
+    private final Engine.Limits mLimits;
+    /**
+     * The size of the transposition table in MB
+     */
+    private final int mHashMegabytes;
+    /**
+     * The file of the weights of the evaluation, or {@code null} for the default weights
+     */
+    private final File mWeightsFile;
+    /**
+     * The evaluation, shared by all the engines of this configuration since it is immutable
+     */
+    private final Evaluation mEvaluation;
+
+
+    /**
+     * Create a configuration of the default evaluation.
+     *
+     * @param name          The name of the configuration
+     * @param limits        The limits of every move, at least one of which must be set
+     * @param hashMegabytes The size of the transposition table in MB
+     */
+    public EngineConfig(String name, Engine.Limits limits, int hashMegabytes) {
+        this(name, limits, hashMegabytes, null);
+    }
+
+    /**
+     * Create a configuration.
+     *
+     * @param name          The name of the configuration
+     * @param limits        The limits of every move, at least one of which must be set
+     * @param hashMegabytes The size of the transposition table in MB
+     * @param weightsFile   The file of the weights of the evaluation, or {@code null} for the default weights
+     * @throws IllegalArgumentException if there is no limit, or the weights cannot be read.
+     */
+    public EngineConfig(String name, Engine.Limits limits, int hashMegabytes, File weightsFile) {
+        if (limits.depth <= 0 && limits.millis <= 0 && limits.nodes <= 0)
+            throw new IllegalArgumentException("An engine of " + name + " needs a limit of every move");
+        mName = name;
+        mLimits = limits;
+        mHashMegabytes = hashMegabytes;
+        mWeightsFile = weightsFile;
+        if (weightsFile == null) {
+            mEvaluation = Evaluation.getDefault();
+        } else {
+            try {
+                mEvaluation = new Evaluation(Evaluation.readWeights(weightsFile));
+            } catch (IOException e) {
+                throw new IllegalArgumentException("Cannot read the weights of " + name + ": " + e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Parse the text form of a configuration, see above.
+     *
+     * @param text The text form
+     * @return The configuration.
+     * @throws IllegalArgumentException if the text is not a configuration.
+     */
+    public static EngineConfig parse(String text) {
+        int colon = text.indexOf(':');
+        if (colon < 1)
+            throw new IllegalArgumentException("An engine configuration needs a name: " + text);
+        int depth = 0, hash = fDefaultHash;
+        long millis = 0, nodes = 0;
+        File weights = null;
+        for (String option : text.substring(colon + 1).split(",")) {
+            String pair[] = option.split("=", 2);
+            if (pair.length != 2)
+                throw new IllegalArgumentException("Not an engine option: " + option);
+            try {
+                switch (pair[0]) {
+                    case "depth":
+                        depth = Integer.parseInt(pair[1]);
+                        break;
+                    case "time":
+                        millis = Long.parseLong(pair[1]);
+                        break;
+                    case "nodes":
+                        nodes = Long.parseLong(pair[1]);
+                        break;
+                    case "hash":
+                        hash = Integer.parseInt(pair[1]);
+                        break;
+                    case "eval":
+                        weights = new File(pair[1]);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown engine option: " + pair[0]);
+                }
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Not a number of engine option " + option, e);
+            }
+        }
+        return new EngineConfig(text.substring(0, colon), new Engine.Limits(depth, millis, nodes), hash, weights);
+    }
+
+    /**
+     * Create an engine of this configuration.
+     *
+     * @return A new engine with a transposition table of its own and the evaluation of this configuration.
+     */
+    public Engine createEngine() {
+        Engine engine = new Engine(mHashMegabytes);
+        engine.setEvaluation(mEvaluation);
+        return engine;
+    }
+
+    /**
+     * Get the name of the configuration.
+     *
+     * @return The name.
+     */
+    public String getName() {
+        return mName;
+    }
+
+    /**
+     * Get the limits of every move.
+     *
+     * @return The limits.
+     */
+    public Engine.Limits getLimits() {
+        return mLimits;
+    }
+
+    /**
+     * Get the evaluation of the engines.
+     *
+     * @return The evaluation.
+     */
+    public Evaluation getEvaluation() {
+        return mEvaluation;
+    }
+
+    /**
+     * Get the text form of the configuration, see above.
+     *
+     * @return The text form.
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(mName).append(':');
+        if (mLimits.depth > 0) sb.append("depth=").append(mLimits.depth).append(',');
+        if (mLimits.millis > 0) sb.append("time=").append(mLimits.millis).append(',');
+        if (mLimits.nodes > 0) sb.append("nodes=").append(mLimits.nodes).append(',');
+        sb.append("hash=").append(mHashMegabytes);
+        if (mWeightsFile != null) sb.append(",eval=").append(mWeightsFile.getPath());
+        return sb.toString();
+    }
+}
@@ -0,0 +1,306 @@
+//------------------------------------------------------------------------------
+//  File       : EngineProtocol.java
+//  Course     : DouShouQi
+//  Date:      : 10/18/2026
+//  Author     : Jason Qiao Meng
+//  Author ID  : 10652564
+//  Description: This file contains the headless text protocol of the DouShouQi engine.
+//------------------------------------------------------------------------------
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.io.Writer;
+
+/**
+ * A line-based text protocol, in the spirit of UCI, which drives an {@link Engine} without Swing.
+ * <pre>
+ *     Usage:
+ *         java EngineProtocol
+ *
+ *     Commands (one per line on stdin):
+ *         dsqi                                   reply "id name ..." and "dsqiok"
+ *         isready                                reply "readyok"
+ *         setoption name Hash value MB           resize the transposition table, from 1 to 1024 MB
+ *                                                and at most half of the heap
+ *         newgame                                clear the transposition table
+ *         position startpos [moves a3a4 ...]     set the initial board, then play the moves
+ *         position packed HEX [moves a3a4 ...]   set a board of PackedPosition.toString(), then play the moves
+ *                                                (at most Engine.fMaxGamePlies moves)
+ *         go [depth N] [movetime MS] [nodes N]   search the board; without a limit until "stop"
+ *         stop                                   stop the search, which still replies "bestmove"
+ *         d                                      print the board
+ *         quit                                   stop the search and exit
+ *
+ *     Replies (on stdout):
+ *         info depth 8 score 120 nodes 123456 nps 2000000 time 61 pv a3a4 g7g6
+ *         bestmove a3a4                          ("bestmove none" if the game is over)
+ *         info string ...                        an error in a command
+ *
+ *     Note:
+ *         1. The engine and its transposition table live across commands, so a position
+ *            searched before is searched again with a warm table.
+ *         2. A search runs on a thread of its own, so "stop" and "isready" are answered while
+ *            it runs. Any other command waits until the search is done.
+ * </pre>
+ */
+public class EngineProtocol {
+
+    /**
+     * The default size of the transposition table in MB
+     */
+    private static final int fDefaultHash = 16;
+    /**
+     * The largest size of the transposition table in MB
+     */
+    private static final int fMaxHash = 1024;
+
+    /**
+     * The writer of the replies
+     */
+    private final PrintWriter mOut;
+    /**
+     * The engine, which keeps its transposition table across searches
+     */
+    private Engine mEngine = new Engine(fDefaultHash);
+    /**
+     * The board of the current position
+     */
+    private Board mBoard = new Board();
+    /**
+     * The thread of the running or the last search, or {@code null}.
+     */
+    private Thread mSearchThread = null;
+
+
+    /**
+     * Create a protocol which writes its replies to a writer.
+     *
+     * @param out The writer of the replies
+     */
+    public EngineProtocol(Writer out) {
+        mOut = new PrintWriter(out, true);
+    }
+
+    /**
+     * Read and handle commands until "quit" or the end of the input.
+     *
+     * @param in The reader of the commands
+     * @throws IOException if the commands cannot be read.
+     */
+    public void run(Reader in) throws IOException {
+        BufferedReader reader = new BufferedReader(in);
+        String line;
+        while ((line = reader.readLine()) != null)
+            if (!handle(line)) return;
+        handle("quit");
+    }
+
+    /**
+     * Handle a command.
+     *
+     * @param line The line of the command
+     * @return Returns {@code false} if the command is "quit"; {@code true} otherwise.
+     */
+    public boolean handle(String line) {
+        String words[] = line.trim().split("\\s+");
+        try {
+            switch (words[0]) {
+                case "":
+                    break;
+                case "dsqi":
+                    reply("id name DouShouQi");
+                    reply("id author Jason Qiao Meng");
+                    reply("dsqiok");
+                    break;
+                case "isready":
+                    reply("readyok");
+                    break;
+                case "stop":
+                    mEngine.stop();
+                    break;
+                case "quit":
+                    mEngine.stop();
+                    waitForSearch();
+                    return false;
+                case "setoption":
+                    waitForSearch();
+                    setOption(words);
+                    break;
+                case "newgame":
+                    waitForSearch();
+                    mEngine.getTable().clear();
+                    break;
+                case "position":
+                    waitForSearch();
+                    setPosition(words);
+                    break;
+                case "go":
+                    waitForSearch();
+                    go(words);
+                    break;
+                case "d":
+                    waitForSearch();
+                    reply(mBoard.toString());
+                    break;
+                default:
+                    reply("info string unknown command: " + words[0]);
+            }
+        } catch (IllegalArgumentException e) {
+            reply("info string " + e.getMessage());
+        } catch (RuntimeException e) {
+            // whatever goes wrong with a command, the protocol keeps reading the next ones
+            reply("info string error: " + e);
+        }
+        return true;
+    }
+
+    /**
+     * Wait until the running search, if any, is done.
+     */
+    void waitForSearch() {
+        if (mSearchThread == null) return;
+        try {
+            mSearchThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the search", e);
+        }
+        mSearchThread = null;
+    }
+
+    /**
+     * Handle "setoption name Hash value MB".
+     *
+     * @param words The words of the command
+     * @throws IllegalArgumentException if the option is unknown or the value is not a number in range.
+     */
+    private void setOption(String[] words) {
+        if (words.length != 5 || !words[1].equals("name") || !words[3].equals("value"))
+            throw new IllegalArgumentException("usage: setoption name NAME value VALUE");
+        if (!words[2].equalsIgnoreCase("Hash"))
+            throw new IllegalArgumentException("unknown option: " + words[2]);
+        long megabytes = parseNumber(words[4]);
+        // a table larger than the heap would throw an OutOfMemoryError
+        long maxHash = Math.min(fMaxHash, Runtime.getRuntime().maxMemory() / 2 / (1024 * 1024));
+        if (megabytes < 1 || megabytes > maxHash)
+            throw new IllegalArgumentException("Hash must be from 1 to " + maxHash + " MB: " + words[4]);
+        mEngine = new Engine((int)megabytes);
+    }
+
+    /**
+     * Handle "position startpos|packed HEX [moves ...]". The board is left as it was if the command is wrong.
+     *
+     * @param words The words of the command
+     * @throws IllegalArgumentException if the position or a move is not valid, or there are too many moves.
+     */
+    private void setPosition(String[] words) {
+        Board board;
+        int i;
+        if (words.length >= 2 && words[1].equals("startpos")) {
+            board = new Board();
+            i = 2;
+        } else if (words.length >= 3 && words[1].equals("packed")) {
+            board = PackedPosition.parse(words[2]).toBoard();
+            i = 3;
+        } else {
+            throw new IllegalArgumentException("usage: position startpos|packed HEX [moves ...]");
+        }
+        if (i < words.length) {
+            if (!words[i].equals("moves"))
+                throw new IllegalArgumentException("expected moves: " + words[i]);
+            if (words.length - i - 1 > Engine.fMaxGamePlies)
+                throw new IllegalArgumentException("too many moves: " + (words.length - i - 1) +
+                        ", at most " + Engine.fMaxGamePlies);
+            for (i++; i < words.length; i++) {
+                int move = board.parseMove(words[i]);
+                if (move == Board.fNoMove)
+                    throw new IllegalArgumentException("illegal move: " + words[i]);
+                board.makeMove(move);
+            }
+        }
+        mBoard = board;
+    }
+
+    /**
+     * Handle "go [depth N] [movetime MS] [nodes N]" by starting a search thread.
+     *
+     * @param words The words of the command
+     * @throws IllegalArgumentException if a limit is unknown or not a number.
+     */
+    private void go(String[] words) {
+        int depth = 0;
+        long millis = 0, nodes = 0;
+        for (int i = 1; i < words.length; i++) {
+            switch (words[i]) {
+                case "infinite":
+                    break;
+                case "depth":
+                    depth = (int)parseNumber((i + 1 < words.length) ? words[++i] : "");
+                    break;
+                case "movetime":
+                    millis = parseNumber((i + 1 < words.length) ? words[++i] : "");
+                    break;
+                case "nodes":
+                    nodes = parseNumber((i + 1 < words.length) ? words[++i] : "");
+                    break;
+                default:
+                    throw new IllegalArgumentException("unknown limit: " + words[i]);
+            }
+        }
+        Engine.Limits limits = new Engine.Limits(depth, millis, nodes);
+        Engine engine = mEngine;
+        Board board = mBoard;
+        engine.setListener(info -> reply("info " + info));
+        // a "stop" right after "go" must not be lost, so the search is started here and not on its thread
+        engine.clearStop();
+        engine.getTable().newSearch();
+        mSearchThread = new Thread(() -> {
+            Engine.Result result = engine.search(board, limits, 1);
+            reply("bestmove " + ((result.move != Board.fNoMove) ? Board.moveToString(result.move) : "none"));
+        }, "search");
+        mSearchThread.setDaemon(true);
+        mSearchThread.start();
+    }
+
+    /**
+     * Parse a nonnegative number of a command.
+     *
+     * @param word The word of the number
+     * @return The number.
+     * @throws IllegalArgumentException if the word is not a nonnegative number.
+     */
+    private static long parseNumber(String word) {
+        try {
+            long number = Long.parseLong(word);
+            if (number >= 0) return number;
+        } catch (NumberFormatException e) {
+            // reported below
+        }
+        throw new IllegalArgumentException("not a number: " + word);
+    }
+
+    /**
+     * Write a reply line; the replies of the search thread and of the commands do not interleave.
+     *
+     * @param line The line
+     */
+    private void reply(String line) {
+        synchronized (mOut) {
+            mOut.println(line);
+        }
+    }
+
+    /**
+     * Speak the protocol on stdin and stdout.
+     *
+     * @param args The command line arguments, which are not used.
+     * @throws IOException if stdin cannot be read.
+     */
+    public static void main(String[] args) throws IOException {
+        new EngineProtocol(new OutputStreamWriter(System.out)).run(new InputStreamReader(System.in));
+    }
+}
@@ -0,0 +1,133 @@
+//------------------------------------------------------------------------------
+//  File       : EngineProtocolTest.java
+//  Course     : CSC610
+//  Date:      : 10/18/2026
+//  Author     : Jason Qiao Meng
+//  Author ID  : 10652564
+//  Description: This file contains unit tests against EngineProtocol.java
+//------------------------------------------------------------------------------
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.StringWriter;
+
+import static org.junit.Assert.*;
+
+
+/**
+ * A unit test class against class {@link EngineProtocol}
+ */
+public class EngineProtocolTest {
+
+    /**
+     * The replies of the protocol
+     */
+    private StringWriter out;
+    /**
+     * The protocol under test
+     */
+    private EngineProtocol protocol;
+
+
+    /**
+     * Create a protocol which writes to {@link #out}.
+     *
+     * @throws Exception
+     */
+    @Before
+    public void setUp() throws Exception {
+        out = new StringWriter();
+        protocol = new EngineProtocol(out);
+    }
+
+
+    /**
+     * Test whether a position with moves is searched and answered with info lines and a best move.
+     */
+    @Test
+    public void testGo() {
+        System.out.println("Test whether a position is searched and answered with a best move");
+
+        protocol.handle("dsqi");
+        protocol.handle("position startpos moves a3a4");
+        protocol.handle("go depth 3");
+        protocol.waitForSearch();
+        String lines[] = out.toString().split("\\R");
+        for (String line : lines) System.out.println(line);
+
+        Board board = new Board();
+        board.makeMove(board.parseMove("a3a4"));
+        String last = lines[lines.length - 1];
+        boolean actual = lines[2].equals("dsqiok") && lines[3].startsWith("info depth 1 score ") &&
+                lines[5].startsWith("info depth 3 score ") && lines[5].contains(" nps ") &&
+                last.startsWith("bestmove ") && board.parseMove(last.substring(9)) != Board.fNoMove;
+
+        String msg = "The position is searched? Expected: %1$b, Actual: %2$b";
+        msg = String.format(msg, true, actual);
+        assertTrue(msg, actual);
+    }
+
+
+    /**
+     * Test whether a search without limits stops on "stop" and bad commands are reported.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testStopAndErrors() throws Exception {
+        System.out.println("Test whether a search stops on stop and bad commands are reported");
+
+        protocol.handle("position packed " + new PackedPosition(new Board()));
+        protocol.handle("go");
+        Thread.sleep(200);
+        protocol.handle("isready");
+        protocol.handle("stop");
+        protocol.waitForSearch();
+        protocol.handle("position startpos moves a3a4 a3a4");
+        protocol.handle("go depth x");
+        boolean running = protocol.handle("jump");
+        boolean quit = !protocol.handle("quit");
+        String text = out.toString();
+        System.out.println(text);
+
+        boolean actual = text.contains("readyok") && text.contains("bestmove ") &&
+                text.contains("info string illegal move: a3a4") && text.contains("info string not a number: x") &&
+                text.contains("info string unknown command: jump") && running && quit;
+        String msg = "The search stops and errors are reported? Expected: %1$b, Actual: %2$b";
+        msg = String.format(msg, true, actual);
+        assertTrue(msg, actual);
+    }
+
+
+    /**
+     * Test whether a move list longer than a search allows and a table larger than the heap are
+     * reported, and the protocol goes on, while the longest move list is searched.
+     */
+    @Test
+    public void testLimits() {
+        System.out.println("Test whether too many moves and too large a table are reported");
+
+        String shuffle[] = {
+                Board.moveToString(Board.packMove(62, 61, Board.bLion, Board.rbNone)),
+                Board.moveToString(Board.packMove(0, 1, Board.rLion, Board.rbNone)),
+                Board.moveToString(Board.packMove(61, 62, Board.bLion, Board.rbNone)),
+                Board.moveToString(Board.packMove(1, 0, Board.rLion, Board.rbNone))};
+        StringBuilder longest = new StringBuilder("position startpos moves");
+        for (int ply = 0; ply < Engine.fMaxGamePlies; ply++) longest.append(' ').append(shuffle[ply % 4]);
+        protocol.handle(longest + " " + shuffle[0]);
+        protocol.handle("setoption name Hash value 100000");
+        protocol.handle(longest.toString());
+        protocol.handle("go depth 3");
+        protocol.waitForSearch();
+        String text = out.toString();
+        System.out.println(text);
+
+        boolean actual = text.contains("info string too many moves: " + (Engine.fMaxGamePlies + 1)) &&
+                text.contains("info string Hash must be from 1 to ") && text.contains("bestmove ") &&
+                !text.contains("bestmove none") && protocol.handle("isready");
+        String msg = "The limits are reported? Expected: %1$b, Actual: %2$b";
+        msg = String.format(msg, true, actual);
+        assertTrue(msg, actual);
+    }
+}
@@ -0,0 +1,170 @@
+//------------------------------------------------------------------------------
+//  File       : EngineTest.java
+//  Course     : CSC610
+//  Date:      : 10/18/2026
+//  Author     : Jason Qiao Meng
+//  Author ID  : 10652564
+//  Description: This file contains unit tests against Engine.java
+//------------------------------------------------------------------------------
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+
+/**
+ * A unit test class against class {@link Engine}
+ */
+public class EngineTest {
+
+    /**
+     * Create a board with only the given pieces.
+     *
+     * @param blacksTurn Whether it is black's turn
+     * @param pieces     Pairs of a piece and its cell
+     * @return The board.
+     */
+    private static Board setUp(boolean blacksTurn, int... pieces) {
+        int squares[] = new int[Board.bElephant + 1];
+        Arrays.fill(squares, -1);
+        for (int i = 0; i < pieces.length; i += 2) squares[pieces[i]] = pieces[i + 1];
+        return new Board(squares, blacksTurn);
+    }
+
+    /**
+     * Test whether a move is one of the legal moves of a board.
+     *
+     * @param board The board
+     * @param move  The move
+     * @return Returns {@code true} if the move is legal; {@code false} otherwise.
+     */
+    private static boolean isLegal(Board board, int move) {
+        int moves[] = new int[Board.fMaxMoves];
+        int count = board.generateMoves(moves);
+        for (int i = 0; i < count; i++) if (moves[i] == move) return true;
+        return false;
+    }
+
+
+    /**
+     * Test whether the search finds a den entry and a capture of the last piece in one ply,
+     * and a den entry in 3 plies, each with the score of a win at that ply.
+     */
+    @Test
+    public void testWins() {
+        System.out.println("Test whether the search finds the wins with their scores");
+
+        Engine engine = new Engine(1);
+        // the black lion on the trap at (1, 3) next to the red den at (0, 3)
+        Board den = setUp(true, Board.bLion, 10, Board.rRat, 56);
+        Engine.Result enter = engine.search(den, Engine.Limits.depth(4));
+        // the black cat at (2, 0) next to the last red piece, a rat at (3, 0) on the bank
+        Board last = setUp(true, Board.bCat, 14, Board.rRat, 21, Board.bLion, 62);
+        Engine.Result take = engine.search(last, Engine.Limits.depth(4));
+        // the black lion at (2, 3) reaches the red den in 2 moves through (1, 3), which the far rat cannot stop
+        Board two = setUp(true, Board.bLion, 17, Board.rRat, 56);
+        Engine.Result reach = engine.search(two, Engine.Limits.depth(6));
+        System.out.println(enter + "; " + take + "; " + reach);
+
+        boolean actual = enter.move == Board.packMove(10, 3, Board.bLion, Board.rbNone) &&
+                enter.score == Engine.fWinScore - 1 &&
+                take.move == Board.packMove(14, 21, Board.bCat, Board.rRat) &&
+                take.score == Engine.fWinScore - 1 &&
+                // the den entry at the last ply is found by the quiescence search, which keeps no line
+                reach.score == Engine.fWinScore - 3 && Board.moveTo(reach.pv[0]) == 10;
+
+        String msg = "The wins are found and scored? Expected: %1$b, Actual: %2$b";
+        msg = String.format(msg, true, actual);
+        assertTrue(msg, actual);
+    }
+
+
+    /**
+     * Test whether the depth, node and time limits hold, and whether the first iteration
+     * is completed even when a limit is reached before its end.
+     */
+    @Test
+    public void testLimits() {
+        System.out.println("Test the depth, node and time limits");
+
+        Engine engine = new Engine(4);
+        Board board = new Board();
+        Engine.Result depth = engine.search(board, Engine.Limits.depth(3));
+        Engine.Result nodes = engine.search(board, Engine.Limits.nodes(5000));
+        Engine.Result time = engine.search(board, Engine.Limits.time(200));
+        Engine.Result first = engine.search(board, Engine.Limits.nodes(1));
+        System.out.println(depth + "; " + nodes + "; " + time + "; " + first);
+
+        boolean actual = depth.depth == 3 && isLegal(board, depth.move) &&
+                // the search stops on the node after the limit, then unwinds
+                nodes.nodes >= 5000 && nodes.nodes <= 5000 + Engine.fMaxPly && isLegal(board, nodes.move) &&
+                time.millis >= 200 && time.millis < 2000 && isLegal(board, time.move) &&
+                first.depth == 1 && isLegal(board, first.move);
+
+        String msg = "The limits hold? Expected: %1$b, Actual: %2$b";
+        msg = String.format(msg, true, actual);
+        assertTrue(msg, actual);
+    }
+
+
+    /**
+     * Test whether a search with no limit returns the best move so far when it is stopped
+     * from another thread.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testStop() throws Exception {
+        System.out.println("Test whether a search with no limit is stopped");
+
+        Engine engine = new Engine(4);
+        Board board = new Board();
+        Engine.Result results[] = new Engine.Result[1];
+        Thread search = new Thread(() -> results[0] = engine.search(board, new Engine.Limits(0, 0, 0)));
+        search.start();
+        Thread.sleep(200);
+        engine.stop();
+        search.join(5000);
+        boolean stopped = !search.isAlive();
+        System.out.println("stopped: " + stopped + ", " + results[0]);
+
+        boolean actual = stopped && results[0].depth >= 1 && isLegal(board, results[0].move);
+        String msg = "The search is stopped? Expected: %1$b, Actual: %2$b";
+        msg = String.format(msg, true, actual);
+        assertTrue(msg, actual);
+    }
+
+
+    /**
+     * Test whether searches of positions along random games leave the board as it was,
+     * with the same undo moves and key.
+     */
+    @Test
+    public void testBoardUnchanged() {
+        System.out.println("Test whether a search leaves the board as it was");
+
+        Engine engine = new Engine(4);
+        Random rnd = new Random(13);
+        int moves[] = new int[Board.fMaxMoves];
+        Board board = new Board();
+        boolean actual = true;
+        for (int ply = 0; ply < 40 && !Engine.isLost(board); ply++) {
+            Board before = new Board(board);
+            int undoCount = board.getUndoCount();
+            long key = board.zobristKey();
+            engine.search(board, (ply % 2 == 0) ? Engine.Limits.depth(3) : Engine.Limits.nodes(2000));
+            actual &= board.equalsBoard(before) && board.getUndoCount() == undoCount && board.zobristKey() == key &&
+                    board.getScore() == before.getScore();
+            int count = board.generateMoves(moves);
+            if (count == 0) break;
+            board.makeMove(moves[rnd.nextInt(count)]);
+        }
+
+        String msg = "The board is left as it was? Expected: %1$b, Actual: %2$b";
+        msg = String.format(msg, true, actual);
+        assertTrue(msg, actual);
+    }
+}
@@ -0,0 +1,297 @@
+//------------------------------------------------------------------------------
+//  File       : Evaluation.java
+//  Course     : DouShouQi
+//  Date:      : 10/18/2026
+//  Author     : Jason Qiao Meng
+//  Author ID  : 10652564
+//  Description: This file contains the static evaluation of DouShouQi positions.
+//------------------------------------------------------------------------------
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+
+/**
+ * The static evaluation of a {@link Board} position, from red's view, in the units of {@link Engine#fRankValues}.
+ * <pre>
+ *     Terms (the weights are indexed by rank, rat 1 to elephant 8):
+ *         1. Material: a weight per piece
+ *         2. Piece-square tables: a weight per piece and cell, written for red; a black piece
+ *            uses the cell turned half around the center, e.g. (8, 0) for red is (0, 6) for black, as the
+ *            initial position is laid out.
+ *         3. Den distance: a weight per piece and step closer to the enemy den
+ *         4. Trap threat: a penalty per piece standing on a trap next to an enemy piece,
+ *            since any enemy piece may take it there
+ *
+ *     Incremental:
+ *         Terms 1 to 3 depend on a piece and its cell alone. Their sum per piece and cell is kept
+ *         in {@link #mPieceScores}, and a {@link Board} adds and subtracts it as pieces are placed and
+ *         removed, so a move updates the score in O(1). Term 4 is computed at every evaluation from
+ *         the bit boards of the 6 traps.
+ *
+ *     Weights:
+ *         All weights are one vector of {@link #fWeightCount} ints, laid out at the offsets
+ *         {@link #fMaterial}, {@link #fSquares}, {@link #fDen} and {@link #fTrap}, so that a tuner
+ *         can fit them as a whole. An evaluation is immutable, so it may be shared by any number of
+ *         boards and threads; a board keeps the score of the evaluation it is given, see
+ *         {@link Board#setEvaluation(Evaluation)}, and every {@link Engine} carries one of its own.
+ *
+ *     Text form of the weights, see {@link #writeWeights(int[], File)}:
+ *         the material weights on one line, the piece-square weights of each rank on one line of
+ *         {@link Board#fRows} groups split by a bar, then the den distance and trap threat weights.
+ * </pre>
+ */
+public final class Evaluation {
+
+    /**
+     * The number of ranks
+     */
+    static final int fRanks = Board.rElephant;
+    /**
+     * The offset of the material weights: {@code fMaterial + rank - 1}
+     */
+    public static final int fMaterial = 0;
+    /**
+     * The offset of the piece-square weights: {@code fSquares + (rank - 1) * fCells + cell}, red's cells
+     */
+    public static final int fSquares = fMaterial + fRanks;
+    /**
+     * The offset of the den distance weights: {@code fDen + rank - 1}
+     */
+    public static final int fDen = fSquares + fRanks * Board.fCells;
+    /**
+     * The offset of the trap threat weights: {@code fTrap + rank - 1}
+     */
+    public static final int fTrap = fDen + fRanks;
+    /**
+     * The number of weights
+     */
+    public static final int fWeightCount = fTrap + fRanks;
+    /**
+     * The largest distance of a cell from a den, in steps
+     */
+    static final int fMaxDenDistance = (Board.fRows - 1) + (Board.fCols - 1) / 2;
+
+    /**
+     * The cell of the black den
+     */
+    private static final int fBlackDen = Long.numberOfTrailingZeros(Board.fBlackDenBits);
+    /**
+     * The bit masks of the cells next to a cell, indexed by cell number
+     */
+    static final long[] fNeighbors = buildNeighbors();
+    /**
+     * The evaluation of the default weights
+     */
+    private static final Evaluation fDefault = new Evaluation(getDefaultWeights());
+
+    /**
+     * The weights
+     */
+    private final int[] mWeights;
+    /**
+     * The sum of the material, piece-square and den distance terms from red's view,
+     * indexed by {@code piece * fCells + cell}
+     */
+    final int[] mPieceScores = new int[(Board.bElephant + 1) * Board.fCells];
+
+
+    /**
+     * Create an evaluation of some weights.
+     *
+     * @param weights A vector of {@link #fWeightCount} weights, which is copied
+     */
+    public Evaluation(int[] weights) {
+        if (weights.length != fWeightCount)
+            throw new IllegalArgumentException("An evaluation needs " + fWeightCount + " weights");
+        mWeights = weights.clone();
+        for (int p = Board.rRat; p <= Board.bElephant; p++) {
+            boolean black = p > Board.rElephant;
+            int rank = (p - 1) % fRanks + 1;
+            for (int sq = 0; sq < Board.fCells; sq++) {
+                int redSquare = black ? rotate(sq) : sq;
+                int score = weights[fMaterial + rank - 1] +
+                        weights[fSquares + (rank - 1) * Board.fCells + redSquare] +
+                        weights[fDen + rank - 1] * getDenProximity(redSquare);
+                mPieceScores[p * Board.fCells + sq] = black ? -score : score;
+            }
+        }
+    }
+
+    /**
+     * Get the evaluation of the default weights, which new boards and engines use.
+     *
+     * @return The default evaluation.
+     */
+    public static Evaluation getDefault() {
+        return fDefault;
+    }
+
+    /**
+     * Get the default weights: the material values of {@link Engine#fRankValues}, empty piece-square
+     * tables, and den distance and trap threat weights which grow with the rank.
+     *
+     * @return A new vector of weights.
+     */
+    public static int[] getDefaultWeights() {
+        int weights[] = new int[fWeightCount];
+        for (int rank = 1; rank <= fRanks; rank++) {
+            weights[fMaterial + rank - 1] = Engine.fRankValues[rank];
+            weights[fDen + rank - 1] = 2 + rank / 2;
+            weights[fTrap + rank - 1] = Engine.fRankValues[rank] / 4;
+        }
+        return weights;
+    }
+
+    /**
+     * Get the weights.
+     *
+     * @return A copy of the weights.
+     */
+    public int[] getWeights() {
+        return mWeights.clone();
+    }
+
+    /**
+     * Evaluate a position. The incremental score of the board is used if the board keeps the score
+     * of this evaluation; otherwise terms 1 to 3 are summed from scratch.
+     *
+     * @param board The board of the position
+     * @return The score from red's view.
+     */
+    public int evaluate(Board board) {
+        int score = (board.getEvaluation() == this) ? board.getScore() : getPieceScores(board);
+        return score + getTrapThreats(board);
+    }
+
+    /**
+     * Sum the material, piece-square and den distance terms of the pieces of a board.
+     *
+     * @param board The board of the position
+     * @return The terms from red's view.
+     */
+    int getPieceScores(Board board) {
+        int score = 0;
+        for (int p = Board.rRat; p <= Board.bElephant; p++) {
+            int sq = board.getSquare(p);
+            if (sq >= 0) score += mPieceScores[p * Board.fCells + sq];
+        }
+        return score;
+    }
+
+    /**
+     * Get the trap threat term: a piece on a trap next to an enemy piece costs its side.
+     *
+     * @param board The board of the position
+     * @return The term from red's view.
+     */
+    int getTrapThreats(Board board) {
+        int score = 0;
+        long trapped = Board.fTrapBits & (board.mRedBits | board.mBlackBits);
+        while (trapped != 0) {
+            int sq = Long.numberOfTrailingZeros(trapped);
+            trapped &= trapped - 1;
+            int p = board.mSquares[sq];
+            boolean black = p > Board.rElephant;
+            if ((fNeighbors[sq] & (black ? board.mRedBits : board.mBlackBits)) == 0) continue;
+            int threat = mWeights[fTrap + (p - 1) % fRanks];
+            score += black ? threat : -threat;
+        }
+        return score;
+    }
+
+    /**
+     * Get how many steps closer than the farthest cell a cell is to the black den, i.e. red's enemy den.
+     *
+     * @param sq The cell number, of red
+     * @return The proximity from 0 to {@link #fMaxDenDistance}.
+     */
+    static int getDenProximity(int sq) {
+        int distance = Math.abs(Board.toRow(sq) - Board.toRow(fBlackDen)) +
+                Math.abs(Board.toColumn(sq) - Board.toColumn(fBlackDen));
+        return fMaxDenDistance - distance;
+    }
+
+    /**
+     * Turn a cell half around the center of the board, which swaps the sides of red and black.
+     *
+     * @param sq The cell number
+     * @return The turned cell number.
+     */
+    static int rotate(int sq) {
+        return Board.fCells - 1 - sq;
+    }
+
+    /**
+     * Build the neighbor masks {@link #fNeighbors}.
+     *
+     * @return The masks indexed by cell number.
+     */
+    private static long[] buildNeighbors() {
+        long neighbors[] = new long[Board.fCells];
+        for (int sq = 0; sq < Board.fCells; sq++) {
+            int r = Board.toRow(sq), c = Board.toColumn(sq);
+            if (r > 0) neighbors[sq] |= 1L << Board.toSquare(r - 1, c);
+            if (r < Board.fRows - 1) neighbors[sq] |= 1L << Board.toSquare(r + 1, c);
+            if (c > 0) neighbors[sq] |= 1L << Board.toSquare(r, c - 1);
+            if (c < Board.fCols - 1) neighbors[sq] |= 1L << Board.toSquare(r, c + 1);
+        }
+        return neighbors;
+    }
+
+    /**
+     * Write weights in the text form, see above.
+     *
+     * @param weights The weights
+     * @param file    The file
+     * @throws IOException if the file cannot be written.
+     */
+    public static void writeWeights(int[] weights, File file) throws IOException {
+        try (PrintWriter out = new PrintWriter(file)) {
+            out.println(join(weights, fMaterial, fRanks, fRanks));
+            for (int rank = 0; rank < fRanks; rank++)
+                out.println(join(weights, fSquares + rank * Board.fCells, Board.fCells, Board.fCols));
+            out.println(join(weights, fDen, fRanks, fRanks));
+            out.println(join(weights, fTrap, fRanks, fRanks));
+        }
+    }
+
+    /**
+     * Read weights written by {@link #writeWeights(int[], File)}.
+     *
+     * @param file The file
+     * @return The weights.
+     * @throws IOException if the file cannot be read or holds no weights.
+     */
+    public static int[] readWeights(File file) throws IOException {
+        String words[] = new String(Files.readAllBytes(file.toPath())).trim().split("[\\s|]+");
+        if (words.length != fWeightCount)
+            throw new IOException("Not a file of " + fWeightCount + " weights: " + file);
+        int weights[] = new int[words.length];
+        try {
+            for (int i = 0; i < words.length; i++) weights[i] = Integer.parseInt(words[i]);
+        } catch (NumberFormatException e) {
+            throw new IOException("Not a file of weights: " + file, e);
+        }
+        return weights;
+    }
+
+    /**
+     * Join a range of weights, in groups split by a bar.
+     *
+     * @param weights The weights
+     * @param from    The first index
+     * @param count   The number of weights
+     * @param group   The number of weights of a group
+     * @return The text.
+     */
+    private static String join(int[] weights, int from, int count, int group) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) text.append((i % group == 0) ? " | " : " ");
+            text.append(weights[from + i]);
+        }
+        return text.toString();
+    }
+}
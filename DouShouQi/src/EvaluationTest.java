@@ -0,0 +1,171 @@
+//------------------------------------------------------------------------------
+//  File       : EvaluationTest.java
+//  Course     : CSC610
+//  Date:      : 10/18/2026
+//  Author     : Jason Qiao Meng
+//  Author ID  : 10652564
+//  Description: This file contains unit tests against Evaluation.java
+//------------------------------------------------------------------------------
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+
+
+/**
+ * A unit test class against class {@link Evaluation}
+ */
+public class EvaluationTest {
+
+    /**
+     * Test whether the incremental score equals the score computed from scratch along random games,
+     * both when moves are made and when they are unmade, with the default weights and with others.
+     */
+    @Test
+    public void testIncremental() {
+        System.out.println("Test whether the incremental score equals the score from scratch");
+
+        Random rnd = new Random(11);
+        int weights[] = new int[Evaluation.fWeightCount];
+        for (int i = 0; i < weights.length; i++) weights[i] = rnd.nextInt(201) - 100;
+        Evaluation other = new Evaluation(weights);
+        int moves[] = new int[Board.fMaxMoves];
+        boolean actual = true;
+        for (int game = 0; game < 50 && actual; game++) {
+            Board board = new Board();
+            if (game % 2 == 1) board.setEvaluation(other);
+            int initial = board.getScore();
+            int plies = 0;
+            for (; plies < 100; plies++) {
+                int count = board.generateMoves(moves);
+                if (count == 0) break;
+                board.makeMove(moves[rnd.nextInt(count)]);
+                actual &= board.getScore() == board.getEvaluation().getPieceScores(board);
+            }
+            while (plies-- > 0) board.unmakeMove();
+            actual &= board.getScore() == initial;
+        }
+
+        String msg = "The incremental scores are right? Expected: %1$b, Actual: %2$b";
+        msg = String.format(msg, true, actual);
+        assertTrue(msg, actual);
+    }
+
+
+    /**
+     * Test whether a position turned half around with the colors swapped scores the opposite,
+     * and the initial board scores 0.
+     */
+    @Test
+    public void testMirror() {
+        System.out.println("Test whether a turned position scores the opposite");
+
+        int weights[] = Evaluation.getDefaultWeights();
+        Random rnd = new Random(5);
+        // asymmetric piece-square weights, so that the turn really matters
+        for (int i = Evaluation.fSquares; i < Evaluation.fDen; i++) weights[i] = rnd.nextInt(41) - 20;
+        Evaluation evaluation = new Evaluation(weights);
+        Board board = new Board();
+        boolean actual = evaluation.evaluate(board) == 0;
+        int moves[] = new int[Board.fMaxMoves];
+        for (int ply = 0; ply < 60; ply++) {
+            int count = board.generateMoves(moves);
+            if (count == 0) break;
+            board.makeMove(moves[rnd.nextInt(count)]);
+            int squares[] = new int[Board.bElephant + 1];
+            Arrays.fill(squares, -1);
+            for (int p = Board.rRat; p <= Board.bElephant; p++) {
+                int sq = board.getSquare(p);
+                int other = (p > Board.rElephant) ? p - Board.rElephant : p + Board.rElephant;
+                if (sq >= 0) squares[other] = Evaluation.rotate(sq);
+            }
+            Board turned = new Board(squares, !board.isBlacksTurn());
+            actual &= evaluation.evaluate(turned) == -evaluation.evaluate(board);
+        }
+
+        String msg = "The turned positions score the opposite? Expected: %1$b, Actual: %2$b";
+        msg = String.format(msg, true, actual);
+        assertTrue(msg, actual);
+    }
+
+
+    /**
+     * Test the den distance and trap threat terms on small positions.
+     */
+    @Test
+    public void testDenAndTrap() {
+        System.out.println("Test the den distance and trap threat terms");
+
+        int weights[] = Evaluation.getDefaultWeights();
+        int squares[] = new int[Board.bElephant + 1];
+        Arrays.fill(squares, -1);
+        // a red dog far from the black den against a black dog next to the red den at (0, 3)
+        squares[Board.rDog] = 0;
+        squares[Board.bDog] = Board.fCols + 3;
+        Board dens = new Board(squares, true);
+        int denWeight = weights[Evaluation.fDen + Board.rDog - 1];
+        // red: (0, 0) is 8 + 3 steps from (8, 3); black: (1, 3) is 1 step from (0, 3)
+        boolean denOk = Evaluation.getDefault().evaluate(dens) == denWeight * (0 - (Evaluation.fMaxDenDistance - 1));
+        // the red lion on the trap at (7, 3) is next to the black rat at (7, 2)
+        squares[Board.rDog] = squares[Board.bDog] = -1;
+        squares[Board.rLion] = 7 * Board.fCols + 3;
+        squares[Board.bRat] = 7 * Board.fCols + 2;
+        Board trapped = new Board(squares, true);
+        boolean trapOk = Evaluation.getDefault().getTrapThreats(trapped) == -weights[Evaluation.fTrap + Board.rLion - 1];
+        System.out.println("den " + Evaluation.getDefault().evaluate(dens) + ", trap " + Evaluation.getDefault().getTrapThreats(trapped));
+
+        boolean actual = denOk && trapOk;
+        String msg = "The den and trap terms are right? Expected: %1$b, Actual: %2$b";
+        msg = String.format(msg, true, actual);
+        assertTrue(msg, actual);
+    }
+
+
+    /**
+     * Test whether two engines of different evaluations search the same position side by side,
+     * each by its own weights, and leave the evaluation of the board as it was.
+     */
+    @Test
+    public void testEngines() throws Exception {
+        System.out.println("Test whether engines carry evaluations of their own");
+
+        int weights[] = Evaluation.getDefaultWeights();
+        // a rat worth more than an elephant
+        weights[Evaluation.fMaterial + Board.rRat - 1] = 2000;
+        Evaluation other = new Evaluation(weights);
+        int squares[] = new int[Board.bElephant + 1];
+        Arrays.fill(squares, -1);
+        // a red rat and dog against a black elephant, far apart, red to move
+        squares[Board.rRat] = Board.fCols;
+        squares[Board.rDog] = Board.fCols + 6;
+        squares[Board.bElephant] = 7 * Board.fCols;
+        Board board = new Board(squares, false);
+        Engine base = new Engine(1), tuned = new Engine(1);
+        tuned.setEvaluation(other);
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<Engine.Result> a = pool.submit(() -> base.search(new Board(board), Engine.Limits.depth(4)));
+            Future<Engine.Result> b = pool.submit(() -> tuned.search(board, Engine.Limits.depth(4)));
+            System.out.println("base " + a.get() + ", tuned " + b.get());
+        } finally {
+            pool.shutdown();
+        }
+        System.out.println("base " + base.evaluate(board) + ", tuned " + tuned.evaluate(board));
+        // the elephant is ahead by the default weights, the rat by the others
+        boolean own = base.evaluate(board) < 0 && tuned.evaluate(board) > 0 &&
+                tuned.evaluate(board) == other.evaluate(board);
+        boolean kept = board.getEvaluation() == Evaluation.getDefault() &&
+                board.getScore() == Evaluation.getDefault().getPieceScores(board);
+
+        boolean actual = own && kept;
+        String msg = "The engines evaluate by their own weights? Expected: %1$b, Actual: %2$b";
+        msg = String.format(msg, true, actual);
+        assertTrue(msg, actual);
+    }
+}
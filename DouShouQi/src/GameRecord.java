@@ -0,0 +1,204 @@
+//------------------------------------------------------------------------------
+//  File       : GameRecord.java
+//  Course     : DouShouQi
+//  Date:      : 10/18/2026
+//  Author     : Jason Qiao Meng
+//  Author ID  : 10652564
+//  Description: This file contains the record of a played DouShouQi game.
+//------------------------------------------------------------------------------
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The record of a game played from the initial board: its moves and its result.
+ * <pre>
+ *     Text form, one game per line:
+ *         result move move ...
+ *
+ *         result       red, black or draw
+ *         move         a move as written by Board.moveToString(), e.g. a3a4
+ *
+ *     Example:
+ *         red g3g4 a7a6 e3d3 b8b7 ...
+ * </pre>
+ */
+public class GameRecord {
+
+    /**
+     * The result of a game won by red
+     */
+    public static final int fRedWins = 1;
+    /**
+     * The result of a drawn (or unfinished) game
+     */
+    public static final int fDraw = 0;
+    /**
+     * The result of a game won by black
+     */
+    public static final int fBlackWins = -1;
+    /**
+     * The longest game which can be replayed on a board, which keeps every move to be unmade
+     */
+    public static final int fMaxLength = Board.fMaxUndo;
+
+    /**
+     * The packed moves from the initial board
+     */
+    private final int mMoves[];
+    /**
+     * The result: {@link #fRedWins}, {@link #fDraw} or {@link #fBlackWins}
+     */
+    private final int mResult;
+
+
+    /**
+     * Create the record of a game.
+     *
+     * @param moves  The packed moves from the initial board
+     * @param result The result: {@link #fRedWins}, {@link #fDraw} or {@link #fBlackWins}
+     */
+    public GameRecord(int[] moves, int result) {
+        if (result < fBlackWins || result > fRedWins)
+            throw new IllegalArgumentException("Unknown result of a game: " + result);
+        mMoves = moves.clone();
+        mResult = result;
+    }
+
+    /**
+     * Get the moves of the game.
+     *
+     * @return A copy of the packed moves from the initial board.
+     */
+    public int[] getMoves() {
+        return mMoves.clone();
+    }
+
+    /**
+     * Get the number of moves (plies) of the game.
+     *
+     * @return The number of moves.
+     */
+    public int getLength() {
+        return mMoves.length;
+    }
+
+    /**
+     * Get a move of the game.
+     *
+     * @param ply The ply of the move, from 0
+     * @return The packed move.
+     */
+    public int getMove(int ply) {
+        return mMoves[ply];
+    }
+
+    /**
+     * Get the result of the game.
+     *
+     * @return {@link #fRedWins}, {@link #fDraw} or {@link #fBlackWins}.
+     */
+    public int getResult() {
+        return mResult;
+    }
+
+    /**
+     * Parse the text form of a game, see above. The moves are replayed on a board
+     * and must all be legal.
+     *
+     * @param line A line of text
+     * @return The record of the game.
+     * @throws IllegalArgumentException if the line is not a game, or a game longer than {@link #fMaxLength}.
+     */
+    public static GameRecord parse(String line) {
+        String tokens[] = line.trim().split("\\s+");
+        int result;
+        switch (tokens[0]) {
+            case "red":
+                result = fRedWins;
+                break;
+            case "black":
+                result = fBlackWins;
+                break;
+            case "draw":
+                result = fDraw;
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown result of a game: " + tokens[0]);
+        }
+        if (tokens.length - 1 > fMaxLength)
+            throw new IllegalArgumentException("A game of " + (tokens.length - 1) + " plies is longer than " +
+                    fMaxLength);
+        Board board = new Board();
+        int moves[] = new int[tokens.length - 1];
+        for (int i = 1; i < tokens.length; i++) {
+            int move = board.parseMove(tokens[i]);
+            if (move == Board.fNoMove || Engine.isLost(board))
+                throw new IllegalArgumentException("Illegal move " + i + " of a game: " + tokens[i]);
+            board.makeMove(move);
+            moves[i - 1] = move;
+        }
+        return new GameRecord(moves, result);
+    }
+
+    /**
+     * Read the games of a text file, one per line. Blank lines and lines starting with # are skipped.
+     *
+     * @param file The file
+     * @return The records of the games.
+     * @throws IOException if the file cannot be read.
+     * @throws IllegalArgumentException if a line is not a game.
+     */
+    public static List<GameRecord> read(File file) throws IOException {
+        List<GameRecord> games = new ArrayList<>();
+        try (BufferedReader in = new BufferedReader(new FileReader(file))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (line.trim().isEmpty() || line.startsWith("#")) continue;
+                games.add(parse(line));
+            }
+        }
+        return games;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @param other {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof GameRecord &&
+                ((GameRecord)other).mResult == mResult &&
+                Arrays.equals(((GameRecord)other).mMoves, mMoves);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @return {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(mMoves) + mResult;
+    }
+
+    /**
+     * Get the text form of the game, see above.
+     *
+     * @return A line of text without the line break.
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append((mResult == fRedWins) ? "red" : (mResult == fBlackWins) ? "black" : "draw");
+        for (int move : mMoves) sb.append(' ').append(Board.moveToString(move));
+        return sb.toString();
+    }
+}
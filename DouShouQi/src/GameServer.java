@@ -0,0 +1,520 @@
+//------------------------------------------------------------------------------
+//  File       : GameServer.java
+//  Course     : DouShouQi
+//  Date:      : 10/18/2026
+//  Author     : Jason Qiao Meng
+//  Author ID  : 10652564
+//  Description: This file contains the non-blocking server which hosts many
+//               DouShouQi games at once.
+//------------------------------------------------------------------------------
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+
+/**
+ * A server which hosts many games between remote players over a line-based text protocol.
+ * <pre>
+ *     Usage:
+ *         java GameServer [port]          (default port 7654)
+ *
+ *     Commands of a client (one per line):
+ *         join                  wait for an opponent; the first of 2 players plays black, which moves first
+ *         move a3a4             play a move of the game
+ *         resign                give up the game
+ *         quit                  close the connection
+ *
+ *     Replies of the server:
+ *         wait                  waiting for an opponent
+ *         start ID black|red    a game starts and this player plays the given side
+ *         move a3a4             a move is played, sent to both players, the mover included
+ *         end black|red REASON  the game is over, won by the given side: REASON is win,
+ *                               resign or disconnect. Both players may join again.
+ *         error MESSAGE         the command is rejected, e.g. a move out of turn
+ *
+ *     Note:
+ *         1. One selector thread serves all connections and owns all games, so games need no locks
+ *            and a move is answered without a thread hand-off.
+ *         2. An idle session takes a socket, a small read buffer and no thread, so the number of
+ *            sessions is bound by the file descriptor limit of the process (see ulimit -n).
+ *         3. A client which does not read its replies is disconnected once
+ *            {@link #fMaxPending} bytes are waiting to be written to it.
+ * </pre>
+ */
+public class GameServer implements AutoCloseable {
+
+    /**
+     * The default port of the server
+     */
+    public static final int fDefaultPort = 7654;
+    /**
+     * The maximum length of a command line in bytes, the newline included
+     */
+    private static final int fMaxLine = 64;
+    /**
+     * The maximum number of reply bytes waiting to be written to a client
+     */
+    private static final int fMaxPending = 64 * 1024;
+
+    /**
+     * A connection of a player.
+     */
+    private static class Session {
+        /**
+         * The channel of the connection
+         */
+        final SocketChannel mChannel;
+        /**
+         * The bytes read but not handled yet
+         */
+        final ByteBuffer mIn = ByteBuffer.allocate(fMaxLine);
+        /**
+         * The bytes waiting to be written, in read mode, or {@code null} if there is none.
+         */
+        ByteBuffer mOut = null;
+        /**
+         * The selection key of the channel
+         */
+        SelectionKey mKey;
+        /**
+         * The game being played, or {@code null}.
+         */
+        Game mGame = null;
+        /**
+         * The side played in {@link #mGame}
+         */
+        Board.Color mColor;
+
+        /**
+         * Create a session of a connection.
+         *
+         * @param channel The channel of the connection
+         */
+        Session(SocketChannel channel) {
+            mChannel = channel;
+        }
+    }
+
+    /**
+     * A game between 2 sessions.
+     */
+    private static class Game {
+        /**
+         * The number of the game
+         */
+        final long mId;
+        /**
+         * The board of the game
+         */
+        final Board mBoard = new Board();
+        /**
+         * The session which plays black
+         */
+        final Session mBlack;
+        /**
+         * The session which plays red
+         */
+        final Session mRed;
+
+        /**
+         * Create a game.
+         *
+         * @param id    The number of the game
+         * @param black The session which plays black
+         * @param red   The session which plays red
+         */
+        Game(long id, Session black, Session red) {
+            mId = id;
+            mBlack = black;
+            mRed = red;
+        }
+    }
+
+    /**
+     * The listening channel
+     */
+    private final ServerSocketChannel mServer;
+    /**
+     * The selector of all channels
+     */
+    private final Selector mSelector;
+    /**
+     * The buffer of the legal moves of a board, used by the selector thread only
+     */
+    private final int mMoves[] = new int[Board.fMaxMoves];
+    /**
+     * The selector thread, or {@code null} before {@link #start()}.
+     */
+    private Thread mThread = null;
+    /**
+     * The session waiting for an opponent, or {@code null}.
+     */
+    private Session mWaiting = null;
+    /**
+     * The number of games started
+     */
+    private long mGames = 0;
+    /**
+     * Whether the server is being closed
+     */
+    private volatile boolean mClosing = false;
+    /**
+     * The number of open sessions
+     */
+    private volatile int mSessionCount = 0;
+
+
+    /**
+     * Create a server listening on an address; it accepts connections after {@link #start()}.
+     *
+     * @param address The address, whose port may be 0 for any free port
+     * @throws IOException if the address cannot be bound.
+     */
+    public GameServer(InetSocketAddress address) throws IOException {
+        mSelector = Selector.open();
+        mServer = ServerSocketChannel.open();
+        try {
+            mServer.bind(address, 1024);
+            mServer.configureBlocking(false);
+            mServer.register(mSelector, SelectionKey.OP_ACCEPT);
+        } catch (IOException e) {
+            mServer.close();
+            mSelector.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Get the port the server listens on.
+     *
+     * @return The port.
+     */
+    public int getPort() {
+        return mServer.socket().getLocalPort();
+    }
+
+    /**
+     * Get the number of open sessions.
+     *
+     * @return The number of sessions.
+     */
+    public int getSessionCount() {
+        return mSessionCount;
+    }
+
+    /**
+     * Start the selector thread.
+     */
+    public synchronized void start() {
+        if (mThread != null)
+            throw new IllegalStateException("The server is already started");
+        mThread = new Thread(this::serve, "game-server");
+        mThread.start();
+    }
+
+    /**
+     * Stop the server and close all connections.
+     *
+     * @throws IOException if a channel cannot be closed.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        mClosing = true;
+        if (mThread != null) {
+            mSelector.wakeup();
+            try {
+                mThread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        closeAll();
+    }
+
+    /**
+     * Serve the connections until the server is closed.
+     */
+    private void serve() {
+        try {
+            while (!mClosing) {
+                mSelector.select();
+                Iterator<SelectionKey> keys = mSelector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) continue;
+                    if (key.isAcceptable()) accept();
+                    else {
+                        Session session = (Session)key.attachment();
+                        if (key.isReadable()) read(session);
+                        if (key.isValid() && key.isWritable()) flush(session);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("game server stopped: " + e);
+        }
+    }
+
+    /**
+     * Close all channels and the selector.
+     *
+     * @throws IOException if a channel cannot be closed.
+     */
+    private void closeAll() throws IOException {
+        if (!mSelector.isOpen()) return;
+        for (SelectionKey key : mSelector.keys()) {
+            try {
+                key.channel().close();
+            } catch (IOException e) {
+                // closing the others anyway
+            }
+        }
+        mSelector.close();
+        mServer.close();
+        mSessionCount = 0;
+    }
+
+    /**
+     * Accept the pending connections.
+     *
+     * @throws IOException if the listening channel fails.
+     */
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = mServer.accept()) != null) {
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            Session session = new Session(channel);
+            session.mKey = channel.register(mSelector, SelectionKey.OP_READ, session);
+            mSessionCount++;
+        }
+    }
+
+    /**
+     * Read the bytes of a session and handle its complete command lines.
+     *
+     * @param session The session
+     */
+    private void read(Session session) {
+        int count;
+        try {
+            count = session.mChannel.read(session.mIn);
+        } catch (IOException e) {
+            count = -1;
+        }
+        if (count < 0) {
+            disconnect(session);
+            return;
+        }
+        ByteBuffer in = session.mIn;
+        in.flip();
+        int start = in.position();
+        for (int i = start; i < in.limit() && session.mKey.isValid(); i++) {
+            if (in.get(i) != '\n') continue;
+            String line = new String(in.array(), start, i - start, StandardCharsets.US_ASCII).trim();
+            start = i + 1;
+            handle(session, line);
+        }
+        if (!session.mKey.isValid()) return;
+        in.position(start);
+        in.compact();
+        if (!in.hasRemaining()) {
+            send(session, "error line too long");
+            disconnect(session);
+        }
+    }
+
+    /**
+     * Handle a command line of a session.
+     *
+     * @param session The session
+     * @param line    The command line
+     */
+    private void handle(Session session, String line) {
+        String words[] = line.split("\\s+");
+        switch (words[0]) {
+            case "":
+                break;
+            case "join":
+                join(session);
+                break;
+            case "move":
+                if (words.length != 2) send(session, "error usage: move a3a4");
+                else move(session, words[1]);
+                break;
+            case "resign":
+                if (session.mGame == null) send(session, "error not in a game");
+                else end(session.mGame, opposite(session.mColor), "resign");
+                break;
+            case "quit":
+                disconnect(session);
+                break;
+            default:
+                send(session, "error unknown command " + words[0]);
+        }
+    }
+
+    /**
+     * Let a session wait for an opponent, or start a game with the waiting session.
+     *
+     * @param session The session
+     */
+    private void join(Session session) {
+        if (session.mGame != null) {
+            send(session, "error already in a game");
+        } else if (mWaiting == null || mWaiting == session) {
+            mWaiting = session;
+            send(session, "wait");
+        } else {
+            Game game = new Game(++mGames, mWaiting, session);
+            mWaiting = null;
+            game.mBlack.mGame = game.mRed.mGame = game;
+            game.mBlack.mColor = Board.Color.Black;
+            game.mRed.mColor = Board.Color.Red;
+            send(game.mBlack, "start " + game.mId + " black");
+            send(game.mRed, "start " + game.mId + " red");
+        }
+    }
+
+    /**
+     * Play a move of a session, validated by {@link Board#doTurn(int, int, int, int)}.
+     *
+     * @param session The session
+     * @param text    The text form of the move, e.g. {@code "a3a4"}
+     */
+    private void move(Session session, String text) {
+        Game game = session.mGame;
+        if (game == null) {
+            send(session, "error not in a game");
+            return;
+        }
+        Board board = game.mBoard;
+        if (session.mColor != board.getTurn()) {
+            send(session, "error not your turn");
+            return;
+        }
+        int from = (text.length() == 4) ? Board.parseSquare(text.substring(0, 2)) : -1;
+        int to = (text.length() == 4) ? Board.parseSquare(text.substring(2)) : -1;
+        if (from < 0 || to < 0 || !board.doTurn(Board.toRow(from), Board.toColumn(from),
+                Board.toRow(to), Board.toColumn(to))) {
+            send(session, "error illegal move " + text);
+            return;
+        }
+        send(game.mBlack, "move " + text);
+        send(game.mRed, "move " + text);
+        // the side to move now loses if the mover entered its den, took its last piece or left it no move
+        if (Engine.isLost(board) || board.generateMoves(mMoves) == 0)
+            end(game, session.mColor, "win");
+    }
+
+    /**
+     * End a game and tell both players.
+     *
+     * @param game   The game
+     * @param winner The side which won
+     * @param reason The reason of the end
+     */
+    private void end(Game game, Board.Color winner, String reason) {
+        String line = "end " + ((winner == Board.Color.Black) ? "black" : "red") + " " + reason;
+        for (Session player : new Session[]{game.mBlack, game.mRed}) {
+            player.mGame = null;
+            if (player.mKey.isValid()) send(player, line);
+        }
+    }
+
+    /**
+     * Queue a reply line to a session and write as much of it as the channel takes.
+     *
+     * @param session The session
+     * @param line    The reply line
+     */
+    private void send(Session session, String line) {
+        byte bytes[] = (line + "\n").getBytes(StandardCharsets.US_ASCII);
+        ByteBuffer out = session.mOut;
+        if (out == null) {
+            out = ByteBuffer.wrap(bytes);
+        } else if (out.remaining() + bytes.length > fMaxPending) {
+            disconnect(session);
+            return;
+        } else {
+            out = ByteBuffer.allocate(out.remaining() + bytes.length).put(out).put(bytes);
+            out.flip();
+        }
+        session.mOut = out;
+        flush(session);
+    }
+
+    /**
+     * Write the pending bytes of a session; select it for writing while some are left.
+     *
+     * @param session The session
+     */
+    private void flush(Session session) {
+        ByteBuffer out = session.mOut;
+        if (out == null) {
+            session.mKey.interestOps(SelectionKey.OP_READ);
+            return;
+        }
+        try {
+            session.mChannel.write(out);
+        } catch (IOException e) {
+            disconnect(session);
+            return;
+        }
+        if (out.hasRemaining()) {
+            session.mKey.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+        } else {
+            session.mOut = null;
+            session.mKey.interestOps(SelectionKey.OP_READ);
+        }
+    }
+
+    /**
+     * Close a session; its opponent, if any, wins the game.
+     *
+     * @param session The session
+     */
+    private void disconnect(Session session) {
+        if (!session.mKey.isValid()) return;
+        session.mKey.cancel();
+        try {
+            session.mChannel.close();
+        } catch (IOException e) {
+            // closed anyway
+        }
+        mSessionCount--;
+        if (mWaiting == session) mWaiting = null;
+        if (session.mGame != null) end(session.mGame, opposite(session.mColor), "disconnect");
+    }
+
+    /**
+     * Get the other side.
+     *
+     * @param color A side
+     * @return The other side.
+     */
+    private static Board.Color opposite(Board.Color color) {
+        return (color == Board.Color.Black) ? Board.Color.Red : Board.Color.Black;
+    }
+
+    /**
+     * Run a server from the command line until it is killed, see the usage above.
+     *
+     * @param args The command line arguments.
+     * @throws IOException if the port cannot be bound.
+     */
+    public static void main(String[] args) throws IOException {
+        int port = (args.length > 0) ? Integer.parseInt(args[0]) : fDefaultPort;
+        GameServer server = new GameServer(new InetSocketAddress(port));
+        server.start();
+        System.out.println("game server listening on port " + server.getPort());
+    }
+}
@@ -0,0 +1,191 @@
+//------------------------------------------------------------------------------
+//  File       : GameServerTest.java
+//  Course     : CSC610
+//  Date:      : 10/18/2026
+//  Author     : Jason Qiao Meng
+//  Author ID  : 10652564
+//  Description: This file contains unit tests against GameServer.java
+//------------------------------------------------------------------------------
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+
+/**
+ * A unit test class against class {@link GameServer}
+ */
+public class GameServerTest {
+
+    /**
+     * A blocking client of the server on loopback.
+     */
+    private class Client implements AutoCloseable {
+        /**
+         * The socket of the client
+         */
+        final Socket socket;
+        /**
+         * The reader of the replies
+         */
+        final BufferedReader in;
+        /**
+         * The writer of the commands
+         */
+        final PrintWriter out;
+
+        /**
+         * Connect to the server.
+         *
+         * @throws IOException if the server cannot be reached.
+         */
+        Client() throws IOException {
+            socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort());
+            socket.setSoTimeout(5000);
+            in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+            out = new PrintWriter(socket.getOutputStream(), true);
+        }
+
+        /**
+         * Send a command and read the reply.
+         *
+         * @param command The command line
+         * @return The first reply line.
+         * @throws IOException if the reply cannot be read.
+         */
+        String ask(String command) throws IOException {
+            out.println(command);
+            return in.readLine();
+        }
+
+        /**
+         * Close the connection.
+         *
+         * @throws IOException if the socket cannot be closed.
+         */
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+    }
+
+    /**
+     * The server under test
+     */
+    private GameServer server;
+
+
+    /**
+     * Start a server on any free loopback port.
+     *
+     * @throws Exception
+     */
+    @Before
+    public void setUp() throws Exception {
+        server = new GameServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        server.start();
+    }
+
+
+    /**
+     * Stop the server.
+     *
+     * @throws Exception
+     */
+    @After
+    public void tearDown() throws Exception {
+        server.close();
+    }
+
+
+    /**
+     * Test whether a game enforces the turn order, validates the moves and pushes them to both players.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testGame() throws Exception {
+        System.out.println("Test whether a game enforces the turns and pushes the moves");
+
+        String replies[] = new String[9];
+        try (Client black = new Client()) {
+            // red leaves in the middle of the game, so it is closed by hand rather than by the try
+            Client red = new Client();
+            try {
+                replies[0] = black.ask("join");
+                replies[1] = red.ask("join");
+                replies[2] = black.in.readLine();
+                replies[3] = red.ask("move a7a6");
+                replies[4] = black.ask("move a3a4");
+                replies[5] = red.in.readLine();
+                replies[6] = black.ask("move a4a5");
+                replies[7] = red.ask("move z9z9");
+            } finally {
+                red.close();
+            }
+            replies[8] = black.in.readLine();
+        }
+        for (String reply : replies) System.out.println(reply);
+
+        boolean actual = replies[0].equals("wait") && replies[1].equals("start 1 red") &&
+                replies[2].equals("start 1 black") && replies[3].equals("error not your turn") &&
+                replies[4].equals("move a3a4") && replies[5].equals("move a3a4") &&
+                replies[6].equals("error not your turn") && replies[7].equals("error illegal move z9z9") &&
+                replies[8].equals("end black disconnect");
+
+        String msg = "The game is played by the rules? Expected: %1$b, Actual: %2$b";
+        msg = String.format(msg, true, actual);
+        assertTrue(msg, actual);
+    }
+
+
+    /**
+     * Test whether many sessions are served at once and paired into games.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testManySessions() throws Exception {
+        System.out.println("Test whether many sessions are served at once");
+
+        final int sessions = 200;
+        List<Client> clients = new ArrayList<>();
+        try {
+            for (int i = 0; i < sessions; i++) clients.add(new Client());
+            boolean started = true;
+            for (int i = 0; i < sessions; i += 2) {
+                started &= clients.get(i).ask("join").equals("wait");
+                started &= clients.get(i + 1).ask("join").equals("start " + (i / 2 + 1) + " red");
+                started &= clients.get(i).in.readLine().equals("start " + (i / 2 + 1) + " black");
+            }
+            long start = System.nanoTime();
+            boolean moved = true;
+            for (int i = 0; i < sessions; i += 2) {
+                moved &= clients.get(i).ask("move g3g4").equals("move g3g4");
+                moved &= clients.get(i + 1).in.readLine().equals("move g3g4");
+            }
+            System.out.printf("%d sessions, %.1f us per move%n", server.getSessionCount(),
+                    (System.nanoTime() - start) / 1000.0 / (sessions / 2));
+
+            boolean actual = started && moved && server.getSessionCount() == sessions;
+            String msg = "All sessions are served? Expected: %1$b, Actual: %2$b";
+            msg = String.format(msg, true, actual);
+            assertTrue(msg, actual);
+        } finally {
+            for (Client client : clients) client.close();
+        }
+    }
+}
@@ -0,0 +1,608 @@
+//------------------------------------------------------------------------------
+//  File       : MonteCarloEngine.java
+//  Course     : DouShouQi
+//  Date:      : 10/18/2026
+//  Author     : Jason Qiao Meng
+//  Author ID  : 10652564
+//  Description: This file contains a computer player for DouShouQi game by
+//               Monte Carlo tree search (UCT).
+//------------------------------------------------------------------------------
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * A computer player which searches {@link Board} positions by Monte Carlo tree search with
+ * the UCT rule, as an alternative to the alpha-beta search of {@link Engine}.
+ * <pre>
+ *     Usage:
+ *         MonteCarloEngine engine = new MonteCarloEngine(4, 1 << 20);
+ *         Engine.Result result = engine.search(board, Engine.Limits.time(1000));
+ *         board.makeMove(result.move);
+ *
+ *     How it works:
+ *         1. Selection: from the root, the child with the best win rate plus
+ *            {@link #fExploration} * sqrt(ln(parent visits) / child visits) is taken, an unvisited
+ *            child first, until a node is reached which has not been expanded.
+ *         2. Expansion: a node visited before gets all its moves as children at once.
+ *         3. Playout: random moves from the node, at most {@link #fMaxPlayoutPlies} plies. A game which
+ *            is not over by then is scored by {@link Evaluation} as a win probability.
+ *         4. Backpropagation: every node on the way gets a visit and the result of its mover.
+ *
+ *     Threads (root parallel):
+ *         Every thread grows a tree of its own from the same root with its own random moves,
+ *         so the threads share nothing while searching. The visits and wins of the root moves
+ *         are summed over the trees at the end, and the move with the most visits is played.
+ *
+ *     Memory:
+ *         A tree is kept in arrays of a fixed number of nodes, which is the node limit given to
+ *         the constructor split among the threads. A full tree stops growing and the playouts go on
+ *         from its leaves. A playout walks the board of its tree by makeMove/unmakeMove, so nothing
+ *         is allocated per playout or per move.
+ *
+ *     Tree reuse:
+ *         A search looks for its position 1 or 2 plies below the root of the last search, i.e.
+ *         after the engine's move and the reply. If found, that subtree is moved to the front of
+ *         the arrays and the search goes on from it; otherwise the tree starts empty.
+ *
+ *     Note:
+ *         Scores are from the view of the side whose turn it is, in the units of
+ *         {@link Engine#fRankValues}: a win rate p is reported as 400 * log10(p / (1 - p)).
+ *         The nodes of a {@link Engine.Result} are the playouts, and the depth is the deepest
+ *         node selected.
+ * </pre>
+ */
+public class MonteCarloEngine implements AutoCloseable {
+
+    /**
+     * The weight of exploration in the UCT rule, sqrt(2)
+     */
+    static final double fExploration = Math.sqrt(2);
+    /**
+     * The maximum number of random moves of a playout
+     */
+    static final int fMaxPlayoutPlies = 64;
+    /**
+     * The score which a win rate of 10 to 1 is worth, see {@link #toProbability(int)}
+     */
+    private static final double fScoreScale = 400;
+    /**
+     * The number of playouts between 2 checks of the clock
+     */
+    private static final int fClockInterval = 256;
+
+    /**
+     * The trees; {@code mTrees[0]} is grown by the calling thread, the others by the helpers.
+     */
+    private final Tree mTrees[];
+    /**
+     * The helper threads, or {@code null} for a single-threaded search.
+     */
+    private final ExecutorService mHelpers;
+    /**
+     * Set to stop the running search.
+     */
+    private volatile boolean mStopped;
+    /**
+     * The nodes kept from the last search by the latest search, over all the trees
+     */
+    private long mKeptNodes;
+
+
+    /**
+     * A search tree of one thread, kept in parallel arrays indexed by node. The root is node 0,
+     * and the children of a node are a contiguous block of nodes, allocated after their parent.
+     */
+    static final class Tree {
+
+        /**
+         * The move into each node
+         */
+        private final int mMoves[];
+        /**
+         * The parent of each node, -1 for the root
+         */
+        private final int mParents[];
+        /**
+         * The first child of each node, -1 if the node is not expanded
+         */
+        private final int mFirstChildren[];
+        /**
+         * The number of children of each expanded node
+         */
+        private final byte mChildCounts[];
+        /**
+         * The visits of each node
+         */
+        private final int mVisits[];
+        /**
+         * The sum of the results of each node from the view of the side which moved into it,
+         * 1 for a win and 0 for a loss
+         */
+        private final double mWins[];
+        /**
+         * The new index of each node while the tree is moved to a new root
+         */
+        private final int mRemap[];
+        /**
+         * The number of nodes in use
+         */
+        private int mSize;
+        /**
+         * The root position of the last search, or {@code null}
+         */
+        private Board mRoot;
+        /**
+         * The board which the playouts walk, at the root position between playouts
+         */
+        private Board mBoard;
+        /**
+         * The buffer of the generated moves
+         */
+        private final int mBuffer[] = new int[Board.fMaxMoves];
+        /**
+         * The state of the random number generator
+         */
+        private long mSeed;
+        /**
+         * The number of playouts of the last search
+         */
+        private long mPlayouts;
+        /**
+         * The deepest node selected in the last search
+         */
+        private int mMaxDepth;
+
+        /**
+         * Create an empty tree.
+         *
+         * @param capacity The maximum number of nodes, at least {@link Board#fMaxMoves} + 1
+         * @param seed     The seed of the random moves
+         */
+        Tree(int capacity, long seed) {
+            mMoves = new int[capacity];
+            mParents = new int[capacity];
+            mFirstChildren = new int[capacity];
+            mChildCounts = new byte[capacity];
+            mVisits = new int[capacity];
+            mWins = new double[capacity];
+            mRemap = new int[capacity];
+            mSeed = seed;
+        }
+
+        /**
+         * Set the root to a position, keeping the subtree of the last search which has it.
+         *
+         * @param board The position
+         * @return The number of nodes kept.
+         */
+        int setRoot(Board board) {
+            int kept = -1;
+            if (mRoot != null && mSize > 0 && mFirstChildren[0] >= 0) {
+                if (mRoot.equals(board)) kept = 0;
+                for (int c = firstChild(0); kept < 0 && c < endChild(0); c++) {
+                    mRoot.makeMove(mMoves[c]);
+                    if (mRoot.equals(board)) kept = c;
+                    for (int g = firstChild(c); kept < 0 && g < endChild(c); g++) {
+                        mRoot.makeMove(mMoves[g]);
+                        if (mRoot.equals(board)) kept = g;
+                        mRoot.unmakeMove();
+                    }
+                    mRoot.unmakeMove();
+                }
+            }
+            mRoot = new Board(board);
+            mBoard = new Board(board);
+            if (kept < 0) {
+                mSize = 1;
+                mParents[0] = -1;
+                mFirstChildren[0] = -1;
+                mVisits[0] = 0;
+                mWins[0] = 0;
+                return 0;
+            }
+            if (kept > 0) reroot(kept);
+            return mSize;
+        }
+
+        /**
+         * Move the subtree of a node to the front of the arrays, the node becoming the root.
+         * Since a child comes after its parent, one pass in the order of the nodes finds the subtree
+         * and moves every node to an index no larger than its own.
+         *
+         * @param root The node of the new root
+         */
+        private void reroot(int root) {
+            int size = 0;
+            for (int i = 0; i < mSize; i++) {
+                boolean kept = (i == root) || (i > root && mParents[i] >= 0 && mRemap[mParents[i]] >= 0);
+                mRemap[i] = kept ? size++ : -1;
+            }
+            for (int i = root; i < mSize; i++) {
+                int to = mRemap[i];
+                if (to < 0) continue;
+                mMoves[to] = mMoves[i];
+                mParents[to] = (i == root) ? -1 : mRemap[mParents[i]];
+                mFirstChildren[to] = (mFirstChildren[i] < 0) ? -1 : mRemap[mFirstChildren[i]];
+                mChildCounts[to] = mChildCounts[i];
+                mVisits[to] = mVisits[i];
+                mWins[to] = mWins[i];
+            }
+            mSize = size;
+        }
+
+        /**
+         * Run playouts until the search is stopped, a number of playouts or a deadline, at least one.
+         *
+         * @param engine   The engine, to see whether the search is stopped
+         * @param playouts The number of playouts
+         * @param deadline The time to stop at, in milliseconds
+         */
+        void run(MonteCarloEngine engine, long playouts, long deadline) {
+            mPlayouts = 0;
+            mMaxDepth = 0;
+            // the first playout expands the root, so there is always a move to return
+            do {
+                runPlayout();
+                mPlayouts++;
+                if (mPlayouts % fClockInterval == 0 && System.currentTimeMillis() >= deadline) break;
+            } while (mPlayouts < playouts && !engine.mStopped);
+        }
+
+        /**
+         * Run one selection, expansion, playout and backpropagation.
+         */
+        private void runPlayout() {
+            Board board = mBoard;
+            int node = 0, depth = 0;
+            // the result from the view of the side whose turn it is at the last node
+            double result;
+            while (true) {
+                if (Engine.isLost(board)) {
+                    result = 0;
+                    break;
+                }
+                if (mFirstChildren[node] < 0 && (mVisits[node] == 0 && node != 0 || !expand(node))) {
+                    result = playout(board);
+                    break;
+                }
+                if (mChildCounts[node] == 0) {
+                    // no legal move: the side whose turn it is loses
+                    result = 0;
+                    break;
+                }
+                node = select(node);
+                board.makeMove(mMoves[node]);
+                depth++;
+                if (depth >= Engine.fMaxPly) {
+                    result = playout(board);
+                    break;
+                }
+            }
+            mMaxDepth = Math.max(mMaxDepth, depth);
+            for (; node >= 0; node = mParents[node]) {
+                mVisits[node]++;
+                mWins[node] += 1 - result;
+                result = 1 - result;
+            }
+            while (board.getUndoCount() > 0) board.unmakeMove();
+        }
+
+        /**
+         * Expand a node by all the moves of its position, unless the tree is full.
+         *
+         * @param node The node, whose position is on the board
+         * @return Returns {@code true} if the node is expanded; {@code false} if the tree is full.
+         */
+        private boolean expand(int node) {
+            int count = mBoard.generateMoves(mBuffer);
+            if (mSize + count > mMoves.length) return false;
+            for (int i = 0; i < count; i++) {
+                int child = mSize + i;
+                mMoves[child] = mBuffer[i];
+                mParents[child] = node;
+                mFirstChildren[child] = -1;
+                mVisits[child] = 0;
+                mWins[child] = 0;
+            }
+            mFirstChildren[node] = mSize;
+            mChildCounts[node] = (byte)count;
+            mSize += count;
+            return true;
+        }
+
+        /**
+         * Select the child of a node by the UCT rule.
+         *
+         * @param node An expanded node with children
+         * @return The child.
+         */
+        private int select(int node) {
+            double logVisits = Math.log(Math.max(1, mVisits[node]));
+            int best = -1;
+            double bestValue = Double.NEGATIVE_INFINITY;
+            for (int c = firstChild(node); c < endChild(node); c++) {
+                if (mVisits[c] == 0) return c;
+                double value = mWins[c] / mVisits[c] + fExploration * Math.sqrt(logVisits / mVisits[c]);
+                if (value > bestValue) {
+                    bestValue = value;
+                    best = c;
+                }
+            }
+            return best;
+        }
+
+        /**
+         * Play random moves until the game is over or {@link #fMaxPlayoutPlies} plies.
+         *
+         * @param board The board, which is left after the moves; the caller takes them back
+         * @return The result from the view of the side whose turn it is at the start:
+         * 1 for a win, 0 for a loss, or the win probability by {@link Evaluation}.
+         */
+        private double playout(Board board) {
+            boolean black = board.mBlacksTurn;
+            for (int ply = 0; ply < fMaxPlayoutPlies; ply++) {
+                if (Engine.isLost(board)) return (board.mBlacksTurn == black) ? 0 : 1;
+                int count = board.generateMoves(mBuffer);
+                if (count == 0) return (board.mBlacksTurn == black) ? 0 : 1;
+                board.makeMove(mBuffer[nextInt(count)]);
+            }
+            if (Engine.isLost(board)) return (board.mBlacksTurn == black) ? 0 : 1;
+            int score = board.getEvaluation().evaluate(board);
+            return toProbability(black ? -score : score);
+        }
+
+        /**
+         * Get a random number by the splitmix64 generator.
+         *
+         * @param bound The upper bound, exclusive
+         * @return A number from 0 to {@code bound - 1}.
+         */
+        private int nextInt(int bound) {
+            mSeed += 0x9e3779b97f4a7c15L;
+            return (int)(((Board.mix64(mSeed) >>> 32) * bound) >>> 32);
+        }
+
+        /**
+         * Get the first child of a node.
+         *
+         * @param node An expanded node
+         * @return The first child.
+         */
+        private int firstChild(int node) {
+            return mFirstChildren[node];
+        }
+
+        /**
+         * Get the index after the last child of a node.
+         *
+         * @param node A node
+         * @return The index after the last child, or {@link #firstChild(int)} if there is none.
+         */
+        private int endChild(int node) {
+            return (mFirstChildren[node] < 0) ? mFirstChildren[node] : mFirstChildren[node] + mChildCounts[node];
+        }
+    }
+
+
+    /**
+     * Create an engine.
+     *
+     * @param threads  The number of search threads including the calling thread, at least 1.
+     * @param maxNodes The maximum number of nodes of all the trees together.
+     */
+    public MonteCarloEngine(int threads, int maxNodes) {
+        if (threads < 1)
+            throw new IllegalArgumentException("A search needs at least 1 thread");
+        if (maxNodes / threads <= Board.fMaxMoves)
+            throw new IllegalArgumentException("A tree needs more than " + Board.fMaxMoves + " nodes per thread");
+        mTrees = new Tree[threads];
+        for (int i = 0; i < threads; i++)
+            mTrees[i] = new Tree(maxNodes / threads, Board.mix64(i + 1));
+        mHelpers = (threads == 1) ? null : Executors.newFixedThreadPool(threads - 1, r -> {
+            Thread t = new Thread(r, "mcts-helper");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Ask the running search, if any, to stop as soon as possible.
+     */
+    public void stop() {
+        mStopped = true;
+    }
+
+    /**
+     * Clear a pending {@link #stop()} before a search is started by {@link #play(Board, Engine.Limits)}.
+     */
+    void clearStop() {
+        mStopped = false;
+    }
+
+    /**
+     * Search the best move of the side whose turn it is. The depth of the limits is not used;
+     * with no node or time limit the search goes on until {@link #stop()}.
+     *
+     * @param board  The board to search, which is left as it was.
+     * @param limits The limits of the search; the node limit is the number of playouts of all threads.
+     * @return The {@link Engine.Result}, with {@link Board#fNoMove} if the game is over.
+     */
+    public Engine.Result search(Board board, Engine.Limits limits) {
+        clearStop();
+        return play(board, limits);
+    }
+
+    /**
+     * Search the best move of the side whose turn it is, see {@link #search(Board, Engine.Limits)}.
+     * Unlike it, a pending {@link #stop()} is not cleared, so that a search handed to another thread
+     * is stopped by a stop which comes before the thread starts it; the caller clears it first,
+     * see {@link #clearStop()}.
+     *
+     * @param board  The board to search, which is left as it was.
+     * @param limits The limits of the search; the node limit is the number of playouts of all threads.
+     * @return The {@link Engine.Result}, with {@link Board#fNoMove} if the game is over.
+     */
+    Engine.Result play(Board board, Engine.Limits limits) {
+        long start = System.currentTimeMillis();
+        if (Engine.isLost(board) || board.generateMoves(mTrees[0].mBuffer) == 0)
+            return new Engine.Result(Board.fNoMove, -Engine.fWinScore, 0, 0, 0, new int[0]);
+        long deadline = (limits.millis > 0) ? start + limits.millis : Long.MAX_VALUE;
+        long playouts = (limits.nodes > 0) ? (limits.nodes + mTrees.length - 1) / mTrees.length : Long.MAX_VALUE;
+
+        mKeptNodes = 0;
+        for (Tree tree : mTrees) mKeptNodes += tree.setRoot(board);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 1; i < mTrees.length; i++) {
+            final Tree tree = mTrees[i];
+            futures.add(mHelpers.submit(() -> tree.run(this, playouts, deadline)));
+        }
+        boolean finished = false;
+        Throwable failure;
+        try {
+            mTrees[0].run(this, playouts, deadline);
+            finished = true;
+        } finally {
+            // the helpers run to their own limits, but with none they run until they are stopped
+            if (!finished) stop();
+            failure = joinHelpers(futures);
+        }
+        if (failure != null) throw new IllegalStateException("A search thread failed", failure);
+        return getResult(System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Wait until every helper is done, even on an interrupt,
+     * or it would still grow its tree while the next search sets the root.
+     *
+     * @param futures The futures of the helpers
+     * @return The failure of the first helper which failed, or {@code null}.
+     */
+    private Throwable joinHelpers(List<Future<?>> futures) {
+        boolean interrupted = false;
+        Throwable failure = null;
+        for (Future<?> future : futures) {
+            while (true) {
+                try {
+                    future.get();
+                    break;
+                } catch (InterruptedException e) {
+                    // a helper with no limit runs until it is stopped
+                    interrupted = true;
+                    stop();
+                } catch (ExecutionException e) {
+                    if (failure == null) failure = e.getCause();
+                    break;
+                }
+            }
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+        return failure;
+    }
+
+    /**
+     * Get the number of nodes in the trees, e.g. kept from the last search.
+     *
+     * @return The number of nodes of all the trees.
+     */
+    public long getNodeCount() {
+        long count = 0;
+        for (Tree tree : mTrees) count += tree.mSize;
+        return count;
+    }
+
+    /**
+     * Get the number of nodes which the latest search kept from the search before.
+     *
+     * @return The number of nodes kept, over all the trees.
+     */
+    public long getKeptNodes() {
+        return mKeptNodes;
+    }
+
+    /**
+     * Stop the helper threads.
+     */
+    @Override
+    public void close() {
+        if (mHelpers != null) mHelpers.shutdownNow();
+    }
+
+    /**
+     * Sum the visits and wins of the root moves over the trees and pick the most visited move.
+     *
+     * @param millis The time of the search
+     * @return The result.
+     */
+    private Engine.Result getResult(long millis) {
+        Tree main = mTrees[0];
+        int best = -1;
+        long bestVisits = -1, playouts = 0;
+        double bestWins = 0;
+        int depth = 0;
+        for (Tree tree : mTrees) {
+            playouts += tree.mPlayouts;
+            depth = Math.max(depth, tree.mMaxDepth);
+        }
+        for (int c = main.firstChild(0); c < main.endChild(0); c++) {
+            long visits = 0;
+            double wins = 0;
+            for (Tree tree : mTrees) {
+                for (int d = tree.firstChild(0); d < tree.endChild(0); d++) {
+                    if (tree.mMoves[d] != main.mMoves[c]) continue;
+                    visits += tree.mVisits[d];
+                    wins += tree.mWins[d];
+                }
+            }
+            if (visits > bestVisits) {
+                best = c;
+                bestVisits = visits;
+                bestWins = wins;
+            }
+        }
+
+        // the rest of the line by the most visited children of the main tree
+        List<Integer> line = new ArrayList<>();
+        for (int node = best; node >= 0 && main.mVisits[node] > 0; ) {
+            line.add(main.mMoves[node]);
+            int next = -1;
+            for (int c = main.firstChild(node); c < main.endChild(node); c++) {
+                if (next < 0 || main.mVisits[c] > main.mVisits[next]) next = c;
+            }
+            node = next;
+        }
+        int pv[] = new int[line.size()];
+        for (int i = 0; i < pv.length; i++) pv[i] = line.get(i);
+        int score = toScore(bestWins / Math.max(1, bestVisits));
+        return new Engine.Result(main.mMoves[best], score, depth, playouts, millis, pv);
+    }
+
+    /**
+     * Convert a score to a win probability, 1 / (1 + 10^(-score / 400)).
+     *
+     * @param score The score from the view of a side
+     * @return The probability that the side wins.
+     */
+    static double toProbability(int score) {
+        return 1 / (1 + Math.pow(10, -score / fScoreScale));
+    }
+
+    /**
+     * Convert a win probability to a score, the inverse of {@link #toProbability(int)},
+     * within the scores of {@link Engine} which are not wins.
+     *
+     * @param probability The probability that a side wins
+     * @return The score from the view of the side.
+     */
+    static int toScore(double probability) {
+        int limit = Engine.fMinWinScore - 1;
+        if (probability <= 0) return -limit;
+        if (probability >= 1) return limit;
+        double score = fScoreScale * Math.log10(probability / (1 - probability));
+        return (int)Math.max(-limit, Math.min(limit, Math.round(score)));
+    }
+}
@@ -0,0 +1,156 @@
+//------------------------------------------------------------------------------
+//  File       : MonteCarloEngineTest.java
+//  Course     : CSC610
+//  Date:      : 10/18/2026
+//  Author     : Jason Qiao Meng
+//  Author ID  : 10652564
+//  Description: This file contains unit tests against MonteCarloEngine.java
+//------------------------------------------------------------------------------
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+
+/**
+ * A unit test class against class {@link MonteCarloEngine}
+ */
+public class MonteCarloEngineTest {
+
+    /**
+     * Test whether the search finds a den entry in one move, with 1 thread and with 2.
+     */
+    @Test
+    public void testWinInOne() {
+        System.out.println("Test whether the Monte Carlo search enters the den");
+
+        int squares[] = new int[Board.bElephant + 1];
+        Arrays.fill(squares, -1);
+        // the black lion on the trap at (1, 3) next to the red den at (0, 3), the red elephant far away
+        squares[Board.bLion] = 10;
+        squares[Board.bCat] = 44;
+        squares[Board.rElephant] = 48;
+        squares[Board.rDog] = 56;
+        Board board = new Board(squares, true);
+        int win = Board.packMove(10, 3, Board.bLion, Board.rbNone);
+
+        boolean actual = true;
+        for (int threads = 1; threads <= 2; threads++) {
+            try (MonteCarloEngine engine = new MonteCarloEngine(threads, 1 << 16)) {
+                Engine.Result result = engine.search(board, Engine.Limits.nodes(2000));
+                System.out.println(threads + " threads: " + result);
+                actual &= result.move == win && result.nodes >= 2000 && result.score > 0;
+            }
+        }
+
+        String msg = "The den is entered? Expected: %1$b, Actual: %2$b";
+        msg = String.format(msg, true, actual);
+        assertTrue(msg, actual);
+    }
+
+
+    /**
+     * Test whether the trees keep within the node limit and the search still returns a legal move,
+     * and whether the tree of a search is reused after a move and a reply.
+     */
+    @Test
+    public void testNodeLimitAndReuse() {
+        System.out.println("Test the node limit and the reuse of the tree");
+
+        Board board = new Board();
+        int moves[] = new int[Board.fMaxMoves];
+        boolean limited, reused, fresh;
+        try (MonteCarloEngine engine = new MonteCarloEngine(2, 400)) {
+            Engine.Result result = engine.search(board, Engine.Limits.nodes(5000));
+            int count = board.generateMoves(moves);
+            limited = engine.getNodeCount() <= 400 && result.nodes >= 5000 &&
+                    Arrays.stream(moves, 0, count).anyMatch(m -> m == result.move);
+            System.out.println("limited: " + result + ", tree " + engine.getNodeCount());
+        }
+        try (MonteCarloEngine engine = new MonteCarloEngine(1, 1 << 16)) {
+            Engine.Result result = engine.search(board, Engine.Limits.nodes(10000));
+            board.makeMove(result.move);
+            board.makeMove(result.pv[1]);
+            engine.search(board, Engine.Limits.nodes(100));
+            // more than the children of the new root, i.e. a subtree which has grown below them
+            reused = engine.getKeptNodes() > Board.fMaxMoves;
+            System.out.println("kept " + engine.getKeptNodes() + " of " + result.nodes);
+            // a position which is not in the tree starts it over
+            int squares[] = new int[Board.bElephant + 1];
+            Arrays.fill(squares, -1);
+            squares[Board.rLion] = 0;
+            squares[Board.bLion] = 62;
+            engine.search(new Board(squares, true), Engine.Limits.nodes(100));
+            fresh = engine.getKeptNodes() == 0;
+        }
+
+        boolean actual = limited && reused && fresh;
+        String msg = "The node limit holds and the tree is reused? Expected: %1$b, Actual: %2$b";
+        msg = String.format(msg, true, actual);
+        assertTrue(msg, actual);
+    }
+
+
+    /**
+     * Test whether a stop which comes after the search is handed to a thread, but before the thread
+     * starts it, still stops a search with no limit.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testEarlyStop() throws Exception {
+        System.out.println("Test whether a stop before the search starts is kept");
+
+        try (MonteCarloEngine engine = new MonteCarloEngine(2, 1 << 16)) {
+            Board board = new Board();
+            Engine.Result results[] = new Engine.Result[1];
+            engine.clearStop();
+            Thread search = new Thread(() -> results[0] = engine.play(board, new Engine.Limits(0, 0, 0)));
+            engine.stop();
+            search.start();
+            search.join(10000);
+            boolean stopped = !search.isAlive();
+            if (!stopped) {
+                engine.stop();
+                search.join();
+            }
+            System.out.println("stopped: " + stopped + ", " + results[0]);
+
+            boolean actual = stopped && results[0].move != Board.fNoMove;
+            String msg = "The early stop is kept? Expected: %1$b, Actual: %2$b";
+            msg = String.format(msg, true, actual);
+            assertTrue(msg, actual);
+        }
+    }
+
+
+    /**
+     * Test whether the playouts allocate nothing: a search of many playouts allocates about as much
+     * as one of a few, i.e. only the copies of the root board and the result.
+     */
+    @Test
+    public void testNoAllocation() {
+        System.out.println("Test whether the playouts allocate nothing");
+
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (!(bean instanceof com.sun.management.ThreadMXBean)) return;
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean)bean;
+        long thread = Thread.currentThread().getId();
+        try (MonteCarloEngine engine = new MonteCarloEngine(1, 1 << 16)) {
+            Board board = new Board();
+            engine.search(board, Engine.Limits.nodes(1000));
+            long before = threads.getThreadAllocatedBytes(thread);
+            Engine.Result result = engine.search(board, Engine.Limits.nodes(20000));
+            long allocated = threads.getThreadAllocatedBytes(thread) - before;
+            System.out.println(result + ", allocated " + allocated + " bytes");
+
+            boolean actual = allocated < 64 * 1024;
+            String msg = "The playouts allocate nothing? Expected: %1$b, Actual: %2$b";
+            msg = String.format(msg, true, actual);
+            assertTrue(msg, actual);
+        }
+    }
+}
@@ -0,0 +1,206 @@
+//------------------------------------------------------------------------------
+//  File       : MoveOrdering.java
+//  Course     : DouShouQi
+//  Date:      : 10/18/2026
+//  Author     : Jason Qiao Meng
+//  Author ID  : 10652564
+//  Description: This file contains the move ordering heuristics of the engine:
+//               rank-based MVV-LVA, killer moves and a history table.
+//------------------------------------------------------------------------------
+
+import java.util.Arrays;
+
+/**
+ * The order in which a search tries the moves of a position, best guesses first.
+ * <pre>
+ *     Order:
+ *         1. The best move of the transposition table
+ *         2. A move into the enemy den, which wins at once
+ *         3. Captures by MVV-LVA: the bigger the victim and the smaller the attacker, the earlier.
+ *            A rat taking an elephant counts as the smallest attacker, below rank 1,
+ *            since the elephant can never take it back. A capture on a trap leaves the attacker
+ *            in the trap, where any piece may take it back, so the victim counts there
+ *            only by how much it outranks the attacker.
+ *         4. The 2 killer moves of the ply, quiet moves which caused a cutoff at the same ply
+ *         5. The other quiet moves by the history table, i.e. how often and how deep
+ *            the same from/to squares caused a cutoff anywhere in the tree
+ *
+ *     Note:
+ *         An ordering belongs to one engine (thread); it is not thread-safe.
+ * </pre>
+ */
+public class MoveOrdering {
+
+    /**
+     * The order score of the move of the transposition table
+     */
+    private static final int fTableMoveScore = Integer.MAX_VALUE;
+    /**
+     * The order score of a move into the enemy den
+     */
+    private static final int fDenScore = 1 << 30;
+    /**
+     * The order score of the weakest capture; captures score from here to {@link #fDenScore}.
+     */
+    private static final int fCaptureScore = 1 << 29;
+    /**
+     * The order score of the first killer move; the second scores 1 less.
+     */
+    private static final int fKillerScore = 1 << 28;
+    /**
+     * The limit of a history score, below {@link #fKillerScore}; the table is halved when it is reached.
+     */
+    private static final int fMaxHistory = 1 << 24;
+    /**
+     * The MVV-LVA scores of the captures off the traps indexed by {@code attacker * (bElephant + 1) + victim}
+     */
+    private static final int[] fCaptureScores = buildCaptureScores(false);
+    /**
+     * The MVV-LVA scores of the captures on the traps indexed by {@code attacker * (bElephant + 1) + victim}
+     */
+    private static final int[] fTrapCaptureScores = buildCaptureScores(true);
+
+    /**
+     * The 2 killer moves indexed by ply
+     */
+    private final int mKillers[][] = new int[Engine.fMaxPly][2];
+    /**
+     * The history scores of the quiet moves indexed by {@code from * fCells + to}
+     */
+    private final int mHistory[] = new int[Board.fCells * Board.fCells];
+    /**
+     * The order scores of the moves being sorted
+     */
+    private final int mScores[] = new int[Board.fMaxMoves];
+
+
+    /**
+     * Prepare for a new search: the killers are forgotten and the history ages by half.
+     */
+    public void newSearch() {
+        for (int[] killers : mKillers) Arrays.fill(killers, Board.fNoMove);
+        for (int i = 0; i < mHistory.length; i++) mHistory[i] >>= 1;
+    }
+
+    /**
+     * Forget the killers and the history, e.g. before a new game.
+     */
+    public void clear() {
+        for (int[] killers : mKillers) Arrays.fill(killers, Board.fNoMove);
+        Arrays.fill(mHistory, 0);
+    }
+
+    /**
+     * Sort the moves of a position, best guesses first.
+     *
+     * @param moves     The moves
+     * @param count     The number of moves
+     * @param tableMove The best move of the transposition table, or {@link Board#fNoMove}
+     * @param ply       The distance of the position from the root
+     */
+    public void order(int[] moves, int count, int tableMove, int ply) {
+        for (int i = 0; i < count; i++) mScores[i] = score(moves[i], tableMove, ply);
+        // insertion sort, stable for the moves of equal scores
+        for (int i = 1; i < count; i++) {
+            int move = moves[i], score = mScores[i];
+            int j = i - 1;
+            while (j >= 0 && mScores[j] < score) {
+                moves[j + 1] = moves[j];
+                mScores[j + 1] = mScores[j];
+                j--;
+            }
+            moves[j + 1] = move;
+            mScores[j + 1] = score;
+        }
+    }
+
+    /**
+     * Learn from a beta cutoff: a quiet cutoff move becomes a killer of the ply and gains history,
+     * while the quiet moves tried before it lose history.
+     *
+     * @param moves The moves of the position in the order they were tried
+     * @param index The index of the cutoff move
+     * @param depth The remaining depth of the position
+     * @param ply   The distance of the position from the root
+     */
+    public void onCutoff(int[] moves, int index, int depth, int ply) {
+        int move = moves[index];
+        if (Board.moveCaptured(move) != Board.rbNone) return;
+        int killers[] = mKillers[ply];
+        if (killers[0] != move) {
+            killers[1] = killers[0];
+            killers[0] = move;
+        }
+        int bonus = depth * depth;
+        for (int i = 0; i < index; i++)
+            if (Board.moveCaptured(moves[i]) == Board.rbNone) addHistory(moves[i], -bonus);
+        addHistory(move, bonus);
+    }
+
+    /**
+     * Get the order score of a move.
+     *
+     * @param move      A packed move
+     * @param tableMove The best move of the transposition table
+     * @param ply       The distance of the position from the root
+     * @return A bigger value for a move to be tried earlier.
+     */
+    int score(int move, int tableMove, int ply) {
+        if (move == tableMove) return fTableMoveScore;
+        int piece = Board.movePiece(move), to = Board.moveTo(move);
+        long enemyDen = (piece > Board.rElephant) ? Board.fRedDenBits : Board.fBlackDenBits;
+        if ((enemyDen & (1L << to)) != 0) return fDenScore;
+        int captured = Board.moveCaptured(move);
+        if (captured != Board.rbNone) {
+            int scores[] = ((Board.fTrapBits & (1L << to)) != 0) ? fTrapCaptureScores : fCaptureScores;
+            return scores[piece * (Board.bElephant + 1) + captured];
+        }
+        if (move == mKillers[ply][0]) return fKillerScore;
+        if (move == mKillers[ply][1]) return fKillerScore - 1;
+        return mHistory[Board.moveFrom(move) * Board.fCells + to];
+    }
+
+    /**
+     * Add to the history score of a quiet move, halving the table when a score gets too big.
+     *
+     * @param move  A packed move
+     * @param bonus The amount to add, which may be negative
+     */
+    private void addHistory(int move, int bonus) {
+        int i = Board.moveFrom(move) * Board.fCells + Board.moveTo(move);
+        mHistory[i] += bonus;
+        if (Math.abs(mHistory[i]) >= fMaxHistory)
+            for (int j = 0; j < mHistory.length; j++) mHistory[j] >>= 1;
+    }
+
+    /**
+     * Build the MVV-LVA scores of all pairs of pieces, see {@link #fCaptureScores}.
+     *
+     * @param onTrap Whether the captures are on a trap, where the attacker may be taken back by any piece
+     * @return The scores.
+     */
+    private static int[] buildCaptureScores(boolean onTrap) {
+        int scores[] = new int[(Board.bElephant + 1) * (Board.bElephant + 1)];
+        for (int attacker = Board.rRat; attacker <= Board.bElephant; attacker++) {
+            for (int victim = Board.rRat; victim <= Board.bElephant; victim++) {
+                int attackerRank = toRank(attacker), victimRank = toRank(victim);
+                // the rat is the one piece an elephant can never take back
+                if (attackerRank == Board.rRat && victimRank == Board.rElephant) attackerRank = 0;
+                if (onTrap) victimRank = Math.max(victimRank - attackerRank, 0);
+                scores[attacker * (Board.bElephant + 1) + victim] =
+                        fCaptureScore + victimRank * (Board.rElephant + 1) + (Board.rElephant - attackerRank);
+            }
+        }
+        return scores;
+    }
+
+    /**
+     * Get the rank of a piece, rat 1 to elephant 8.
+     *
+     * @param p A piece other than {@link Board#rbNone}
+     * @return The rank.
+     */
+    private static int toRank(int p) {
+        return (p - 1) % Board.rElephant + 1;
+    }
+}
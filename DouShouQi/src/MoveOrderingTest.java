@@ -0,0 +1,83 @@
+//------------------------------------------------------------------------------
+//  File       : MoveOrderingTest.java
+//  Course     : CSC610
+//  Date:      : 10/18/2026
+//  Author     : Jason Qiao Meng
+//  Author ID  : 10652564
+//  Description: This file contains unit tests against MoveOrdering.java
+//------------------------------------------------------------------------------
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+
+/**
+ * A unit test class against class {@link MoveOrdering}
+ */
+public class MoveOrderingTest {
+
+    /**
+     * Test the order of the table move, a den entry and captures by MVV-LVA with their special cases.
+     */
+    @Test
+    public void testCaptureOrder() {
+        System.out.println("Test the order of the table move, den entries and captures");
+
+        int quiet = Board.packMove(42, 35, Board.bDog, Board.rbNone);
+        int tableMove = Board.packMove(48, 41, Board.bWolf, Board.rbNone);
+        int den = Board.packMove(10, 3, Board.bLion, Board.rbNone);
+        int ratTakesElephant = Board.packMove(43, 42, Board.bRat, Board.rElephant);
+        int catTakesDog = Board.packMove(46, 47, Board.bCat, Board.rDog);
+        int elephantTakesCat = Board.packMove(44, 45, Board.bElephant, Board.rCat);
+        // on the trap at (7, 3) the attackers may be taken back by any piece
+        int ratTakesTrappedCat = Board.packMove(51, 52, Board.rRat, Board.bCat);
+        int elephantTakesTrappedTiger = Board.packMove(45, 52, Board.rElephant, Board.bTiger);
+        int expected[] = {tableMove, den, ratTakesElephant, catTakesDog, elephantTakesCat,
+                ratTakesTrappedCat, elephantTakesTrappedTiger, quiet};
+
+        int moves[] = {quiet, elephantTakesTrappedTiger, catTakesDog, ratTakesTrappedCat, den,
+                elephantTakesCat, tableMove, ratTakesElephant};
+        new MoveOrdering().order(moves, moves.length, tableMove, 0);
+        for (int move : moves) System.out.print(Board.moveToString(move) + " ");
+        System.out.println();
+
+        boolean actual = Arrays.equals(moves, expected);
+        String msg = "The moves are in order? Expected: %1$b, Actual: %2$b";
+        msg = String.format(msg, true, actual);
+        assertTrue(msg, actual);
+    }
+
+
+    /**
+     * Test whether a quiet cutoff move becomes a killer of its ply and gains history elsewhere.
+     */
+    @Test
+    public void testKillersAndHistory() {
+        System.out.println("Test whether a cutoff move becomes a killer and gains history");
+
+        MoveOrdering ordering = new MoveOrdering();
+        int first = Board.packMove(42, 35, Board.bDog, Board.rbNone);
+        int cutoff = Board.packMove(48, 41, Board.bWolf, Board.rbNone);
+        int capture = Board.packMove(46, 47, Board.bCat, Board.rDog);
+        int tried[] = {capture, first, cutoff};
+        ordering.onCutoff(tried, 2, 4, 3);
+
+        int atPly3[] = {capture, first, cutoff}, atPly2[] = {first, cutoff};
+        ordering.order(atPly3, atPly3.length, Board.fNoMove, 3);
+        ordering.order(atPly2, atPly2.length, Board.fNoMove, 2);
+        boolean learned = atPly3[1] == cutoff && atPly2[0] == cutoff &&
+                ordering.score(cutoff, Board.fNoMove, 3) > ordering.score(cutoff, Board.fNoMove, 2);
+        // a new search forgets the killers but keeps half of the history
+        ordering.newSearch();
+        boolean aged = ordering.score(cutoff, Board.fNoMove, 3) == ordering.score(cutoff, Board.fNoMove, 2) &&
+                ordering.score(cutoff, Board.fNoMove, 2) > ordering.score(first, Board.fNoMove, 2);
+
+        boolean actual = learned && aged;
+        String msg = "The killers and history are learned? Expected: %1$b, Actual: %2$b";
+        msg = String.format(msg, true, actual);
+        assertTrue(msg, actual);
+    }
+}
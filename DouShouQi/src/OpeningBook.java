@@ -0,0 +1,362 @@
+//------------------------------------------------------------------------------
+//  File       : OpeningBook.java
+//  Course     : DouShouQi
+//  Date:      : 10/18/2026
+//  Author     : Jason Qiao Meng
+//  Author ID  : 10652564
+//  Description: This file contains the memory-mapped opening book of DouShouQi
+//               and its builder.
+//------------------------------------------------------------------------------
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * An opening book: the moves played in the positions of recorded games, read from a memory-mapped file.
+ * <pre>
+ *     File:
+ *         A header of {@link #fHeaderSize} bytes, then records of {@link #fRecordSize} bytes
+ *         sorted by key (as signed longs), the records of a key by weight, heaviest first:
+ *
+ *         bytes  0 -  7: the Zobrist key of the position, see Board.zobristKey()
+ *         bytes  8 - 11: the move packed by Board.packMove()
+ *         bytes 12 - 13: the weight, i.e. the number of games in which the move was played (unsigned)
+ *         bytes 14 - 15: the score of the move, the percentage of points the mover got in those games
+ *
+ *     Usage:
+ *         java OpeningBook build games.txt book.dsb [plies N] [min W]
+ *         java OpeningBook probe book.dsb [moves a3a4 ...]
+ *
+ *     Note:
+ *         Opening a book maps the file and reads nothing else. Lookups are binary searches
+ *         on the mapped file and allocate nothing.
+ * </pre>
+ */
+public class OpeningBook {
+
+    /**
+     * The size of a record in bytes
+     */
+    static final int fRecordSize = 16;
+    /**
+     * The size of the header in bytes: magic, version, number of records and a reserved int
+     */
+    static final int fHeaderSize = 16;
+    /**
+     * The magic number at the start of a file, "DSOB"
+     */
+    static final int fMagic = 0x44534f42;
+    /**
+     * The version of the file format
+     */
+    static final int fVersion = 1;
+
+    /**
+     * The mapped file
+     */
+    private final MappedByteBuffer mBuffer;
+    /**
+     * The number of records
+     */
+    private final int mSize;
+
+
+    /**
+     * Open a book by mapping its file.
+     *
+     * @param file The file of the book
+     * @throws IOException if the file cannot be read or is not a book.
+     */
+    public OpeningBook(File file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+             FileChannel channel = raf.getChannel()) {
+            // the mapping stays valid after the channel is closed
+            mBuffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (mBuffer.capacity() < fHeaderSize || mBuffer.getInt(0) != fMagic || mBuffer.getInt(4) != fVersion)
+            throw new IOException("Not an opening book: " + file);
+        mSize = mBuffer.getInt(8);
+        if ((long)mSize * fRecordSize + fHeaderSize != mBuffer.capacity())
+            throw new IOException("Truncated opening book: " + file);
+    }
+
+    /**
+     * Get the number of records of the book.
+     *
+     * @return The number of records.
+     */
+    public int size() {
+        return mSize;
+    }
+
+    /**
+     * Look up the moves of a position, heaviest first.
+     *
+     * @param key     The Zobrist key of the position
+     * @param moves   A buffer for the moves, of {@link Board#fMaxMoves} elements
+     * @param weights A buffer for the weights of the moves, or {@code null}
+     * @param scores  A buffer for the scores of the moves, or {@code null}
+     * @return The number of moves found.
+     */
+    public int probe(long key, int[] moves, int[] weights, int[] scores) {
+        int count = 0;
+        for (int i = lowerBound(key); i < mSize && getKey(i) == key && count < moves.length; i++) {
+            moves[count] = getMove(i);
+            if (weights != null) weights[count] = getWeight(i);
+            if (scores != null) scores[count] = getScore(i);
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Pick a book move of a position at random, in proportion to the weights.
+     * A move which is not legal on the board, after a collision of keys, is never picked.
+     *
+     * @param board  The board of the position
+     * @param random The random number generator
+     * @return A packed move, or {@link Board#fNoMove} if the position is not in the book.
+     */
+    public int pickMove(Board board, Random random) {
+        long key = board.zobristKey();
+        int first = lowerBound(key);
+        long total = 0;
+        for (int i = first; i < mSize && getKey(i) == key; i++)
+            if (isLegal(board, getMove(i))) total += getWeight(i);
+        if (total == 0) return Board.fNoMove;
+        long pick = (long)(random.nextDouble() * total);
+        for (int i = first; ; i++) {
+            if (!isLegal(board, getMove(i))) continue;
+            pick -= getWeight(i);
+            if (pick < 0) return getMove(i);
+        }
+    }
+
+    /**
+     * Get the heaviest legal book move of a position.
+     *
+     * @param board The board of the position
+     * @return A packed move, or {@link Board#fNoMove} if the position is not in the book.
+     */
+    public int getBestMove(Board board) {
+        long key = board.zobristKey();
+        for (int i = lowerBound(key); i < mSize && getKey(i) == key; i++)
+            if (isLegal(board, getMove(i))) return getMove(i);
+        return Board.fNoMove;
+    }
+
+    /**
+     * Test whether a book move can be played on a board.
+     *
+     * @param board The board
+     * @param move  A packed move
+     * @return Returns {@code true} if it is a legal move of the side to move; {@code false} otherwise.
+     */
+    private static boolean isLegal(Board board, int move) {
+        int from = Board.moveFrom(move), to = Board.moveTo(move);
+        int fr = Board.toRow(from), fc = Board.toColumn(from);
+        return board.getPiece(fr, fc) == Board.movePiece(move) &&
+                board.getColor(fr, fc) == (board.mBlacksTurn ? Board.Color.Black : Board.Color.Red) &&
+                board.isValidMove(fr, fc, Board.toRow(to), Board.toColumn(to));
+    }
+
+    /**
+     * Find the first record whose key is not less than a key.
+     *
+     * @param key The key
+     * @return The index of the record, or {@link #size()} if there is none.
+     */
+    private int lowerBound(long key) {
+        int low = 0, high = mSize;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (getKey(mid) < key) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+
+    /**
+     * Get the key of a record.
+     *
+     * @param i The index of the record
+     * @return The key.
+     */
+    private long getKey(int i) {
+        return mBuffer.getLong(fHeaderSize + i * fRecordSize);
+    }
+
+    /**
+     * Get the move of a record.
+     *
+     * @param i The index of the record
+     * @return The packed move.
+     */
+    private int getMove(int i) {
+        return mBuffer.getInt(fHeaderSize + i * fRecordSize + 8);
+    }
+
+    /**
+     * Get the weight of a record.
+     *
+     * @param i The index of the record
+     * @return The weight.
+     */
+    private int getWeight(int i) {
+        return mBuffer.getChar(fHeaderSize + i * fRecordSize + 12);
+    }
+
+    /**
+     * Get the score of a record.
+     *
+     * @param i The index of the record
+     * @return The score.
+     */
+    private int getScore(int i) {
+        return mBuffer.getShort(fHeaderSize + i * fRecordSize + 14);
+    }
+
+    /**
+     * A builder which collects the moves of recorded games and writes them as a book.
+     */
+    public static class Builder {
+        /**
+         * The number of plies of a game which are put into the book
+         */
+        private final int mMaxPly;
+        /**
+         * The statistics of the moves by position key and move:
+         * the number of games and the half points the mover got in them.
+         */
+        private final Map<Long, Map<Integer, long[]>> mPositions = new HashMap<>();
+
+        /**
+         * Create a builder.
+         *
+         * @param maxPly The number of plies of a game which are put into the book
+         */
+        public Builder(int maxPly) {
+            if (maxPly < 1)
+                throw new IllegalArgumentException("A book needs at least 1 ply of every game");
+            mMaxPly = maxPly;
+        }
+
+        /**
+         * Add the first plies of a game.
+         *
+         * @param game The record of the game
+         */
+        public void add(GameRecord game) {
+            Board board = new Board();
+            for (int ply = 0; ply < game.getLength() && ply < mMaxPly; ply++) {
+                int move = game.getMove(ply);
+                // a draw is a half point, a win 2 half points
+                int mover = board.mBlacksTurn ? GameRecord.fBlackWins : GameRecord.fRedWins;
+                int halfPoints = (game.getResult() == GameRecord.fDraw) ? 1 : (game.getResult() == mover) ? 2 : 0;
+                long[] stats = mPositions.computeIfAbsent(board.zobristKey(), k -> new HashMap<>())
+                        .computeIfAbsent(move, k -> new long[2]);
+                stats[0]++;
+                stats[1] += halfPoints;
+                board.makeMove(move);
+            }
+        }
+
+        /**
+         * Add the first plies of games.
+         *
+         * @param games The records of the games
+         */
+        public void addAll(Iterable<GameRecord> games) {
+            for (GameRecord game : games) add(game);
+        }
+
+        /**
+         * Write the book.
+         *
+         * @param file      The file of the book, which is replaced
+         * @param minWeight The minimum number of games a move must have been played in
+         * @return The number of records written.
+         * @throws IOException if the file cannot be written.
+         */
+        public int write(File file, int minWeight) throws IOException {
+            // key, move, weight and score of each record, to be sorted
+            List<long[]> records = new ArrayList<>();
+            for (Map.Entry<Long, Map<Integer, long[]>> position : mPositions.entrySet()) {
+                for (Map.Entry<Integer, long[]> move : position.getValue().entrySet()) {
+                    long[] stats = move.getValue();
+                    if (stats[0] < minWeight) continue;
+                    records.add(new long[]{position.getKey(), move.getKey(),
+                            Math.min(stats[0], Character.MAX_VALUE), stats[1] * 50 / stats[0]});
+                }
+            }
+            records.sort((a, b) -> (a[0] != b[0]) ? Long.compare(a[0], b[0]) :
+                    (a[2] != b[2]) ? Long.compare(b[2], a[2]) : Long.compare(a[1], b[1]));
+
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+                out.writeInt(fMagic);
+                out.writeInt(fVersion);
+                out.writeInt(records.size());
+                out.writeInt(0);
+                for (long[] record : records) {
+                    out.writeLong(record[0]);
+                    out.writeInt((int)record[1]);
+                    out.writeChar((int)record[2]);
+                    out.writeShort((int)record[3]);
+                }
+            }
+            return records.size();
+        }
+    }
+
+    /**
+     * Build or probe a book from the command line, see the usage above.
+     *
+     * @param args The command line arguments.
+     * @throws IOException if a file cannot be read or written.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length >= 3 && args[0].equals("build")) {
+            int plies = 20, minWeight = 1;
+            for (int i = 3; i + 1 < args.length; i += 2) {
+                if (args[i].equals("plies")) plies = Integer.parseInt(args[i + 1]);
+                else if (args[i].equals("min")) minWeight = Integer.parseInt(args[i + 1]);
+            }
+            Builder builder = new Builder(plies);
+            List<GameRecord> games = GameRecord.read(new File(args[1]));
+            builder.addAll(games);
+            int records = builder.write(new File(args[2]), minWeight);
+            System.out.println("games: " + games.size() + ", records: " + records);
+        } else if (args.length >= 2 && args[0].equals("probe")) {
+            OpeningBook book = new OpeningBook(new File(args[1]));
+            Board board = new Board();
+            for (int i = 3; i < args.length && args[2].equals("moves"); i++) {
+                int move = board.parseMove(args[i]);
+                if (move == Board.fNoMove) {
+                    System.err.println("illegal move: " + args[i]);
+                    System.exit(1);
+                }
+                board.makeMove(move);
+            }
+            int moves[] = new int[Board.fMaxMoves], weights[] = new int[Board.fMaxMoves], scores[] = new int[Board.fMaxMoves];
+            int count = book.probe(board.zobristKey(), moves, weights, scores);
+            for (int i = 0; i < count; i++)
+                System.out.println(Board.moveToString(moves[i]) + " weight " + weights[i] + " score " + scores[i]);
+            System.out.println("moves: " + count);
+        } else {
+            System.err.println("usage: java OpeningBook build games.txt book.dsb [plies N] [min W]");
+            System.err.println("       java OpeningBook probe book.dsb [moves a3a4 ...]");
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+//------------------------------------------------------------------------------
+//  File       : OpeningBookTest.java
+//  Course     : CSC610
+//  Date:      : 10/18/2026
+//  Author     : Jason Qiao Meng
+//  Author ID  : 10652564
+//  Description: This file contains unit tests against OpeningBook.java and GameRecord.java
+//------------------------------------------------------------------------------
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+
+/**
+ * A unit test class against classes {@link OpeningBook} and {@link GameRecord}
+ */
+public class OpeningBookTest {
+
+    /**
+     * The recorded games of the book
+     */
+    private static final String[] fGames = {
+            "red a3a4 f8g8 g3g2",
+            "black a3a4 f8g8 e3d3",
+            "draw a3a4 c7b7",
+            "red g3g4 a7a6"};
+
+    /**
+     * The file of the book
+     */
+    private File file;
+    /**
+     * The book built from {@link #fGames}
+     */
+    private OpeningBook book;
+
+
+    /**
+     * Build the book of {@link #fGames} into a temporary file.
+     *
+     * @throws Exception
+     */
+    @Before
+    public void setUp() throws Exception {
+        List<GameRecord> games = new ArrayList<>();
+        for (String line : fGames) games.add(GameRecord.parse(line));
+        OpeningBook.Builder builder = new OpeningBook.Builder(20);
+        builder.addAll(games);
+        file = File.createTempFile("book", ".dsb");
+        builder.write(file, 1);
+        book = new OpeningBook(file);
+    }
+
+
+    /**
+     * Delete the file of the book.
+     *
+     * @throws Exception
+     */
+    @After
+    public void tearDown() throws Exception {
+        book = null;
+        file.delete();
+    }
+
+
+    /**
+     * Test whether a game record is parsed back from its text form.
+     */
+    @Test
+    public void testGameRecordRoundTrip() {
+        System.out.println("Test whether a game record is parsed back from its text form");
+
+        boolean actual = true;
+        for (String line : fGames) {
+            GameRecord game = GameRecord.parse(line);
+            actual &= game.toString().equals(line) && GameRecord.parse(game.toString()).equals(game);
+        }
+
+        String msg = "The game records are parsed back? Expected: %1$b, Actual: %2$b";
+        msg = String.format(msg, true, actual);
+        assertTrue(msg, actual);
+    }
+
+
+    /**
+     * Test the moves, weights and scores of the initial board.
+     */
+    @Test
+    public void testProbeInitialBoard() {
+        System.out.println("Test the book moves of the initial board");
+
+        Board board = new Board();
+        int moves[] = new int[Board.fMaxMoves], weights[] = new int[Board.fMaxMoves], scores[] = new int[Board.fMaxMoves];
+        int count = book.probe(board.zobristKey(), moves, weights, scores);
+        for (int i = 0; i < count; i++)
+            System.out.println(Board.moveToString(moves[i]) + " weight " + weights[i] + " score " + scores[i]);
+
+        // black moves first: a3a4 got a loss, a win and a draw, g3g4 a loss
+        boolean actual = count == 2 &&
+                Board.moveToString(moves[0]).equals("a3a4") && weights[0] == 3 && scores[0] == 50 &&
+                Board.moveToString(moves[1]).equals("g3g4") && weights[1] == 1 && scores[1] == 0 &&
+                book.getBestMove(board) == moves[0] && book.size() == 7;
+
+        String msg = "The book moves are correct? Expected: %1$b, Actual: %2$b";
+        msg = String.format(msg, true, actual);
+        assertTrue(msg, actual);
+    }
+
+
+    /**
+     * Test whether the picked moves are the book moves and out-of-book positions give no move.
+     */
+    @Test
+    public void testPickMove() {
+        System.out.println("Test whether the picked moves are book moves");
+
+        Random rnd = new Random(5);
+        Board board = new Board();
+        board.makeMove(board.parseMove("a3a4"));
+        int picked[] = new int[2];
+        for (int i = 0; i < 100; i++) {
+            String move = Board.moveToString(book.pickMove(board, rnd));
+            if (move.equals("f8g8")) picked[0]++;
+            else if (move.equals("c7b7")) picked[1]++;
+            else fail("Not a book move: " + move);
+        }
+        System.out.println("f8g8: " + picked[0] + ", c7b7: " + picked[1]);
+        board.makeMove(board.parseMove("c7b7"));
+        boolean outOfBook = book.pickMove(board, rnd) == Board.fNoMove && book.getBestMove(board) == Board.fNoMove;
+
+        // f8g8 weighs 2 and c7b7 weighs 1
+        boolean actual = picked[0] > picked[1] && picked[1] > 0 && outOfBook;
+        String msg = "The picked moves are book moves? Expected: %1$b, Actual: %2$b";
+        msg = String.format(msg, true, actual);
+        assertTrue(msg, actual);
+    }
+}
@@ -0,0 +1,262 @@
+//------------------------------------------------------------------------------
+//  File       : PackedPosition.java
+//  Course     : DouShouQi
+//  Date:      : 10/18/2026
+//  Author     : Jason Qiao Meng
+//  Author ID  : 10652564
+//  Description: This file contains a compact 128-bit encoding of a DouShouQi position.
+//------------------------------------------------------------------------------
+
+/**
+ * An immutable position (the cells of all pieces and whose turn it is) packed into 2 longs,
+ * to store large numbers of positions in game databases, caches and training sets.
+ * <pre>
+ *     Layout:
+ *         Each of the 16 pieces takes 6 bits for its cell number, or {@link #fCaptured}
+ *         if it is not on the board. Piece p (from Board.rRat to Board.bElephant) is at
+ *         bit (p - 1) * 6 of the 128 bits, but no piece straddles the 2 longs:
+ *
+ *         low  bits  0 - 59: pieces rRat ... bDog (10 pieces)
+ *         high bits  0 - 35: pieces bWolf ... bElephant (6 pieces)
+ *         high bit       36: set if it is black's turn
+ *
+ *     Note:
+ *         Encoding and decoding take constant time, they walk the piece list of the board.
+ *         The underlying board cells are not stored, since they never change.
+ * </pre>
+ */
+public final class PackedPosition implements Comparable<PackedPosition> {
+
+    /**
+     * The cell number which stands for a captured piece
+     */
+    public static final int fCaptured = 63;
+    /**
+     * The number of bits of a piece
+     */
+    private static final int fPieceBits = 6;
+    /**
+     * The number of pieces in the low long
+     */
+    private static final int fLowPieces = 10;
+    /**
+     * The bit of the high long which is set if it is black's turn
+     */
+    private static final long fBlacksTurnBit = 1L << ((Board.bElephant - fLowPieces) * fPieceBits);
+    /**
+     * The bits of the high long which are used
+     */
+    private static final long fHighMask = (fBlacksTurnBit << 1) - 1;
+    /**
+     * The bits of the low long which are used
+     */
+    private static final long fLowMask = (1L << (fLowPieces * fPieceBits)) - 1;
+
+    /**
+     * The low 64 bits
+     */
+    private final long mLow;
+    /**
+     * The high 64 bits
+     */
+    private final long mHigh;
+
+
+    /**
+     * Create a packed position from its 2 longs, e.g. as read back from a file.
+     *
+     * @param low  The low 64 bits, see {@link #getLow()}
+     * @param high The high 64 bits, see {@link #getHigh()}
+     * @throws IllegalArgumentException if unused bits are set.
+     */
+    public PackedPosition(long low, long high) {
+        if ((low & ~fLowMask) != 0 || (high & ~fHighMask) != 0)
+            throw new IllegalArgumentException("Not a packed position: " + toHex(low, high));
+        mLow = low;
+        mHigh = high;
+    }
+
+    /**
+     * Test whether 2 longs are a position which can be set up on a board, as {@link #toBoard()} does,
+     * without creating the position or the board, e.g. to check large files of positions.
+     *
+     * @param low  The low 64 bits, see {@link #getLow()}
+     * @param high The high 64 bits, see {@link #getHigh()}
+     * @return Returns {@code true} if no unused bit is set, and every piece on the board is in a cell
+     *         of its own which it can stand on; {@code false} otherwise.
+     */
+    static boolean isValid(long low, long high) {
+        if ((low & ~fLowMask) != 0 || (high & ~fHighMask) != 0) return false;
+        long taken = 0;
+        for (int p = Board.rRat; p <= Board.bElephant; p++) {
+            int sq = getSquare(low, high, p);
+            if (sq == fCaptured) continue;
+            if (sq >= Board.fCells || (taken & (1L << sq)) != 0 || !Board.canStand(p, sq)) return false;
+            taken |= 1L << sq;
+        }
+        return true;
+    }
+
+    /**
+     * Encode a board.
+     *
+     * @param board The board to encode
+     */
+    public PackedPosition(Board board) {
+        long low = 0, high = 0;
+        for (int p = Board.rRat; p <= Board.bElephant; p++) {
+            int sq = board.getSquare(p);
+            long bits = (sq < 0) ? fCaptured : sq;
+            if (p <= fLowPieces) low |= bits << ((p - 1) * fPieceBits);
+            else high |= bits << ((p - 1 - fLowPieces) * fPieceBits);
+        }
+        mLow = low;
+        mHigh = board.mBlacksTurn ? high | fBlacksTurnBit : high;
+    }
+
+    /**
+     * Decode the position into a new board.
+     *
+     * @return A new {@link Board} of the position.
+     * @throws IllegalArgumentException if the position cannot be set up on a board,
+     *                                  e.g. 2 pieces in one cell.
+     */
+    public Board toBoard() {
+        int squares[] = new int[Board.bElephant + 1];
+        for (int p = Board.rRat; p <= Board.bElephant; p++) {
+            int sq = getSquare(p);
+            squares[p] = (sq == fCaptured) ? -1 : sq;
+        }
+        return new Board(squares, isBlacksTurn());
+    }
+
+    /**
+     * Get the cell number of a piece.
+     *
+     * @param p A piece, from {@link Board#rRat} to {@link Board#bElephant}
+     * @return The cell number, or {@link #fCaptured} if the piece is not on the board.
+     */
+    public int getSquare(int p) {
+        return getSquare(mLow, mHigh, p);
+    }
+
+    /**
+     * Get the cell number of a piece from the 2 longs of a position, without creating it,
+     * e.g. to walk large arrays of positions.
+     *
+     * @param low  The low 64 bits, see {@link #getLow()}
+     * @param high The high 64 bits, see {@link #getHigh()}
+     * @param p    A piece, from {@link Board#rRat} to {@link Board#bElephant}
+     * @return The cell number, or {@link #fCaptured} if the piece is not on the board.
+     */
+    static int getSquare(long low, long high, int p) {
+        long bits = (p <= fLowPieces) ?
+                low >>> ((p - 1) * fPieceBits) :
+                high >>> ((p - 1 - fLowPieces) * fPieceBits);
+        return (int)(bits & fCaptured);
+    }
+
+    /**
+     * Test whether it is black's turn.
+     *
+     * @return Returns {@code true} if it is black's turn; {@code false} otherwise.
+     */
+    public boolean isBlacksTurn() {
+        return (mHigh & fBlacksTurnBit) != 0;
+    }
+
+    /**
+     * Get the low 64 bits.
+     *
+     * @return The low 64 bits.
+     */
+    public long getLow() {
+        return mLow;
+    }
+
+    /**
+     * Get the high 64 bits.
+     *
+     * @return The high 64 bits.
+     */
+    public long getHigh() {
+        return mHigh;
+    }
+
+    /**
+     * Parse the hexadecimal form given by {@link #toString()}.
+     *
+     * @param text 32 hexadecimal digits
+     * @return The packed position.
+     * @throws IllegalArgumentException if the text is not a packed position.
+     */
+    public static PackedPosition parse(String text) {
+        if (text == null || text.length() != 32)
+            throw new IllegalArgumentException("Not a packed position: " + text);
+        try {
+            long high = Long.parseUnsignedLong(text.substring(0, 16), 16);
+            long low = Long.parseUnsignedLong(text.substring(16), 16);
+            return new PackedPosition(low, high);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Not a packed position: " + text, e);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @param other {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof PackedPosition &&
+                ((PackedPosition)other).mLow == mLow &&
+                ((PackedPosition)other).mHigh == mHigh;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @return {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        // the cells are not random, so mix the bits before folding them
+        long h = Board.mix64(mLow ^ Long.rotateLeft(mHigh, 32));
+        return (int)(h ^ (h >>> 32));
+    }
+
+    /**
+     * Compare 2 positions as unsigned 128-bit numbers, the high long first.
+     *
+     * @param other The position to compare with
+     * @return A negative number, 0 or a positive number if this is less than, equal to or greater than {@code other}.
+     */
+    @Override
+    public int compareTo(PackedPosition other) {
+        int result = Long.compareUnsigned(mHigh, other.mHigh);
+        return (result != 0) ? result : Long.compareUnsigned(mLow, other.mLow);
+    }
+
+    /**
+     * Get the position as 32 hexadecimal digits, the high long first.
+     *
+     * @return The hexadecimal form of the position.
+     */
+    @Override
+    public String toString() {
+        return toHex(mLow, mHigh);
+    }
+
+    /**
+     * Format 2 longs as 32 hexadecimal digits, the high long first.
+     *
+     * @param low  The low 64 bits
+     * @param high The high 64 bits
+     * @return The hexadecimal digits.
+     */
+    private static String toHex(long low, long high) {
+        return String.format("%016x%016x", high, low);
+    }
+}
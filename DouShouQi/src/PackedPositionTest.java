@@ -0,0 +1,177 @@
+//------------------------------------------------------------------------------
+//  File       : PackedPositionTest.java
+//  Course     : CSC610
+//  Date:      : 10/18/2026
+//  Author     : Jason Qiao Meng
+//  Author ID  : 10652564
+//  Description: This file contains unit tests against PackedPosition.java
+//------------------------------------------------------------------------------
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+
+/**
+ * A unit test class against class {@link PackedPosition}
+ */
+public class PackedPositionTest {
+
+    /**
+     * Test whether positions of a random game are decoded to the boards they were encoded from.
+     */
+    @Test
+    public void testRoundTrip() {
+        System.out.println("Test whether packed positions decode to the boards they were encoded from");
+
+        Random rnd = new Random(7);
+        int moves[] = new int[Board.fMaxMoves];
+        Board board = new Board();
+        boolean actual = true;
+        int positions = 0;
+        for (int ply = 0; ply < 300 && !Engine.isLost(board); ply++) {
+            PackedPosition packed = new PackedPosition(board);
+            Board decoded = packed.toBoard();
+            actual &= decoded.equals(board) && decoded.zobristKey() == board.zobristKey();
+            actual &= PackedPosition.parse(packed.toString()).equals(packed);
+            actual &= new PackedPosition(packed.getLow(), packed.getHigh()).equals(packed);
+            positions++;
+
+            int count = board.generateMoves(moves);
+            if (count == 0) break;
+            board.makeMove(moves[rnd.nextInt(count)]);
+        }
+        System.out.println("positions: " + positions + ", pieces left: " + (board.countRed() + board.countBlack()));
+
+        String msg = "All positions are decoded correctly? Expected: %1$b, Actual: %2$b";
+        msg = String.format(msg, true, actual);
+        assertTrue(msg, actual);
+    }
+
+
+    /**
+     * Test the captured sentinel, the turn bit and the comparisons.
+     */
+    @Test
+    public void testCapturedAndComparisons() {
+        System.out.println("Test the captured sentinel, the turn bit and the comparisons");
+
+        Board board = new Board();
+        // black elephant walks up to the red rat, which takes it
+        for (int r = Board.fRows - 3; r > 3; r--)
+            board.doMove(r, 0, r - 1, 0);
+        board.mBlacksTurn = false;
+        PackedPosition before = new PackedPosition(board);
+        board.doMove(2, 0, 3, 0);
+        PackedPosition after = new PackedPosition(board);
+        board.mBlacksTurn = true;
+        PackedPosition blacksTurn = new PackedPosition(board);
+
+        boolean captured = after.getSquare(Board.bElephant) == PackedPosition.fCaptured &&
+                after.getSquare(Board.rRat) == Board.toSquare(3, 0) &&
+                after.toBoard().countBlack() == 7;
+        boolean turn = !after.isBlacksTurn() && blacksTurn.isBlacksTurn() &&
+                !after.equals(blacksTurn) && blacksTurn.compareTo(after) > 0;
+        boolean ordered = Integer.signum(before.compareTo(after)) == -Integer.signum(after.compareTo(before)) &&
+                before.compareTo(after) != 0 &&
+                before.compareTo(new PackedPosition(before.getLow(), before.getHigh())) == 0 &&
+                before.hashCode() == new PackedPosition(before.getLow(), before.getHigh()).hashCode();
+
+        String header = formatTableHeader(new String[]{"Captured", "Turn", "Ordered"}, 8);
+        System.out.println(header);
+        System.out.println(getRowSeparator('-', header.length()));
+        System.out.println(formatTableRow(new Boolean[]{captured, turn, ordered}, 8));
+
+        boolean actual = captured && turn && ordered;
+        String msg = "The packed positions are correct? Expected: %1$b, Actual: %2$b";
+        msg = String.format(msg, true, actual);
+        assertTrue(msg, actual);
+    }
+
+
+    /**
+     * Test whether positions which cannot be set up on a board are rejected.
+     */
+    @Test
+    public void testIllegalPositions() {
+        System.out.println("Test whether illegal packed positions are rejected");
+
+        PackedPosition initial = new PackedPosition(new Board());
+        // red lion put on the cell of red tiger
+        long twoInOneCell = (initial.getLow() & ~(0x3fL << ((Board.rLion - 1) * 6))) |
+                ((long)initial.getSquare(Board.rTiger) << ((Board.rLion - 1) * 6));
+        boolean rejected = isRejected(() -> new PackedPosition(twoInOneCell, initial.getHigh()).toBoard());
+        rejected &= isRejected(() -> new PackedPosition(initial.getLow(), -1L));
+        rejected &= isRejected(() -> PackedPosition.parse("not a position"));
+
+        String msg = "Illegal positions are rejected? Expected: %1$b, Actual: %2$b";
+        msg = String.format(msg, true, rejected);
+        assertTrue(msg, rejected);
+    }
+
+
+    /**
+     * Test whether an action throws {@link IllegalArgumentException}.
+     *
+     * @param action The action
+     * @return Returns {@code true} if it throws; {@code false} otherwise.
+     */
+    private static boolean isRejected(Runnable action) {
+        try {
+            action.run();
+            return false;
+        } catch (IllegalArgumentException e) {
+            return true;
+        }
+    }
+
+
+    /**
+     * Generate a header row for a console/log message table
+     *
+     * @param headers     An array of {@code String} which contains the headers.
+     * @param colMinWidth An {@code Integer} for the minimum width of each column.
+     * @return A {@code String} with column separators added as a table's header row.
+     */
+    private String formatTableHeader(String[] headers, int colMinWidth) {
+        String line = "|";
+        for (String header : headers) {
+            String pat = "%-" + String.valueOf(colMinWidth) + "s";
+            line += " " + String.format(pat, header) + " |";
+        }
+        return line;
+    }
+
+
+    /**
+     * Generate a table row. This method invokes {@code toString()} method of each item.
+     *
+     * @param row         An array of {@code T} which contains the column items.
+     * @param colMinWidth An {@code Integer} for the minimum width of each column.
+     * @param <T>         A reference type of the row's items.
+     * @return A {@code String} with column separators added as a table's row.
+     */
+    private <T> String formatTableRow(T[] row, int colMinWidth) {
+        String line = "|";
+        for (T col : row) {
+            String field = col.toString();
+            String pat = "%-" + String.valueOf(colMinWidth) + "s";
+            line += " " + String.format(pat, field) + " |";
+        }
+        return line;
+    }
+
+
+    /**
+     * Generate a row splitter
+     *
+     * @param sep    A {@code char} for the separator symbol
+     * @param length An {@code Integer} for the length of the line to be generated.
+     * @return A {@code String} consists of the {@code sep}
+     */
+    private String getRowSeparator(char sep, int length) {
+        return (length <= 0) ? "" : new String(new char[length]).replace('\0', sep);
+    }
+}
@@ -0,0 +1,215 @@
+//------------------------------------------------------------------------------
+//  File       : ParallelSearch.java
+//  Course     : DouShouQi
+//  Date:      : 10/18/2026
+//  Author     : Jason Qiao Meng
+//  Author ID  : 10652564
+//  Description: This file contains a multi-threaded (Lazy SMP) search for DouShouQi game.
+//------------------------------------------------------------------------------
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * A multi-threaded search in the Lazy SMP style.
+ * <pre>
+ *     How it works:
+ *         1. The calling thread runs the main {@link Engine} on the given board.
+ *         2. Every helper thread runs an {@link Engine} of its own on a copy of the board,
+ *            with no limits, until the main engine is done.
+ *         3. All engines share one {@link TranspositionTable}, so the helpers fill it with
+ *            results the main engine picks up. Odd helpers start one ply deeper to diverge.
+ *         4. The result is that of the main engine, with the nodes of all threads.
+ *
+ *     Note:
+ *         The number of threads is fixed when a search is created and the helper threads are
+ *         kept for the next search. Call {@link #close()} to release them.
+ * </pre>
+ */
+public class ParallelSearch implements AutoCloseable {
+
+    /**
+     * The engines; {@code mEngines[0]} is the main engine, the others are the helpers'.
+     */
+    private final Engine mEngines[];
+    /**
+     * The nodes searched by each thread in the last search.
+     */
+    private final long mThreadNodes[];
+    /**
+     * The helper threads, or {@code null} for a single-threaded search.
+     */
+    private final ExecutorService mHelpers;
+
+
+    /**
+     * Create a parallel search.
+     *
+     * @param threads       The total number of search threads including the calling thread, at least 1.
+     * @param hashMegabytes The size of the shared transposition table in MB.
+     */
+    public ParallelSearch(int threads, int hashMegabytes) {
+        this(threads, new TranspositionTable(hashMegabytes));
+    }
+
+    /**
+     * Create a parallel search with a given transposition table.
+     *
+     * @param threads The total number of search threads including the calling thread, at least 1.
+     * @param table   The transposition table shared by all threads.
+     */
+    public ParallelSearch(int threads, TranspositionTable table) {
+        if (threads < 1)
+            throw new IllegalArgumentException("A search needs at least 1 thread");
+        mEngines = new Engine[threads];
+        for (int i = 0; i < threads; i++)
+            mEngines[i] = new Engine(table);
+        mThreadNodes = new long[threads];
+        mHelpers = (threads == 1) ? null : Executors.newFixedThreadPool(threads - 1, r -> {
+            Thread t = new Thread(r, "search-helper");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Get the total number of search threads.
+     *
+     * @return The number of threads including the calling thread.
+     */
+    public int getThreadCount() {
+        return mEngines.length;
+    }
+
+    /**
+     * Get the transposition table shared by all threads.
+     *
+     * @return The transposition table.
+     */
+    public TranspositionTable getTable() {
+        return mEngines[0].getTable();
+    }
+
+    /**
+     * Set the listener which is told the result of every iteration of the main engine.
+     *
+     * @param listener A listener or {@code null}.
+     */
+    public void setListener(Engine.Listener listener) {
+        mEngines[0].setListener(listener);
+    }
+
+    /**
+     * Set the endgame tablebase of all the engines.
+     *
+     * @param tablebase A tablebase or {@code null}.
+     */
+    public void setTablebase(Tablebase tablebase) {
+        for (Engine engine : mEngines) engine.setTablebase(tablebase);
+    }
+
+    /**
+     * Set the static evaluation of all the engines.
+     *
+     * @param evaluation An evaluation
+     */
+    public void setEvaluation(Evaluation evaluation) {
+        for (Engine engine : mEngines) engine.setEvaluation(evaluation);
+    }
+
+    /**
+     * Get the number of nodes searched by each thread in the last search.
+     *
+     * @return An array of node counts; element 0 is the calling thread.
+     */
+    public long[] getThreadNodes() {
+        return mThreadNodes.clone();
+    }
+
+    /**
+     * Ask the running search, if any, to stop as soon as possible.
+     */
+    public void stop() {
+        for (Engine engine : mEngines) engine.stop();
+    }
+
+    /**
+     * Search the best move of the side whose turn it is with all threads.
+     * The limits apply to the main engine; the helpers run until it is done.
+     *
+     * @param board  The board to search, which is left as it was.
+     * @param limits The limits of the search.
+     * @return The {@link Engine.Result} of the main engine, with the nodes of all threads.
+     */
+    public Engine.Result search(Board board, Engine.Limits limits) {
+        List<Future<Engine.Result>> futures = new ArrayList<>();
+        Engine.Limits unlimited = new Engine.Limits(0, 0, 0);
+        // clear the stops before any thread starts, so that a late helper cannot miss its stop
+        for (Engine engine : mEngines) engine.clearStop();
+        getTable().newSearch();
+        for (int i = 1; i < mEngines.length; i++) {
+            final Engine helper = mEngines[i];
+            final Board copy = new Board(board);
+            final int startDepth = 1 + (i & 1);
+            futures.add(mHelpers.submit(() -> helper.search(copy, unlimited, startDepth)));
+        }
+
+        Engine.Result main;
+        Throwable failure;
+        try {
+            main = mEngines[0].search(board, limits, 1);
+        } finally {
+            // the helpers have no limit, so they are stopped even if the main search fails
+            failure = stopHelpers(futures);
+        }
+        if (failure != null) throw new IllegalStateException("A search helper failed", failure);
+
+        long nodes = 0;
+        for (int i = 0; i < mEngines.length; i++) {
+            mThreadNodes[i] = mEngines[i].getNodes();
+            nodes += mThreadNodes[i];
+        }
+        return new Engine.Result(main.move, main.score, main.depth, nodes, main.millis, main.pv);
+    }
+
+    /**
+     * Stop the helpers and wait until every one is done, even on an interrupt,
+     * or it would still walk the shared table while the next search starts.
+     *
+     * @param futures The futures of the helpers
+     * @return The failure of the first helper which failed, or {@code null}.
+     */
+    private Throwable stopHelpers(List<Future<Engine.Result>> futures) {
+        for (int i = 1; i < mEngines.length; i++) mEngines[i].stop();
+        boolean interrupted = false;
+        Throwable failure = null;
+        for (Future<Engine.Result> future : futures) {
+            while (true) {
+                try {
+                    future.get();
+                    break;
+                } catch (InterruptedException e) {
+                    // the helpers are stopped, so they are done soon
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    if (failure == null) failure = e.getCause();
+                    break;
+                }
+            }
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+        return failure;
+    }
+
+    /**
+     * Release the helper threads.
+     */
+    @Override
+    public void close() {
+        if (mHelpers != null) mHelpers.shutdownNow();
+    }
+}
@@ -0,0 +1,121 @@
+//------------------------------------------------------------------------------
+//  File       : ParallelSearchTest.java
+//  Course     : CSC610
+//  Date:      : 10/18/2026
+//  Author     : Jason Qiao Meng
+//  Author ID  : 10652564
+//  Description: This file contains unit tests against ParallelSearch.java
+//------------------------------------------------------------------------------
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+
+/**
+ * A unit test class against class {@link ParallelSearch}
+ */
+public class ParallelSearchTest {
+
+    /**
+     * Create a board with only the given pieces.
+     *
+     * @param blacksTurn Whether it is black's turn
+     * @param pieces     Pairs of a piece and its cell
+     * @return The board.
+     */
+    private static Board setUp(boolean blacksTurn, int... pieces) {
+        int squares[] = new int[Board.bElephant + 1];
+        Arrays.fill(squares, -1);
+        for (int i = 0; i < pieces.length; i += 2) squares[pieces[i]] = pieces[i + 1];
+        return new Board(squares, blacksTurn);
+    }
+
+
+    /**
+     * Test whether a search of 3 threads at a fixed depth finds the move and score of 1 thread,
+     * counts the nodes of every thread and leaves the board as it was. The positions are decided,
+     * since in others the helpers may well find a better score than 1 thread does at the depth.
+     */
+    @Test
+    public void testSameAsOneThread() {
+        System.out.println("Test whether a parallel search finds what 1 thread finds");
+
+        Board boards[] = {
+                // the black lion at (2, 3) reaches the red den in 2 moves through (1, 3)
+                setUp(true, Board.bLion, 17, Board.rRat, 56),
+                // the black cat at (2, 0) takes the last red piece at (3, 0)
+                setUp(true, Board.bCat, 14, Board.rRat, 21, Board.bLion, 62),
+                // the black lion at (3, 3) between the waters reaches the red den in 3 moves
+                setUp(true, Board.bLion, 24, Board.rRat, 56),
+        };
+        boolean actual = true;
+        try (ParallelSearch search = new ParallelSearch(3, 4)) {
+            for (Board board : boards) {
+                Engine.Result one = new Engine(4).search(board, Engine.Limits.depth(6));
+                Board before = new Board(board);
+                int undoCount = board.getUndoCount();
+                Engine.Result three = search.search(board, Engine.Limits.depth(6));
+                long threadNodes[] = search.getThreadNodes();
+                System.out.println(one + " | " + three + " | " + Arrays.toString(threadNodes));
+
+                actual &= three.move == one.move && three.score == one.score &&
+                        threadNodes.length == 3 && Arrays.stream(threadNodes).allMatch(n -> n > 0) &&
+                        Arrays.stream(threadNodes).sum() == three.nodes &&
+                        board.equalsBoard(before) && board.getUndoCount() == undoCount &&
+                        board.zobristKey() == before.zobristKey();
+            }
+        }
+
+        String msg = "The parallel search finds what 1 thread finds? Expected: %1$b, Actual: %2$b";
+        msg = String.format(msg, true, actual);
+        assertTrue(msg, actual);
+    }
+
+
+    /**
+     * Test whether the helpers are stopped and done when the search of the main thread fails,
+     * here because the moves of the board fill its undo stack, so that it cannot make the first move.
+     * The copies of the board which the helpers search have empty undo stacks, so they run on.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testMainFailure() throws Exception {
+        System.out.println("Test whether the helpers stop when the main search fails");
+
+        // the lions of the initial position moved back and forth until the undo stack is full
+        Board board = new Board();
+        for (int ply = 0; ply < Board.fMaxUndo; ply++) {
+            int round = ply % 4;
+            if (round == 0) board.makeMove(Board.packMove(62, 61, Board.bLion, Board.rbNone));
+            else if (round == 1) board.makeMove(Board.packMove(0, 1, Board.rLion, Board.rbNone));
+            else if (round == 2) board.makeMove(Board.packMove(61, 62, Board.bLion, Board.rbNone));
+            else board.makeMove(Board.packMove(1, 0, Board.rLion, Board.rbNone));
+        }
+        boolean failed = false, idle = true;
+        try (ParallelSearch search = new ParallelSearch(3, 4)) {
+            try {
+                search.search(board, Engine.Limits.depth(8));
+            } catch (IllegalStateException e) {
+                failed = true;
+            }
+            Thread.sleep(200);
+            for (Thread thread : Thread.getAllStackTraces().keySet()) {
+                if (thread.getName().equals("search-helper") && thread.getState() == Thread.State.RUNNABLE)
+                    idle = false;
+            }
+            // the helpers take the next search
+            Engine.Result next = search.search(new Board(), Engine.Limits.depth(3));
+            System.out.println("failed: " + failed + ", idle: " + idle + ", next: " + next);
+            idle &= next.depth == 3;
+        }
+
+        boolean actual = failed && idle;
+        String msg = "The helpers are stopped? Expected: %1$b, Actual: %2$b";
+        msg = String.format(msg, true, actual);
+        assertTrue(msg, actual);
+    }
+}
@@ -0,0 +1,322 @@
+//------------------------------------------------------------------------------
+//  File       : Perft.java
+//  Course     : DouShouQi
+//  Date:      : 10/18/2026
+//  Author     : Jason Qiao Meng
+//  Author ID  : 10652564
+//  Description: This file contains the perft (performance test) tool of the move generator.
+//------------------------------------------------------------------------------
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Perft counts the leaf nodes of the legal move tree of a position to a given depth.
+ * It is a correctness oracle of {@link Board#generateMoves(int[])} and a measure of its speed.
+ * <pre>
+ *     Usage:
+ *         java Perft depth [divide] [threads N] [hash MB] [moves a3a4 ...]
+ *
+ *         depth        The depth of the tree in plies
+ *         divide       Print the count under each move of the position
+ *         threads N    Count with N fork-join threads (default 1)
+ *         hash MB      Share a hash table of counts of MB megabytes between the threads
+ *         moves ...    Count from the position after these moves from the initial board
+ *
+ *     Note:
+ *         A position where the game is over (a den is entered or a side has no piece left)
+ *         has no moves, so it only counts as a leaf at depth 0.
+ * </pre>
+ */
+public class Perft {
+
+    /**
+     * Subtrees at least this deep are split into fork-join tasks.
+     */
+    private static final int fSplitDepth = 4;
+
+    /**
+     * A lock-free hash table of subtree counts keyed by position and depth.
+     * Like {@link TranspositionTable}, each entry is stored as the key XOR-ed with the count,
+     * followed by the count, so an entry torn by concurrent writers is rejected.
+     */
+    static class Table {
+        /**
+         * The entries, 2 longs each.
+         */
+        private final long mEntries[];
+        /**
+         * A bit mask to turn a key into an entry index.
+         */
+        private final long mMask;
+
+        /**
+         * Create a table which takes at most the given size of memory.
+         *
+         * @param megabytes The size of the table in MB, at least 1.
+         */
+        Table(int megabytes) {
+            if (megabytes < 1)
+                throw new IllegalArgumentException("The size of a perft table must be at least 1 MB");
+            long entries = Long.highestOneBit((long)megabytes * 1024 * 1024 / 16);
+            while (entries * 2 > Integer.MAX_VALUE - 8) entries >>= 1;
+            mEntries = new long[(int)(entries * 2)];
+            mMask = entries - 1;
+        }
+
+        /**
+         * Look up the count of a subtree.
+         *
+         * @param key   The Zobrist key of the position
+         * @param depth The depth of the subtree
+         * @return The count, or -1 if it is not in the table.
+         */
+        long probe(long key, int depth) {
+            key = salt(key, depth);
+            int i = (int)(key & mMask) * 2;
+            long count = mEntries[i + 1];
+            return ((mEntries[i] ^ count) == key) ? count : -1;
+        }
+
+        /**
+         * Store the count of a subtree.
+         *
+         * @param key   The Zobrist key of the position
+         * @param depth The depth of the subtree
+         * @param count The count
+         */
+        void store(long key, int depth, long count) {
+            key = salt(key, depth);
+            int i = (int)(key & mMask) * 2;
+            mEntries[i + 1] = count;
+            mEntries[i] = key ^ count;
+        }
+
+        /**
+         * Mix the depth into a key, so the same position at different depths has different keys.
+         *
+         * @param key   The Zobrist key of the position
+         * @param depth The depth of the subtree
+         * @return The key of the subtree.
+         */
+        private static long salt(long key, int depth) {
+            return key ^ Board.mix64(depth + 1);
+        }
+    }
+
+    /**
+     * A fork-join task which counts a subtree on a board of its own.
+     */
+    private static class Task extends RecursiveTask<Long> {
+        private static final long serialVersionUID = 5482953069361287714L;
+        /**
+         * The board of the subtree, owned by this task.
+         */
+        private final Board mBoard;
+        /**
+         * The depth of the subtree.
+         */
+        private final int mDepth;
+        /**
+         * The shared hash table, or {@code null}.
+         */
+        private final Table mTable;
+
+        /**
+         * Create a task.
+         *
+         * @param board The board of the subtree, owned by this task
+         * @param depth The depth of the subtree
+         * @param table The shared hash table, or {@code null}
+         */
+        Task(Board board, int depth, Table table) {
+            mBoard = board;
+            mDepth = depth;
+            mTable = table;
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * @return The count of the subtree.
+         */
+        @Override
+        protected Long compute() {
+            if (mDepth < fSplitDepth) return perft(mBoard, mDepth, mTable);
+            if (Engine.isLost(mBoard)) return 0L;
+
+            int moves[] = new int[Board.fMaxMoves];
+            int count = mBoard.generateMoves(moves);
+            Task tasks[] = new Task[count];
+            for (int i = 0; i < count; i++) {
+                Board child = new Board(mBoard);
+                child.makeMove(moves[i]);
+                tasks[i] = new Task(child, mDepth - 1, mTable);
+                tasks[i].fork();
+            }
+            long nodes = 0;
+            for (Task task : tasks) nodes += task.join();
+            return nodes;
+        }
+    }
+
+
+    /**
+     * Count the leaf nodes of a position to a depth on the calling thread.
+     *
+     * @param board The board to count from, which is left as it was.
+     * @param depth The depth in plies
+     * @return The number of leaf nodes.
+     */
+    public static long perft(Board board, int depth) {
+        return perft(board, depth, null);
+    }
+
+    /**
+     * Count the leaf nodes of a position to a depth on the calling thread.
+     *
+     * @param board The board to count from, which is left as it was.
+     * @param depth The depth in plies
+     * @param table A hash table of counts, or {@code null}
+     * @return The number of leaf nodes.
+     */
+    static long perft(Board board, int depth, Table table) {
+        if (depth <= 0) return 1;
+        return perft(board, depth, table, new int[depth][Board.fMaxMoves]);
+    }
+
+    /**
+     * Count the leaf nodes of a position to a depth with fork-join threads.
+     *
+     * @param board   The board to count from, which is left as it was.
+     * @param depth   The depth in plies
+     * @param threads The number of threads
+     * @param table   A hash table of counts shared by the threads, or {@code null}
+     * @return The number of leaf nodes.
+     */
+    static long perft(Board board, int depth, int threads, Table table) {
+        if (threads <= 1) return perft(board, depth, table);
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            return pool.invoke(new Task(new Board(board), depth, table));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Count the leaf nodes under every move of a position.
+     *
+     * @param board   The board to count from, which is left as it was.
+     * @param depth   The depth in plies, at least 1
+     * @param threads The number of threads
+     * @param table   A hash table of counts shared by the threads, or {@code null}
+     * @param moves   A buffer of at least {@link Board#fMaxMoves} elements for the moves
+     * @param counts  A buffer of at least {@link Board#fMaxMoves} elements for the counts
+     * @return The number of moves of the position.
+     */
+    static int divide(Board board, int depth, int threads, Table table, int[] moves, long[] counts) {
+        if (Engine.isLost(board)) return 0;
+        int count = board.generateMoves(moves);
+        for (int i = 0; i < count; i++) {
+            board.makeMove(moves[i]);
+            counts[i] = perft(board, depth - 1, threads, table);
+            board.unmakeMove();
+        }
+        return count;
+    }
+
+    /**
+     * The recursive part of {@link #perft(Board, int, Table)}.
+     *
+     * @param board The board
+     * @param depth The remaining depth, at least 1
+     * @param table A hash table of counts, or {@code null}
+     * @param moves The move buffers indexed by the remaining depth
+     * @return The number of leaf nodes.
+     */
+    private static long perft(Board board, int depth, Table table, int[][] moves) {
+        if (Engine.isLost(board)) return 0;
+        int count = board.generateMoves(moves[depth - 1]);
+        // bulk counting: the moves of the last ply are the leaves
+        if (depth == 1) return count;
+
+        long key = 0;
+        if (table != null) {
+            key = board.zobristKey();
+            long nodes = table.probe(key, depth);
+            if (nodes >= 0) return nodes;
+        }
+        long nodes = 0;
+        for (int i = 0; i < count; i++) {
+            board.makeMove(moves[depth - 1][i]);
+            nodes += perft(board, depth - 1, table, moves);
+            board.unmakeMove();
+        }
+        if (table != null) table.store(key, depth, nodes);
+        return nodes;
+    }
+
+    /**
+     * Run perft from the command line, see the usage above.
+     *
+     * @param args The command line arguments.
+     */
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.err.println("usage: java Perft depth [divide] [threads N] [hash MB] [moves a3a4 ...]");
+            System.exit(1);
+        }
+        int depth = Integer.parseInt(args[0]);
+        boolean divide = false;
+        int threads = 1;
+        Table table = null;
+        Board board = new Board();
+        for (int i = 1; i < args.length; i++) {
+            switch (args[i]) {
+                case "divide":
+                    divide = true;
+                    break;
+                case "threads":
+                    threads = Integer.parseInt(args[++i]);
+                    break;
+                case "hash":
+                    table = new Table(Integer.parseInt(args[++i]));
+                    break;
+                case "moves":
+                    while (i + 1 < args.length) {
+                        int move = board.parseMove(args[++i]);
+                        if (move == Board.fNoMove) {
+                            System.err.println("illegal move: " + args[i]);
+                            System.exit(1);
+                        }
+                        board.makeMove(move);
+                    }
+                    break;
+                default:
+                    System.err.println("unknown argument: " + args[i]);
+                    System.exit(1);
+            }
+        }
+
+        long start = System.currentTimeMillis();
+        long nodes = 0;
+        if (divide && depth > 0) {
+            int moves[] = new int[Board.fMaxMoves];
+            long counts[] = new long[Board.fMaxMoves];
+            int count = divide(board, depth, threads, table, moves, counts);
+            for (int i = 0; i < count; i++) {
+                System.out.println(Board.moveToString(moves[i]) + ": " + counts[i]);
+                nodes += counts[i];
+            }
+            System.out.println();
+            System.out.println("moves: " + count);
+        } else {
+            nodes = perft(board, depth, threads, table);
+        }
+        long millis = System.currentTimeMillis() - start;
+        System.out.println("nodes: " + nodes);
+        System.out.println("time: " + millis + " ms");
+        System.out.println("nps: " + nodes * 1000 / Math.max(1, millis));
+    }
+}
@@ -0,0 +1,86 @@
+//------------------------------------------------------------------------------
+//  File       : PerftTest.java
+//  Course     : CSC610
+//  Date:      : 10/18/2026
+//  Author     : Jason Qiao Meng
+//  Author ID  : 10652564
+//  Description: This file contains unit tests against Perft.java
+//------------------------------------------------------------------------------
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+
+/**
+ * A unit test class against class {@link Perft}
+ */
+public class PerftTest {
+
+    /**
+     * The leaf counts of the initial board indexed by depth. They were counted by probing
+     * every from/to pair with {@link Board#isValidMove(int, int, int, int)}.
+     */
+    private static final long[] fInitialCounts = {1, 24, 576, 12240, 260099};
+
+
+    /**
+     * Test the leaf counts of the initial board.
+     */
+    @Test
+    public void testInitialBoard() {
+        System.out.println("Test the leaf counts of the initial board");
+
+        boolean actual = true;
+        for (int depth = 0; depth < fInitialCounts.length; depth++) {
+            long nodes = Perft.perft(new Board(), depth);
+            System.out.printf("depth %d: %d%n", depth, nodes);
+            actual &= nodes == fInitialCounts[depth];
+        }
+
+        String msg = "The leaf counts are correct? Expected: %1$b, Actual: %2$b";
+        msg = String.format(msg, true, actual);
+        assertTrue(msg, actual);
+    }
+
+
+    /**
+     * Test whether the hash table and the fork-join threads give the same count.
+     */
+    @Test
+    public void testHashAndThreads() {
+        System.out.println("Test whether the hash table and the threads give the same count");
+
+        int depth = 5;
+        long expected = Perft.perft(new Board(), depth);
+        long hashed = Perft.perft(new Board(), depth, new Perft.Table(1));
+        long parallel = Perft.perft(new Board(), depth, 2, new Perft.Table(1));
+        System.out.printf("plain: %d, hashed: %d, parallel: %d%n", expected, hashed, parallel);
+
+        String msg = "Same counts? Expected: %1$d, Actual: [%2$d, %3$d]";
+        msg = String.format(msg, expected, hashed, parallel);
+        assertTrue(msg, expected == hashed && expected == parallel);
+    }
+
+
+    /**
+     * Test whether the counts of divide add up to the count of the position.
+     */
+    @Test
+    public void testDivide() {
+        System.out.println("Test whether the counts of divide add up");
+
+        Board board = new Board();
+        int[] moves = new int[Board.fMaxMoves];
+        long[] counts = new long[Board.fMaxMoves];
+        int count = Perft.divide(board, 3, 1, null, moves, counts);
+        long total = 0;
+        for (int i = 0; i < count; i++) total += counts[i];
+
+        String msg = "The counts add up? Expected: %1$d, Actual: %2$d";
+        msg = String.format(msg, fInitialCounts[3], total);
+        assertEquals(msg, fInitialCounts[3], total);
+        assertEquals(fInitialCounts[1], count);
+        assertTrue("The board is left as it was", board.equals(new Board()));
+    }
+}
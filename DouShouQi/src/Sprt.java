@@ -0,0 +1,379 @@
+//------------------------------------------------------------------------------
+//  File       : Sprt.java
+//  Course     : DouShouQi
+//  Date:      : 10/18/2026
+//  Author     : Jason Qiao Meng
+//  Author ID  : 10652564
+//  Description: This file contains a sequential probability ratio test (SPRT)
+//               match runner for engine changes.
+//------------------------------------------------------------------------------
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * A match between a new engine configuration and a base one which stops as soon as
+ * a sequential probability ratio test (SPRT) tells whether the new one gains Elo.
+ * <pre>
+ *     Usage:
+ *         java Sprt [elo0 E0] [elo1 E1] [alpha A] [beta B] [games N] [threads T]
+ *                   [openings FILE] [random P] [seed S] [plies M] [log FILE] [out FILE]
+ *                   engine NEW engine BASE
+ *
+ *         elo0 E0, elo1 E1   The hypotheses H0: the gain is E0 and H1: the gain is E1 (default 0 and 5)
+ *         alpha A, beta B    The error rates of accepting H1 and H0 wrongly (default 0.05 each)
+ *         games N            Give up without a decision after N games (default 20000)
+ *         log FILE           Append the progress to this file (default sprt.log)
+ *         out FILE           Write every game to this file (default: no file)
+ *         the others         As those of Tournament
+ *
+ *     How it works:
+ *         1. Games are played in pairs from one opening with the colors swapped,
+ *            so the luck of an opening cancels out within a pair.
+ *         2. A pair scores 0, 0.5, 1, 1.5 or 2 points for NEW. The log-likelihood ratio (LLR)
+ *            of H1 against H0 is estimated from these 5 counts (the pentanomial model)
+ *            by the normal approximation of the logistic Elo model.
+ *         3. After every pair, H1 is accepted if the LLR is above log((1 - beta) / alpha),
+ *            H0 if it is below log(beta / (1 - alpha)); otherwise the match goes on.
+ *         4. The pairs still being played at a decision are abandoned.
+ * </pre>
+ */
+public class Sprt {
+
+    /**
+     * The decision that the match has to go on
+     */
+    public static final int fContinue = 0;
+    /**
+     * The decision that H1 is accepted, NEW gains {@code elo1} or more
+     */
+    public static final int fAcceptH1 = 1;
+    /**
+     * The decision that H0 is accepted, NEW gains {@code elo0} or less
+     */
+    public static final int fAcceptH0 = -1;
+
+    /**
+     * The Elo gain of H0
+     */
+    private final double mElo0;
+    /**
+     * The Elo gain of H1
+     */
+    private final double mElo1;
+    /**
+     * The lower bound of the LLR, below which H0 is accepted
+     */
+    private final double mLowerBound;
+    /**
+     * The upper bound of the LLR, above which H1 is accepted
+     */
+    private final double mUpperBound;
+    /**
+     * The number of pairs indexed by the half points NEW got in the pair, 0 to 4
+     */
+    private final long mPairs[] = new long[5];
+    /**
+     * The score of NEW game by game
+     */
+    private final Tournament.Score mScore = new Tournament.Score();
+
+
+    /**
+     * Create a test.
+     *
+     * @param elo0  The Elo gain of H0
+     * @param elo1  The Elo gain of H1, greater than {@code elo0}
+     * @param alpha The probability of accepting H1 when H0 is true
+     * @param beta  The probability of accepting H0 when H1 is true
+     */
+    public Sprt(double elo0, double elo1, double alpha, double beta) {
+        if (elo1 <= elo0 || alpha <= 0 || alpha >= 1 || beta <= 0 || beta >= 1)
+            throw new IllegalArgumentException("An SPRT needs elo0 < elo1 and error rates between 0 and 1");
+        mElo0 = elo0;
+        mElo1 = elo1;
+        mLowerBound = Math.log(beta / (1 - alpha));
+        mUpperBound = Math.log((1 - beta) / alpha);
+    }
+
+    /**
+     * Add the results of a pair of games.
+     *
+     * @param first  The result of the first game of the pair
+     * @param second The result of the second game of the pair
+     * @param newIsRedFirst Whether NEW played red in the first game (and black in the second)
+     */
+    public void addPair(int first, int second, boolean newIsRedFirst) {
+        mScore.add(first, newIsRedFirst);
+        mScore.add(second, !newIsRedFirst);
+        mPairs[getHalfPoints(first, newIsRedFirst) + getHalfPoints(second, !newIsRedFirst)]++;
+    }
+
+    /**
+     * Get the log-likelihood ratio of H1 against H0.
+     *
+     * @return The LLR, or 0 if no pair is played or all pairs scored the same.
+     */
+    public double getLlr() {
+        long pairs = getPairs();
+        if (pairs == 0) return 0;
+        double mean = 0, variance = 0;
+        for (int i = 0; i < mPairs.length; i++) mean += mPairs[i] * (i / 4.0);
+        mean /= pairs;
+        for (int i = 0; i < mPairs.length; i++) variance += mPairs[i] * Math.pow(i / 4.0 - mean, 2);
+        variance /= pairs;
+        if (variance == 0) return 0;
+        double s0 = toPoints(mElo0), s1 = toPoints(mElo1);
+        return pairs * (s1 - s0) * (2 * mean - s0 - s1) / (2 * variance);
+    }
+
+    /**
+     * Get the decision of the test so far.
+     *
+     * @return {@link #fAcceptH1}, {@link #fAcceptH0} or {@link #fContinue}.
+     */
+    public int getDecision() {
+        double llr = getLlr();
+        return (llr >= mUpperBound) ? fAcceptH1 : (llr <= mLowerBound) ? fAcceptH0 : fContinue;
+    }
+
+    /**
+     * Get the number of pairs played.
+     *
+     * @return The number of pairs.
+     */
+    public long getPairs() {
+        long pairs = 0;
+        for (long count : mPairs) pairs += count;
+        return pairs;
+    }
+
+    /**
+     * Get the score of NEW game by game.
+     *
+     * @return The score.
+     */
+    public Tournament.Score getScore() {
+        return mScore;
+    }
+
+    /**
+     * Returns a line of the form
+     * {@code games 24 +5 -3 =16, 54.2%, Elo +29.0 +/- 50.1, llr 0.53 [-2.94, 2.94]}.
+     *
+     * @return A {@link String} of the test so far.
+     */
+    @Override
+    public String toString() {
+        return String.format("games %d %s, llr %.2f [%.2f, %.2f]",
+                mScore.getGames(), mScore, getLlr(), mLowerBound, mUpperBound);
+    }
+
+    /**
+     * Play pairs of games between 2 engine configurations until the test decides.
+     *
+     * @param engineNew The new engine configuration
+     * @param engineBase The base engine configuration
+     * @param openings  The openings, which are played in turn, one per pair
+     * @param maxPlies  The number of plies after which a game is a draw, at most {@link Tournament#fMaxPlies}
+     * @param maxGames  The number of games after which the match gives up
+     * @param threads   The number of pairs played at the same time
+     * @param log       A writer of the progress, or {@code null}
+     * @param out       A writer of the games, or {@code null}
+     * @return The decision, {@link #fContinue} if the match gave up.
+     * @throws IOException if the progress or a game cannot be written.
+     * @throws IllegalArgumentException if an opening is longer than {@code maxPlies},
+     *                                  or {@code maxPlies} is out of range.
+     */
+    public int run(EngineConfig engineNew, EngineConfig engineBase, List<int[]> openings, int maxPlies,
+                   int maxGames, int threads, Writer log, Writer out) throws IOException {
+        for (int[] opening : openings) Tournament.checkOpening(opening, maxPlies);
+        ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "sprt-pair");
+            t.setDaemon(true);
+            return t;
+        });
+        CompletionService<GameRecord[]> done = new ExecutorCompletionService<>(pool);
+        int submitted = 0, running = 0;
+        try {
+            while (getDecision() == fContinue && (running > 0 || 2 * submitted < maxGames)) {
+                // keep every thread busy with a pair
+                while (running < threads && 2 * submitted < maxGames) {
+                    final int[] opening = openings.get(submitted % openings.size());
+                    done.submit(() -> playPair(engineNew, engineBase, opening, maxPlies));
+                    submitted++;
+                    running++;
+                }
+                Future<GameRecord[]> future = done.take();
+                running--;
+                GameRecord pair[] = future.get();
+                addPair(pair[0].getResult(), pair[1].getResult(), true);
+                if (out != null) {
+                    out.write(String.format("# red %s, black %s%n%s%n", engineNew.getName(),
+                            engineBase.getName(), pair[0]));
+                    out.write(String.format("# red %s, black %s%n%s%n", engineBase.getName(),
+                            engineNew.getName(), pair[1]));
+                }
+                String line = toString();
+                System.out.println(line);
+                if (log != null) {
+                    log.write(line);
+                    log.write(System.lineSeparator());
+                    log.flush();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("The SPRT is interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("A game failed", e.getCause());
+        } finally {
+            // abandon the pairs still being played
+            pool.shutdownNow();
+            if (out != null) out.flush();
+        }
+        return getDecision();
+    }
+
+    /**
+     * Play a pair of games from an opening: NEW plays red in the first game and black in the second.
+     *
+     * @param engineNew  The new engine configuration
+     * @param engineBase The base engine configuration
+     * @param opening    The opening
+     * @param maxPlies   The number of plies after which a game is a draw
+     * @return The 2 games.
+     * @throws InterruptedException if the pair is abandoned after the first game.
+     */
+    private static GameRecord[] playPair(EngineConfig engineNew, EngineConfig engineBase, int[] opening,
+                                         int maxPlies) throws InterruptedException {
+        GameRecord first = Tournament.playGame(engineNew, engineBase, opening, maxPlies);
+        if (Thread.interrupted()) throw new InterruptedException("The pair is abandoned");
+        GameRecord second = Tournament.playGame(engineBase, engineNew, opening, maxPlies);
+        return new GameRecord[]{first, second};
+    }
+
+    /**
+     * Get the half points NEW got in a game.
+     *
+     * @param result The result of the game
+     * @param newIsRed Whether NEW played red
+     * @return 0, 1 or 2.
+     */
+    private static int getHalfPoints(int result, boolean newIsRed) {
+        if (result == GameRecord.fDraw) return 1;
+        return ((result == GameRecord.fRedWins) == newIsRed) ? 2 : 0;
+    }
+
+    /**
+     * Convert an Elo difference to the expected points per game in the logistic model.
+     *
+     * @param elo The Elo difference
+     * @return The points per game from 0 to 1.
+     */
+    private static double toPoints(double elo) {
+        return 1 / (1 + Math.pow(10, -elo / 400));
+    }
+
+    /**
+     * Run an SPRT match from the command line, see the usage above.
+     *
+     * @param args The command line arguments.
+     * @throws IOException if a file cannot be read or written.
+     */
+    public static void main(String[] args) throws IOException {
+        double elo0 = 0, elo1 = 5, alpha = 0.05, beta = 0.05;
+        int games = 20000, threads = Runtime.getRuntime().availableProcessors(), randomPlies = 8;
+        int maxPlies = Tournament.fDefaultMaxPlies;
+        long seed = 1;
+        File openingsFile = null, logFile = new File("sprt.log"), outFile = null;
+        EngineConfig engines[] = new EngineConfig[2];
+        int engineCount = 0;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "elo0":
+                    elo0 = Double.parseDouble(args[i + 1]);
+                    break;
+                case "elo1":
+                    elo1 = Double.parseDouble(args[i + 1]);
+                    break;
+                case "alpha":
+                    alpha = Double.parseDouble(args[i + 1]);
+                    break;
+                case "beta":
+                    beta = Double.parseDouble(args[i + 1]);
+                    break;
+                case "games":
+                    games = Integer.parseInt(args[i + 1]);
+                    break;
+                case "threads":
+                    threads = Integer.parseInt(args[i + 1]);
+                    break;
+                case "openings":
+                    openingsFile = new File(args[i + 1]);
+                    break;
+                case "random":
+                    randomPlies = Integer.parseInt(args[i + 1]);
+                    break;
+                case "seed":
+                    seed = Long.parseLong(args[i + 1]);
+                    break;
+                case "plies":
+                    maxPlies = Integer.parseInt(args[i + 1]);
+                    break;
+                case "log":
+                    logFile = new File(args[i + 1]);
+                    break;
+                case "out":
+                    outFile = new File(args[i + 1]);
+                    break;
+                case "engine":
+                    if (engineCount < 2) engines[engineCount] = EngineConfig.parse(args[i + 1]);
+                    engineCount++;
+                    break;
+                default:
+                    System.err.println("unknown argument: " + args[i]);
+                    System.exit(1);
+            }
+        }
+        if (maxPlies < 1 || maxPlies > Tournament.fMaxPlies) {
+            System.err.println("plies must be from 1 to " + Tournament.fMaxPlies);
+            System.exit(1);
+        }
+        if (engineCount != 2) {
+            System.err.println("usage: java Sprt [elo0 E0] [elo1 E1] [alpha A] [beta B] [games N] [threads T]");
+            System.err.println("                 [openings FILE] [random P] [seed S] [plies M] [log FILE] [out FILE]");
+            System.err.println("                 engine NEW engine BASE");
+            System.exit(1);
+        }
+
+        List<int[]> openings = (openingsFile != null) ? Tournament.readOpenings(openingsFile) :
+                Tournament.randomOpenings((games + 1) / 2, randomPlies, seed);
+        Sprt sprt = new Sprt(elo0, elo1, alpha, beta);
+        int decision;
+        try (PrintWriter log = new PrintWriter(new BufferedWriter(new FileWriter(logFile, true)));
+             Writer out = (outFile != null) ? new BufferedWriter(new FileWriter(outFile)) : null) {
+            String header = String.format("# sprt %s vs %s, elo0 %.1f, elo1 %.1f, alpha %.3f, beta %.3f",
+                    engines[0], engines[1], elo0, elo1, alpha, beta);
+            System.out.println(header);
+            log.println(header);
+            decision = sprt.run(engines[0], engines[1], openings, maxPlies, games, threads, log, out);
+            String result = (decision == fAcceptH1) ? "H1 accepted" :
+                    (decision == fAcceptH0) ? "H0 accepted" : "no decision";
+            System.out.println(result);
+            log.println(result);
+        }
+        System.exit((decision == fAcceptH1) ? 0 : (decision == fAcceptH0) ? 1 : 2);
+    }
+}
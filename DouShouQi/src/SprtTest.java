@@ -0,0 +1,89 @@
+//------------------------------------------------------------------------------
+//  File       : SprtTest.java
+//  Course     : CSC610
+//  Date:      : 10/18/2026
+//  Author     : Jason Qiao Meng
+//  Author ID  : 10652564
+//  Description: This file contains unit tests against Sprt.java
+//------------------------------------------------------------------------------
+
+import org.junit.Test;
+
+import java.io.StringWriter;
+
+import static org.junit.Assert.*;
+
+
+/**
+ * A unit test class against class {@link Sprt}
+ */
+public class SprtTest {
+
+    /**
+     * Test the log-likelihood ratio and the decisions of known pairs.
+     */
+    @Test
+    public void testDecision() {
+        System.out.println("Test the log-likelihood ratio and the decisions of known pairs");
+
+        // an even score favors H0: elo 0
+        Sprt even = new Sprt(0, 5, 0.05, 0.05);
+        for (int i = 0; i < 500; i++) {
+            even.addPair(GameRecord.fRedWins, GameRecord.fBlackWins, true);
+            even.addPair(GameRecord.fRedWins, GameRecord.fBlackWins, false);
+            for (int j = 0; j < 10; j++) even.addPair(GameRecord.fDraw, GameRecord.fDraw, j % 2 == 0);
+        }
+        // 5 points of 8 are about +89 Elo, far beyond H1: elo 5
+        Sprt ahead = new Sprt(0, 5, 0.05, 0.05);
+        boolean undecided = ahead.getDecision() == Sprt.fContinue && ahead.getLlr() == 0;
+        for (int i = 0; i < 200; i++) {
+            ahead.addPair(GameRecord.fRedWins, GameRecord.fDraw, true);
+            ahead.addPair(GameRecord.fDraw, GameRecord.fBlackWins, i % 2 == 0);
+        }
+        System.out.println(even + "; " + ahead);
+
+        boolean actual = undecided && even.getPairs() == 6000 && even.getScore().getGames() == 12000 &&
+                even.getLlr() < 0 && even.getDecision() == Sprt.fAcceptH0 &&
+                ahead.getLlr() > 0 && ahead.getDecision() == Sprt.fAcceptH1 &&
+                ahead.getScore().getWins() == 300 && ahead.getScore().getDraws() == 400 &&
+                ahead.getScore().getLosses() == 100;
+        try {
+            new Sprt(5, 0, 0.05, 0.05);
+            actual = false;
+        } catch (IllegalArgumentException e) {
+            // H1 must gain more than H0
+        }
+
+        String msg = "The decisions are correct? Expected: %1$b, Actual: %2$b";
+        msg = String.format(msg, true, actual);
+        assertTrue(msg, actual);
+    }
+
+
+    /**
+     * Test whether a short match plays pairs until it gives up and logs every pair.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testRun() throws Exception {
+        System.out.println("Test whether a short match plays pairs and logs every pair");
+
+        Sprt sprt = new Sprt(0, 5, 0.05, 0.05);
+        StringWriter log = new StringWriter(), out = new StringWriter();
+        int decision = sprt.run(EngineConfig.parse("new:depth=2"), EngineConfig.parse("base:depth=1"),
+                Tournament.randomOpenings(3, 6, 1), 40, 6, 2, log, out);
+
+        String logLines[] = log.toString().split("\\R"), outLines[] = out.toString().split("\\R");
+        boolean colorsSwapped = outLines[0].equals("# red new, black base") &&
+                outLines[2].equals("# red base, black new");
+
+        // 6 games cannot decide between elo 0 and 5
+        boolean actual = decision == Sprt.fContinue && sprt.getPairs() == 3 &&
+                logLines.length == 3 && logLines[2].startsWith("games 6 ") &&
+                outLines.length == 12 && colorsSwapped;
+        String msg = "All pairs are played and logged? Expected: %1$b, Actual: %2$b";
+        msg = String.format(msg, true, actual);
+        assertTrue(msg, actual);
+    }
+}
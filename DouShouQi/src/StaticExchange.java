@@ -0,0 +1,115 @@
+//------------------------------------------------------------------------------
+//  File       : StaticExchange.java
+//  Course     : DouShouQi
+//  Date:      : 10/18/2026
+//  Author     : Jason Qiao Meng
+//  Author ID  : 10652564
+//  Description: This file contains the static exchange evaluation (SEE) of
+//               captures on a DouShouQi board.
+//------------------------------------------------------------------------------
+
+/**
+ * The static exchange evaluation of a capture: the material won or lost when both sides keep taking
+ * back on the cell of the capture, least valuable attacker first, and either side may stop.
+ * <pre>
+ *     Rules:
+ *         1. Every take is checked by the capture rules of {@link Board}, on the cells where the pieces
+ *            stand: a piece on a trap may be taken by any enemy piece, a rat in water can't take
+ *            an elephant on land, only a rat takes a rat in water, a rat takes an elephant, etc.
+ *         2. Only a rat steps into water, and a tiger or lion jumps across a river only if no piece
+ *            stands in it. A rat which leaves the river to take opens it for the jumps that follow.
+ *         3. The values of the pieces are those of {@link Engine#fRankValues}.
+ *
+ *     Note:
+ *         The evaluation reads the board and changes nothing; it allocates nothing either.
+ * </pre>
+ */
+public final class StaticExchange {
+
+    /**
+     * The size of the gain buffer: the first capture and at most one take back by each of the other pieces
+     */
+    private static final int fMaxTakes = 2 * Board.rElephant + 1;
+
+    /**
+     * The gains of the takes of an exchange, one buffer per thread
+     */
+    private static final ThreadLocal<int[]> fGains = ThreadLocal.withInitial(() -> new int[fMaxTakes]);
+
+
+    /**
+     * Not to be instantiated.
+     */
+    private StaticExchange() {
+    }
+
+    /**
+     * Evaluate a move by the exchange it starts on its target cell.
+     *
+     * @param board The board before the move
+     * @param move  A legal packed move of the side whose turn it is
+     * @return The material won, e.g. the value of the victim if it can't be taken back,
+     * or less than 0 if the move loses material; 0 for a quiet move which can't be taken.
+     */
+    public static int evaluate(Board board, int move) {
+        int gains[] = fGains.get();
+        int from = Board.moveFrom(move), to = Board.moveTo(move);
+        int occupant = Board.movePiece(move);
+        int captured = Board.moveCaptured(move);
+        long occupied = (board.mRedBits | board.mBlackBits) & ~(1L << from);
+        boolean black = occupant <= Board.rElephant;
+        gains[0] = (captured == Board.rbNone) ? 0 : value(captured);
+        int takes = 0;
+        while (takes + 1 < fMaxTakes) {
+            int attackerSquare = getLeastValuableAttacker(board, to, occupant, black, occupied);
+            if (attackerSquare < 0) break;
+            takes++;
+            // the gain if the exchange stops here, i.e. the occupant is taken
+            gains[takes] = value(occupant) - gains[takes - 1];
+            occupant = board.mSquares[attackerSquare];
+            occupied &= ~(1L << attackerSquare);
+            black = !black;
+        }
+        // either side stops the exchange when taking on loses more
+        while (takes > 0) {
+            gains[takes - 1] = -Math.max(-gains[takes - 1], gains[takes]);
+            takes--;
+        }
+        return gains[0];
+    }
+
+    /**
+     * Find the least valuable piece of a side which can take the occupant of a cell.
+     *
+     * @param board    The board
+     * @param to       The cell of the occupant
+     * @param occupant The piece on the cell during the exchange
+     * @param black    Whether the attackers are black's
+     * @param occupied The cells still occupied during the exchange
+     * @return The cell of the attacker, or -1 if there is none.
+     */
+    private static int getLeastValuableAttacker(Board board, int to, int occupant, boolean black, long occupied) {
+        long attackers = board.getAttackers(to, black, occupied);
+        int best = -1, bestValue = Integer.MAX_VALUE;
+        while (attackers != 0) {
+            int sq = Long.numberOfTrailingZeros(attackers);
+            attackers &= attackers - 1;
+            int piece = board.mSquares[sq];
+            if (value(piece) < bestValue && Board.isCaptureAllowed(piece, occupant, sq, to)) {
+                best = sq;
+                bestValue = value(piece);
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Get the material value of a piece.
+     *
+     * @param p A piece other than {@link Board#rbNone}
+     * @return The value.
+     */
+    private static int value(int p) {
+        return Engine.fRankValues[(p - 1) % Board.rElephant + 1];
+    }
+}
@@ -0,0 +1,87 @@
+//------------------------------------------------------------------------------
+//  File       : StaticExchangeTest.java
+//  Course     : CSC610
+//  Date:      : 10/18/2026
+//  Author     : Jason Qiao Meng
+//  Author ID  : 10652564
+//  Description: This file contains unit tests against StaticExchange.java
+//------------------------------------------------------------------------------
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+
+/**
+ * A unit test class against class {@link StaticExchange}
+ */
+public class StaticExchangeTest {
+
+    /**
+     * Set up a board with the given pieces, black to move.
+     *
+     * @param placements Pairs of a piece and its cell number
+     * @return The board.
+     */
+    private static Board setUp(int... placements) {
+        int squares[] = new int[Board.bElephant + 1];
+        Arrays.fill(squares, -1);
+        for (int i = 0; i < placements.length; i += 2) squares[placements[i]] = placements[i + 1];
+        return new Board(squares, true);
+    }
+
+
+    /**
+     * Test exchanges on a trap, where any piece takes the trapped one, and next to the river,
+     * where a rat in the water can't take an elephant on land.
+     */
+    @Test
+    public void testTrapAndWater() {
+        System.out.println("Test exchanges on a trap and next to the river");
+
+        // the black cat takes the red lion on the trap at (7, 3), then the red dog takes the cat there
+        Board trap = setUp(Board.rLion, 52, Board.bCat, 51, Board.rDog, 53);
+        int onTrap = StaticExchange.evaluate(trap, Board.packMove(51, 52, Board.bCat, Board.rLion));
+        // the black elephant takes the red wolf at (2, 1), next to a red rat on land or in the water at (3, 1)
+        Board land = setUp(Board.bElephant, 8, Board.rWolf, 15, Board.rRat, 14);
+        Board water = setUp(Board.bElephant, 8, Board.rWolf, 15, Board.rRat, 22);
+        int elephantTakesWolf = Board.packMove(8, 15, Board.bElephant, Board.rWolf);
+        int fromLand = StaticExchange.evaluate(land, elephantTakesWolf);
+        int fromWater = StaticExchange.evaluate(water, elephantTakesWolf);
+        System.out.println("trap " + onTrap + ", rat on land " + fromLand + ", rat in water " + fromWater);
+
+        boolean actual = onTrap == 800 - 150 && fromLand == 250 - 900 && fromWater == 250;
+        String msg = "The exchanges are correct? Expected: %1$b, Actual: %2$b";
+        msg = String.format(msg, true, actual);
+        assertTrue(msg, actual);
+    }
+
+
+    /**
+     * Test whether a lion takes back across the river unless a rat blocks the jump,
+     * and whether a rat leaving the river opens it.
+     */
+    @Test
+    public void testRiverJump() {
+        System.out.println("Test whether a lion takes back across the river unless a rat blocks it");
+
+        // the black dog takes the red cat at (6, 1); the red lion at (2, 1) may jump down to it
+        int dogTakesCat = Board.packMove(44, 43, Board.bDog, Board.rCat);
+        Board open = setUp(Board.bDog, 44, Board.rCat, 43, Board.rLion, 15);
+        Board blocked = setUp(Board.bDog, 44, Board.rCat, 43, Board.rLion, 15, Board.bRat, 29);
+        // the black rat leaves the river at (5, 1) to take the red cat, and the lion takes it back
+        Board opened = setUp(Board.bRat, 36, Board.rCat, 43, Board.rLion, 15);
+        int ratTakesCat = Board.packMove(36, 43, Board.bRat, Board.rCat);
+        int jump = StaticExchange.evaluate(open, dogTakesCat);
+        int noJump = StaticExchange.evaluate(blocked, dogTakesCat);
+        int ratLeaves = StaticExchange.evaluate(opened, ratTakesCat);
+        System.out.println("open " + jump + ", blocked " + noJump + ", rat leaves " + ratLeaves);
+
+        boolean actual = jump == 150 - 200 && noJump == 150 && ratLeaves == 150 - 300;
+        String msg = "The river jumps are correct? Expected: %1$b, Actual: %2$b";
+        msg = String.format(msg, true, actual);
+        assertTrue(msg, actual);
+    }
+}
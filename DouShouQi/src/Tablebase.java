@@ -0,0 +1,313 @@
+//------------------------------------------------------------------------------
+//  File       : Tablebase.java
+//  Course     : DouShouQi
+//  Date:      : 10/18/2026
+//  Author     : Jason Qiao Meng
+//  Author ID  : 10652564
+//  Description: This file contains the probe of the endgame tablebase of DouShouQi,
+//               which is generated by TablebaseGenerator.java.
+//------------------------------------------------------------------------------
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * An endgame tablebase: the exact value of every position with few pieces, read from
+ * memory-mapped files generated by {@link TablebaseGenerator}.
+ * <pre>
+ *     Files:
+ *         1. One file per signature, i.e. the set of pieces on the board, e.g. {@code Lvr.dtb}
+ *            for red lion against black rat (see {@link #getName(int)}).
+ *         2. A file is a header of {@link #fHeaderSize} bytes followed by one byte per index
+ *            (see {@link #indexOf(Board, int)}). The byte is the value of the position:
+ *
+ *            0           a draw, neither side can force a win
+ *            1 - 127     the side to move wins in that many plies (odd)
+ *            128 - 254   the side to move loses in (value - 128) plies (even)
+ *            255         not a position, e.g. 2 pieces in one cell
+ *
+ *     Note:
+ *         A file is mapped by {@link FileChannel#map} the first time it is probed and stays mapped.
+ *         Probes allocate nothing and may run on many threads at the same time.
+ * </pre>
+ */
+public class Tablebase {
+
+    /**
+     * The maximum number of pieces of a signature, both sides together.
+     * A table of n pieces takes {@code 2 * 63^n} bytes, 31.5 MB for 4 pieces.
+     */
+    public static final int fMaxPieces = 4;
+    /**
+     * The value of a draw
+     */
+    public static final int fDraw = 0;
+    /**
+     * The value of a loss in 0 plies, i.e. the game is over and the side to move has lost
+     */
+    public static final int fLoss = 128;
+    /**
+     * The value of something which is not a position
+     */
+    public static final int fIllegal = 255;
+    /**
+     * The result of a probe of a position which is not in the tablebase
+     */
+    public static final int fNotFound = -1;
+    /**
+     * The magic number at the start of a file, "DSTB"
+     */
+    static final int fMagic = 0x44535442;
+    /**
+     * The version of the file format
+     */
+    static final int fVersion = 1;
+    /**
+     * The size of the header of a file: magic, version, signature and piece count as 4 ints
+     */
+    static final int fHeaderSize = 16;
+    /**
+     * The letters of the pieces indexed by rank, for the names of the signatures:
+     * Rat, Cat, Dog, Wolf, Panther (leopard), Tiger, Lion, Elephant.
+     */
+    private static final String fPieceLetters = " RCDWPTLE";
+    /**
+     * The suffix of the file names
+     */
+    static final String fSuffix = ".dtb";
+    /**
+     * The mapped table of a signature whose file doesn't exist
+     */
+    private static final ByteBuffer fMissing = ByteBuffer.allocate(0);
+
+    /**
+     * The directory of the files
+     */
+    private final File mDirectory;
+    /**
+     * The mapped tables indexed by signature, {@link #fMissing}, or {@code null} until first probed.
+     * A plain array of signatures, so that a probe neither boxes nor hashes its signature.
+     */
+    private final AtomicReferenceArray<ByteBuffer> mTables = new AtomicReferenceArray<>(1 << (Board.bElephant + 1));
+
+
+    /**
+     * Create a tablebase of the files in a directory. The files are mapped when they are probed.
+     *
+     * @param directory The directory of the files
+     */
+    public Tablebase(File directory) {
+        if (directory == null)
+            throw new IllegalArgumentException("The given tablebase directory is null");
+        mDirectory = directory;
+    }
+
+    /**
+     * Look up the value of a position.
+     *
+     * @param board The board of the position
+     * @return The value (see above), or {@link #fNotFound} if the position is not in the tablebase.
+     */
+    public int probe(Board board) {
+        if (board.countRed() + board.countBlack() > fMaxPieces) return fNotFound;
+        int signature = signatureOf(board);
+        int value = probe(signature, indexOf(board, signature));
+        return (value == fIllegal) ? fNotFound : value;
+    }
+
+    /**
+     * Look up the value of an index of a signature.
+     *
+     * @param signature The signature
+     * @param index     The index of the position, see {@link #indexOf(Board, int)}
+     * @return The value (see above), or {@link #fNotFound} if there is no table of the signature.
+     */
+    int probe(int signature, int index) {
+        ByteBuffer table = mTables.get(signature);
+        if (table == null) table = getTable(signature);
+        if (table == fMissing) return fNotFound;
+        return table.get(fHeaderSize + index) & 0xff;
+    }
+
+    /**
+     * Forget that the table of a signature is missing, after it has been generated.
+     *
+     * @param signature The signature
+     */
+    void refresh(int signature) {
+        mTables.compareAndSet(signature, fMissing, null);
+    }
+
+    /**
+     * Map the table of a signature the first time it is probed. A table is mapped only once,
+     * even if many threads probe it at the same time.
+     *
+     * @param signature The signature
+     * @return The table, or {@link #fMissing} if its file doesn't exist.
+     */
+    private synchronized ByteBuffer getTable(int signature) {
+        ByteBuffer table = mTables.get(signature);
+        if (table == null) {
+            table = map(signature);
+            mTables.set(signature, table);
+        }
+        return table;
+    }
+
+    /**
+     * Test whether a value is a win of the side to move.
+     *
+     * @param value A value of a position
+     * @return Returns {@code true} if the side to move wins; {@code false} otherwise.
+     */
+    public static boolean isWin(int value) {
+        return value > fDraw && value < fLoss;
+    }
+
+    /**
+     * Test whether a value is a loss of the side to move.
+     *
+     * @param value A value of a position
+     * @return Returns {@code true} if the side to move loses; {@code false} otherwise.
+     */
+    public static boolean isLoss(int value) {
+        return value >= fLoss && value < fIllegal;
+    }
+
+    /**
+     * Get the number of plies to the end of the game of a win or a loss.
+     *
+     * @param value A value of a position which is a win or a loss
+     * @return The number of plies.
+     */
+    public static int getDistance(int value) {
+        return (value >= fLoss) ? value - fLoss : value;
+    }
+
+    /**
+     * Get the signature of a board: a bit mask with bit p set for every piece p on the board.
+     *
+     * @param board The board
+     * @return The signature.
+     */
+    static int signatureOf(Board board) {
+        int signature = 0;
+        for (int p = Board.rRat; p <= Board.bElephant; p++)
+            if (board.getSquare(p) >= 0) signature |= 1 << p;
+        return signature;
+    }
+
+    /**
+     * Get the index of a position in the table of its signature. The pieces in ascending order of
+     * value are the digits of a number in base {@link Board#fCells}, the lowest digit first,
+     * and black's turn adds one more digit.
+     *
+     * @param board     The board of the position
+     * @param signature The signature of the board, see {@link #signatureOf(Board)}
+     * @return The index.
+     */
+    static int indexOf(Board board, int signature) {
+        int index = 0, weight = 1;
+        for (int bits = signature; bits != 0; bits &= bits - 1) {
+            index += board.getSquare(Integer.numberOfTrailingZeros(bits)) * weight;
+            weight *= Board.fCells;
+        }
+        return board.mBlacksTurn ? index + weight : index;
+    }
+
+    /**
+     * Get the number of indexes of a signature.
+     *
+     * @param signature The signature
+     * @return The number of indexes, {@code 2 * 63^n} for n pieces.
+     */
+    static int sizeOf(int signature) {
+        int size = 2;
+        for (int i = Integer.bitCount(signature); i > 0; i--) size *= Board.fCells;
+        return size;
+    }
+
+    /**
+     * Get the name of a signature: the red pieces in upper case, "v", and the black pieces
+     * in lower case, e.g. {@code LEvr} for red lion and elephant against black rat.
+     *
+     * @param signature The signature
+     * @return The name.
+     */
+    public static String getName(int signature) {
+        StringBuilder sb = new StringBuilder();
+        for (int p = Board.rRat; p <= Board.rElephant; p++)
+            if ((signature & (1 << p)) != 0) sb.append(fPieceLetters.charAt(p));
+        sb.append('v');
+        for (int p = Board.bRat; p <= Board.bElephant; p++)
+            if ((signature & (1 << p)) != 0)
+                sb.append(Character.toLowerCase(fPieceLetters.charAt(p - Board.rElephant)));
+        return sb.toString();
+    }
+
+    /**
+     * Parse the name of a signature, see {@link #getName(int)}.
+     *
+     * @param name The name
+     * @return The signature.
+     * @throws IllegalArgumentException if the name is not that of a signature.
+     */
+    public static int parseName(String name) {
+        int v = name.indexOf('v');
+        if (v < 1 || v == name.length() - 1)
+            throw new IllegalArgumentException("Not a tablebase signature: " + name);
+        int signature = 0;
+        for (int i = 0; i < name.length(); i++) {
+            if (i == v) continue;
+            char c = name.charAt(i);
+            int rank = fPieceLetters.indexOf(Character.toUpperCase(c));
+            boolean black = i > v;
+            if (rank < 1 || Character.isUpperCase(c) == black)
+                throw new IllegalArgumentException("Not a tablebase signature: " + name);
+            signature |= 1 << (black ? rank + Board.rElephant : rank);
+        }
+        if (Integer.bitCount(signature) > fMaxPieces)
+            throw new IllegalArgumentException("Too many pieces for the tablebase: " + name);
+        return signature;
+    }
+
+    /**
+     * Get the file of a signature.
+     *
+     * @param signature The signature
+     * @return The file, which may not exist.
+     */
+    File getFile(int signature) {
+        return new File(mDirectory, getName(signature) + fSuffix);
+    }
+
+    /**
+     * Map the file of a signature and check its header.
+     *
+     * @param signature The signature
+     * @return The mapped file, or {@link #fMissing} if there is no file.
+     * @throws UncheckedIOException if the file cannot be read or is not the table of the signature.
+     */
+    private ByteBuffer map(int signature) {
+        File file = getFile(signature);
+        if (!file.isFile()) return fMissing;
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+             FileChannel channel = raf.getChannel()) {
+            // the mapping stays valid after the channel is closed
+            MappedByteBuffer table = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (table.capacity() != fHeaderSize + sizeOf(signature) ||
+                    table.getInt(0) != fMagic || table.getInt(4) != fVersion ||
+                    table.getInt(8) != signature || table.getInt(12) != Integer.bitCount(signature))
+                throw new IOException("Not a tablebase file of " + getName(signature) + ": " + file);
+            return table;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,418 @@
+//------------------------------------------------------------------------------
+//  File       : TablebaseGenerator.java
+//  Course     : DouShouQi
+//  Date:      : 10/18/2026
+//  Author     : Jason Qiao Meng
+//  Author ID  : 10652564
+//  Description: This file contains the generator of the endgame tablebase of DouShouQi
+//               by retrograde analysis.
+//------------------------------------------------------------------------------
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Generate the files of a {@link Tablebase} by retrograde analysis.
+ * <pre>
+ *     Usage:
+ *         java TablebaseGenerator directory threads all K      every signature with 1 to K pieces
+ *                                                               per side, at most Tablebase.fMaxPieces
+ *         java TablebaseGenerator directory threads LvE Lve ...  the given signatures
+ *
+ *     How it works:
+ *         1. The tables which a capture leads to (one piece less) are generated first,
+ *            unless their files exist. A capture of the last piece of a side is a win.
+ *         2. Pass 0 marks what is not a position, and the positions which are lost right away:
+ *            the den is entered by the other side, or there is no legal move.
+ *         3. Pass n resolves a win in n plies if a move leads to a loss in n - 1 plies,
+ *            or a loss in n plies if every move leads to a win and the slowest is in n - 1 plies.
+ *            The passes go on until 2 passes in a row resolve nothing, after the longest
+ *            distance of the smaller tables. What is left is a draw.
+ *         4. Every pass splits the indexes among the threads. A value written in pass n
+ *            is never read as a resolved value in the same pass, so the passes are deterministic.
+ *
+ *     Note:
+ *         The moves come from {@link Board#generateMoves(int[])}, i.e. the rules of
+ *         {@link Board#isValidMove(int, int, int, int)}, and the lost positions are those of
+ *         {@link Engine#isLost(Board)}, so the values agree with the search.
+ * </pre>
+ */
+public class TablebaseGenerator implements AutoCloseable {
+
+    /**
+     * The number of indexes of one task of a pass
+     */
+    private static final int fChunkSize = 1 << 16;
+    /**
+     * The longest distance a value can hold
+     */
+    private static final int fMaxDistance = Tablebase.fIllegal - 1 - Tablebase.fLoss;
+
+    /**
+     * A listener which is told about every table generated.
+     */
+    public interface Listener {
+        /**
+         * Called after the file of a table is written.
+         *
+         * @param signature The signature of the table
+         * @param positions The number of positions of the table
+         * @param passes    The number of passes which resolved the table
+         * @param millis    The time spent in milliseconds
+         */
+        void onTable(int signature, int positions, int passes, long millis);
+    }
+
+    /**
+     * The tablebase of the files generated so far
+     */
+    private final Tablebase mTablebase;
+    /**
+     * The threads of the passes
+     */
+    private final ExecutorService mPool;
+    /**
+     * The listener of the tables generated, or {@code null}.
+     */
+    private Listener mListener = null;
+
+
+    /**
+     * Create a generator which writes to a directory.
+     *
+     * @param directory The directory of the files, which is created if it doesn't exist.
+     * @param threads   The number of threads, at least 1.
+     */
+    public TablebaseGenerator(File directory, int threads) {
+        if (threads < 1)
+            throw new IllegalArgumentException("A generator needs at least 1 thread");
+        if (!directory.isDirectory() && !directory.mkdirs())
+            throw new UncheckedIOException(new IOException("Cannot create directory " + directory));
+        mTablebase = new Tablebase(directory);
+        mPool = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "tablebase-generator");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Get the tablebase of the files generated so far.
+     *
+     * @return The tablebase.
+     */
+    public Tablebase getTablebase() {
+        return mTablebase;
+    }
+
+    /**
+     * Set the listener which is told about every table generated, e.g. to show the progress.
+     *
+     * @param listener A listener or {@code null}.
+     */
+    public void setListener(Listener listener) {
+        mListener = listener;
+    }
+
+    /**
+     * Generate every signature with 1 to {@code maxPerSide} pieces per side, as far as
+     * {@link Tablebase#fMaxPieces} allows. Existing files are kept.
+     *
+     * @param maxPerSide The maximum number of pieces of a side
+     */
+    public void generateAll(int maxPerSide) {
+        for (int total = 2; total <= Tablebase.fMaxPieces; total++) {
+            for (int signature = 0; signature < 1 << (Board.bElephant + 1); signature += 2) {
+                int red = Integer.bitCount(signature & getSideMask(false));
+                int black = Integer.bitCount(signature & getSideMask(true));
+                if (red + black == total && red >= 1 && black >= 1 && red <= maxPerSide && black <= maxPerSide)
+                    generate(signature);
+            }
+        }
+    }
+
+    /**
+     * Generate the table of a signature, and first the smaller tables it depends on,
+     * unless their files exist.
+     *
+     * @param signature The signature, with at least one piece of each side
+     */
+    public void generate(int signature) {
+        if (mTablebase.getFile(signature).isFile()) return;
+        for (int bits = signature; bits != 0; bits &= bits - 1) {
+            int smaller = signature & ~Integer.lowestOneBit(bits);
+            if ((smaller & getSideMask(false)) != 0 && (smaller & getSideMask(true)) != 0)
+                generate(smaller);
+        }
+
+        long start = System.currentTimeMillis();
+        byte values[] = new byte[Tablebase.sizeOf(signature)];
+        int longest = 0;
+        for (int bits = signature; bits != 0; bits &= bits - 1)
+            longest = Math.max(longest, getLongestDistance(signature & ~Integer.lowestOneBit(bits)));
+
+        runPass(signature, values, 0);
+        int idle = 0, pass = 1;
+        while (pass <= longest + 1 || idle < 2) {
+            if (pass > fMaxDistance)
+                throw new IllegalStateException("A distance of " + Tablebase.getName(signature) + " is too long");
+            idle = (runPass(signature, values, pass) == 0) ? idle + 1 : 0;
+            pass++;
+        }
+        write(signature, values);
+        if (mListener != null)
+            mListener.onTable(signature, values.length, pass, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Run one pass over all the indexes of a table with all the threads.
+     *
+     * @param signature The signature
+     * @param values    The values of the table
+     * @param pass      The pass
+     * @return The number of values resolved by the pass.
+     */
+    private long runPass(int signature, byte[] values, int pass) {
+        List<Callable<Long>> tasks = new ArrayList<>();
+        for (int from = 0; from < values.length; from += fChunkSize) {
+            final int begin = from, end = Math.min(values.length, from + fChunkSize);
+            tasks.add(() -> runPass(signature, values, pass, begin, end));
+        }
+        try {
+            long resolved = 0;
+            for (Future<Long> future : mPool.invokeAll(tasks)) resolved += future.get();
+            return resolved;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("The generation is interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("A generation task failed", e.getCause());
+        }
+    }
+
+    /**
+     * Run one pass over a range of the indexes of a table.
+     *
+     * @param signature The signature
+     * @param values    The values of the table
+     * @param pass      The pass
+     * @param begin     The first index
+     * @param end       The index after the last one
+     * @return The number of values resolved.
+     */
+    private long runPass(int signature, byte[] values, int pass, int begin, int end) {
+        int squares[] = new int[Board.bElephant + 1];
+        Arrays.fill(squares, -1);
+        Board board = new Board(squares, false);
+        int moves[] = new int[Board.fMaxMoves];
+        long resolved = 0;
+        for (int index = begin; index < end; index++) {
+            if (pass > 0 && values[index] != Tablebase.fDraw) continue;
+            int value = (pass == 0) ?
+                    getInitialValue(board, signature, index, squares, moves) :
+                    getPassValue(board, signature, index, squares, moves, values, pass);
+            if (value != Tablebase.fDraw) {
+                values[index] = (byte)value;
+                resolved++;
+            }
+        }
+        return resolved;
+    }
+
+    /**
+     * Get the value of an index in pass 0.
+     *
+     * @param board     A board to set up
+     * @param signature The signature
+     * @param index     The index
+     * @param squares   A buffer of a piece list
+     * @param moves     A buffer of moves
+     * @return {@link Tablebase#fIllegal}, {@link Tablebase#fLoss} or {@link Tablebase#fDraw} for unresolved.
+     */
+    private static int getInitialValue(Board board, int signature, int index, int[] squares, int[] moves) {
+        if (!setUp(board, signature, index, squares)) return Tablebase.fIllegal;
+        // the game ended before the side to move entered the other den, so there is no such position
+        if (board.mBlacksTurn ? board.isBlackWinner() : board.isRedWinner()) return Tablebase.fIllegal;
+        if (Engine.isLost(board) || board.generateMoves(moves) == 0) return Tablebase.fLoss;
+        return Tablebase.fDraw;
+    }
+
+    /**
+     * Get the value of an unresolved index in a pass after pass 0.
+     *
+     * @param board     A board to set up
+     * @param signature The signature
+     * @param index     The index
+     * @param squares   A buffer of a piece list
+     * @param moves     A buffer of moves
+     * @param values    The values of the table
+     * @param pass      The pass
+     * @return A win or a loss in {@code pass} plies, or {@link Tablebase#fDraw} for unresolved.
+     */
+    private int getPassValue(Board board, int signature, int index, int[] squares, int[] moves,
+                             byte[] values, int pass) {
+        setUp(board, signature, index, squares);
+        int count = board.generateMoves(moves);
+        boolean allWins = true;
+        int slowestWin = 0;
+        for (int i = 0; i < count; i++) {
+            int value = getChildValue(board, signature, moves[i], values);
+            if (Tablebase.isLoss(value)) {
+                if (Tablebase.getDistance(value) == pass - 1) return pass;
+                allWins = false;
+            } else if (Tablebase.isWin(value)) {
+                slowestWin = Math.max(slowestWin, value);
+            } else {
+                allWins = false;
+            }
+        }
+        return (allWins && slowestWin == pass - 1) ? Tablebase.fLoss + pass : Tablebase.fDraw;
+    }
+
+    /**
+     * Get the value of the position after a move, from the table being generated or a smaller one.
+     *
+     * @param board     The board before the move, which is left as it was
+     * @param signature The signature of the board
+     * @param move      The move
+     * @param values    The values of the table being generated
+     * @return The value of the position after the move.
+     */
+    private int getChildValue(Board board, int signature, int move, byte[] values) {
+        int captured = Board.moveCaptured(move);
+        int child = signature & ~(1 << captured);
+        // the last piece of a side is taken
+        if ((child & getSideMask(captured > Board.rElephant)) == 0) return Tablebase.fLoss;
+        board.makeMove(move);
+        int index = Tablebase.indexOf(board, child);
+        board.unmakeMove();
+        if (child == signature) return values[index] & 0xff;
+        int value = mTablebase.probe(child, index);
+        if (value == Tablebase.fNotFound)
+            throw new IllegalStateException("The table of " + Tablebase.getName(child) + " is missing");
+        return value;
+    }
+
+    /**
+     * Set up a board from an index.
+     *
+     * @param board     The board to set up
+     * @param signature The signature
+     * @param index     The index, see {@link Tablebase#indexOf(Board, int)}
+     * @param squares   A buffer of a piece list
+     * @return Returns {@code true} if it is a position; {@code false} if the pieces cannot be placed.
+     */
+    private static boolean setUp(Board board, int signature, int index, int[] squares) {
+        Arrays.fill(squares, -1);
+        for (int bits = signature; bits != 0; bits &= bits - 1) {
+            int sq = index % Board.fCells;
+            index /= Board.fCells;
+            int p = Integer.numberOfTrailingZeros(bits);
+            if (!Board.canStand(p, sq)) return false;
+            for (int q = Board.rRat; q < p; q++)
+                if (squares[q] == sq) return false;
+            squares[p] = sq;
+        }
+        board.setUp(squares, index == 1);
+        return true;
+    }
+
+    /**
+     * Get the longest distance of a win or a loss in the table of a signature.
+     *
+     * @param signature The signature, which may have no piece of a side
+     * @return The longest distance, or 0 if there is no table.
+     */
+    private int getLongestDistance(int signature) {
+        if ((signature & getSideMask(false)) == 0 || (signature & getSideMask(true)) == 0) return 0;
+        int longest = 0;
+        for (int index = Tablebase.sizeOf(signature) - 1; index >= 0; index--) {
+            int value = mTablebase.probe(signature, index);
+            if (Tablebase.isWin(value) || Tablebase.isLoss(value))
+                longest = Math.max(longest, Tablebase.getDistance(value));
+        }
+        return longest;
+    }
+
+    /**
+     * Write the values of a table to its file. It is written to a temporary file first,
+     * which is renamed when it is complete.
+     *
+     * @param signature The signature
+     * @param values    The values
+     */
+    private void write(int signature, byte[] values) {
+        File file = mTablebase.getFile(signature);
+        File temp = new File(file.getPath() + ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+                out.writeInt(Tablebase.fMagic);
+                out.writeInt(Tablebase.fVersion);
+                out.writeInt(signature);
+                out.writeInt(Integer.bitCount(signature));
+                out.write(values);
+            }
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        mTablebase.refresh(signature);
+    }
+
+    /**
+     * Release the threads.
+     */
+    @Override
+    public void close() {
+        mPool.shutdownNow();
+    }
+
+    /**
+     * Get the bit mask of the pieces of a side in a signature.
+     *
+     * @param black Whether it is the black side
+     * @return The bit mask.
+     */
+    private static int getSideMask(boolean black) {
+        return black ? 0xff << Board.bRat : 0xff << Board.rRat;
+    }
+
+    /**
+     * Run the generator from the command line, see the usage above.
+     *
+     * @param args The command line arguments.
+     */
+    public static void main(String[] args) {
+        if (args.length < 3) {
+            System.err.println("usage: java TablebaseGenerator directory threads (all K | signature ...)");
+            System.exit(1);
+        }
+        long start = System.currentTimeMillis();
+        try (TablebaseGenerator generator = new TablebaseGenerator(new File(args[0]), Integer.parseInt(args[1]))) {
+            generator.setListener((signature, positions, passes, millis) -> System.out.printf(
+                    "%s: %d positions, %d passes, %d ms%n", Tablebase.getName(signature), positions, passes, millis));
+            if (args[2].equals("all")) {
+                generator.generateAll(Integer.parseInt(args[3]));
+            } else {
+                for (int i = 2; i < args.length; i++)
+                    generator.generate(Tablebase.parseName(args[i]));
+            }
+        }
+        System.out.println("time: " + (System.currentTimeMillis() - start) + " ms");
+    }
+}
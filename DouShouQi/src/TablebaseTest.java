@@ -0,0 +1,167 @@
+//------------------------------------------------------------------------------
+//  File       : TablebaseTest.java
+//  Course     : CSC610
+//  Date:      : 10/18/2026
+//  Author     : Jason Qiao Meng
+//  Author ID  : 10652564
+//  Description: This file contains unit tests against Tablebase.java and TablebaseGenerator.java
+//------------------------------------------------------------------------------
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+
+/**
+ * A unit test class against classes {@link Tablebase} and {@link TablebaseGenerator}
+ */
+public class TablebaseTest {
+
+    /**
+     * The directory of the generated files
+     */
+    private static File directory;
+    /**
+     * The tablebase of red lion against black elephant
+     */
+    private static Tablebase tablebase;
+    /**
+     * The signature of red lion against black elephant
+     */
+    private static int signature;
+
+
+    /**
+     * Generate the table of red lion against black elephant into a temporary directory.
+     *
+     * @throws IOException if the directory cannot be created.
+     */
+    @BeforeClass
+    public static void setUpClass() throws IOException {
+        directory = Files.createTempDirectory("tablebase").toFile();
+        signature = Tablebase.parseName("Lve");
+        try (TablebaseGenerator generator = new TablebaseGenerator(directory, 2)) {
+            generator.generate(signature);
+        }
+        tablebase = new Tablebase(directory);
+    }
+
+    /**
+     * Delete the generated files.
+     */
+    @AfterClass
+    public static void tearDownClass() {
+        File files[] = directory.listFiles();
+        if (files != null) for (File file : files) file.delete();
+        directory.delete();
+    }
+
+
+    /**
+     * Test the names of the signatures.
+     */
+    @Test
+    public void testNames() {
+        System.out.println("Test the names of the signatures");
+
+        int lionAndRatAgainstCat = (1 << Board.rLion) | (1 << Board.rRat) | (1 << Board.bCat);
+        boolean named = Tablebase.getName(lionAndRatAgainstCat).equals("RLvc") &&
+                Tablebase.parseName("RLvc") == lionAndRatAgainstCat &&
+                Tablebase.getName(signature).equals("Lve");
+
+        String msg = "The names are correct? Expected: %1$b, Actual: %2$b";
+        msg = String.format(msg, true, named);
+        assertTrue(msg, named);
+    }
+
+
+    /**
+     * Test the values of the table against searches deep enough to find the same wins.
+     */
+    @Test
+    public void testValuesAgreeWithSearch() {
+        System.out.println("Test the values of the table against the search");
+
+        Random rnd = new Random(11);
+        int size = Tablebase.sizeOf(signature);
+        int checked = 0, wins = 0;
+        while (checked < 100) {
+            int index = rnd.nextInt(size);
+            int value = tablebase.probe(signature, index);
+            if (value == Tablebase.fIllegal) continue;
+            boolean decided = Tablebase.isWin(value) || Tablebase.isLoss(value);
+            int distance = decided ? Tablebase.getDistance(value) : 0;
+            if (distance > 9 || value == Tablebase.fLoss) continue;
+
+            Board board = getBoard(index);
+            int depth = decided ? distance + 1 : 6;
+            Engine.Result result = new Engine(1).search(board, Engine.Limits.depth(depth));
+            int expected = Tablebase.isWin(value) ? Engine.fWinScore - distance :
+                    Tablebase.isLoss(value) ? -(Engine.fWinScore - distance) : 0;
+            boolean agreed = decided ? result.score == expected : Math.abs(result.score) < Engine.fMinWinScore;
+            assertTrue("Index " + index + " of value " + value + " is scored " + result.score + "\n" + board, agreed);
+            assertEquals(value, tablebase.probe(board));
+            if (Tablebase.isWin(value)) wins++;
+            checked++;
+        }
+        System.out.println("checked: " + checked + ", wins: " + wins);
+    }
+
+
+    /**
+     * Test whether the engine plays from the tablebase: a red lion at (2, 3) against a black elephant
+     * in the far corner is found to win by the table's distance in the first iteration,
+     * and the move played keeps the fastest win.
+     */
+    @Test
+    public void testEngineProbes() {
+        System.out.println("Test whether the engine plays from the tablebase");
+
+        int squares[] = new int[Board.bElephant + 1];
+        Arrays.fill(squares, -1);
+        // red lion in the middle of the board, black elephant far away in a corner
+        squares[Board.rLion] = Board.toSquare(2, Board.getBoardColumnMedian());
+        squares[Board.bElephant] = Board.toSquare(Board.fRows - 1, Board.fCols - 1);
+        Board board = new Board(squares, false);
+        int value = tablebase.probe(board);
+
+        Engine engine = new Engine(1);
+        engine.setTablebase(tablebase);
+        Engine.Result result = engine.search(board, Engine.Limits.depth(30));
+        System.out.println("value: " + value + ", " + result);
+
+        boolean actual = Tablebase.isWin(value) && result.depth == 1 &&
+                result.score == Engine.fWinScore - Tablebase.getDistance(value);
+        board.makeMove(result.move);
+        actual &= tablebase.probe(board) == Tablebase.fLoss + Tablebase.getDistance(value) - 1;
+
+        String msg = "The engine plays the fastest win? Expected: %1$b, Actual: %2$b";
+        msg = String.format(msg, true, actual);
+        assertTrue(msg, actual);
+    }
+
+
+    /**
+     * Set up a board from an index of the table.
+     *
+     * @param index The index
+     * @return The board.
+     */
+    private static Board getBoard(int index) {
+        int squares[] = new int[Board.bElephant + 1];
+        Arrays.fill(squares, -1);
+        for (int bits = signature; bits != 0; bits &= bits - 1) {
+            squares[Integer.numberOfTrailingZeros(bits)] = index % Board.fCells;
+            index /= Board.fCells;
+        }
+        return new Board(squares, index == 1);
+    }
+}
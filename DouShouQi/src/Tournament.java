@@ -0,0 +1,466 @@
+//------------------------------------------------------------------------------
+//  File       : Tournament.java
+//  Course     : DouShouQi
+//  Date:      : 10/18/2026
+//  Author     : Jason Qiao Meng
+//  Author ID  : 10652564
+//  Description: This file contains a headless runner of engine-vs-engine games.
+//------------------------------------------------------------------------------
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * A match of many games between 2 engine configurations, played on a pool of threads.
+ * <pre>
+ *     Usage:
+ *         java Tournament [games N] [threads T] [openings FILE] [random P] [seed S] [plies M]
+ *                         [out FILE] engine SPEC engine SPEC
+ *
+ *         games N         The number of games (default 100)
+ *         threads T       The number of games played at the same time (default: the number of cores)
+ *         openings FILE   Start from these openings, one line of moves (e.g. a3a4 f8g8) per opening
+ *         random P        Start from openings of P random plies instead (default 8; 0 plays every
+ *                         game from the initial board, which only suits engines limited by time)
+ *         seed S          The seed of the random openings (default 1)
+ *         plies M         A game of M plies is a draw (default 300, at most fMaxPlies)
+ *         out FILE        Write every game to this file (default games.txt)
+ *         engine SPEC     An engine configuration, see EngineConfig; the first one is A
+ *
+ *     How it works:
+ *         1. Every opening is played twice, A plays red first and black next, so that
+ *            neither engine has the better side of an opening more often.
+ *         2. Each game has engines of its own, with new transposition tables.
+ *         3. Games are written in the order they are finished, as GameRecord lines after
+ *            a comment line of who played red and black, so GameRecord.read() reads them back.
+ *         4. The score is from the view of A.
+ * </pre>
+ */
+public class Tournament {
+
+    /**
+     * The default number of plies after which a game is a draw
+     */
+    public static final int fDefaultMaxPlies = 300;
+    /**
+     * The longest game which can be played: the board of a game keeps every move to be unmade,
+     * and a search makes up to {@link Engine#fMaxPly} more
+     */
+    public static final int fMaxPlies = Board.fMaxUndo - Engine.fMaxPly;
+
+    /**
+     * The score of a match from the view of one engine.
+     */
+    public static class Score {
+        /**
+         * The number of games won
+         */
+        private int mWins;
+        /**
+         * The number of games lost
+         */
+        private int mLosses;
+        /**
+         * The number of games drawn
+         */
+        private int mDraws;
+
+        /**
+         * Add the result of a game.
+         *
+         * @param result {@link GameRecord#fRedWins}, {@link GameRecord#fDraw} or {@link GameRecord#fBlackWins}
+         * @param red    Whether the engine of this score played red
+         */
+        public void add(int result, boolean red) {
+            if (result == GameRecord.fDraw) mDraws++;
+            else if ((result == GameRecord.fRedWins) == red) mWins++;
+            else mLosses++;
+        }
+
+        /**
+         * Get the number of games won.
+         *
+         * @return The number of wins.
+         */
+        public int getWins() {
+            return mWins;
+        }
+
+        /**
+         * Get the number of games lost.
+         *
+         * @return The number of losses.
+         */
+        public int getLosses() {
+            return mLosses;
+        }
+
+        /**
+         * Get the number of games drawn.
+         *
+         * @return The number of draws.
+         */
+        public int getDraws() {
+            return mDraws;
+        }
+
+        /**
+         * Get the number of games.
+         *
+         * @return The number of games.
+         */
+        public int getGames() {
+            return mWins + mLosses + mDraws;
+        }
+
+        /**
+         * Get the points per game, a win is 1 point and a draw half a point.
+         *
+         * @return The points per game from 0 to 1, or 0.5 if no game is played.
+         */
+        public double getPoints() {
+            return (getGames() == 0) ? 0.5 : (mWins + 0.5 * mDraws) / getGames();
+        }
+
+        /**
+         * Get the Elo difference of the points per game.
+         *
+         * @return The Elo difference, positive if the engine is stronger.
+         */
+        public double getElo() {
+            return toElo(getPoints());
+        }
+
+        /**
+         * Get the margin of the Elo difference at the 95% confidence level.
+         *
+         * @return The margin, i.e. half the width of the confidence interval.
+         */
+        public double getEloMargin() {
+            int games = getGames();
+            if (games == 0) return Double.POSITIVE_INFINITY;
+            double points = getPoints();
+            double variance = (mWins * Math.pow(1 - points, 2) + mDraws * Math.pow(0.5 - points, 2) +
+                    mLosses * Math.pow(points, 2)) / games;
+            double error = 1.96 * Math.sqrt(variance / games);
+            return (toElo(points + error) - toElo(points - error)) / 2;
+        }
+
+        /**
+         * Convert points per game to an Elo difference.
+         *
+         * @param points The points per game from 0 to 1
+         * @return The Elo difference.
+         */
+        static double toElo(double points) {
+            // 1 - 1e-6 is about 2400 Elo, so a clean sweep is not reported as infinite
+            points = Math.max(1e-6, Math.min(1 - 1e-6, points));
+            // + 0.0 turns -0.0 of an even score into 0.0
+            return -400 * Math.log10(1 / points - 1) + 0.0;
+        }
+
+        /**
+         * Returns a line of the form {@code +12 -10 =3, 52.0%, Elo +13.9 +/- 120.5}.
+         *
+         * @return A {@link String} of this score.
+         */
+        @Override
+        public String toString() {
+            return String.format("+%d -%d =%d, %.1f%%, Elo %+.1f +/- %.1f",
+                    mWins, mLosses, mDraws, 100 * getPoints(), getElo(), getEloMargin());
+        }
+    }
+
+    /**
+     * The engine configuration A, whose view the score is from
+     */
+    private final EngineConfig mEngineA;
+    /**
+     * The engine configuration B
+     */
+    private final EngineConfig mEngineB;
+    /**
+     * The openings, the moves from the initial board
+     */
+    private final List<int[]> mOpenings;
+    /**
+     * The number of plies after which a game is a draw
+     */
+    private final int mMaxPlies;
+
+
+    /**
+     * Create a tournament.
+     *
+     * @param engineA  The engine configuration A, whose view the score is from
+     * @param engineB  The engine configuration B
+     * @param openings The openings, the moves from the initial board; at least one
+     * @param maxPlies The number of plies after which a game is a draw, at most {@link #fMaxPlies}
+     * @throws IllegalArgumentException if there is no opening, one is longer than {@code maxPlies},
+     *                                  or {@code maxPlies} is out of range.
+     */
+    public Tournament(EngineConfig engineA, EngineConfig engineB, List<int[]> openings, int maxPlies) {
+        if (openings.isEmpty())
+            throw new IllegalArgumentException("A tournament needs at least 1 opening");
+        for (int[] opening : openings) checkOpening(opening, maxPlies);
+        mEngineA = engineA;
+        mEngineB = engineB;
+        mOpenings = new ArrayList<>(openings);
+        mMaxPlies = maxPlies;
+    }
+
+    /**
+     * Play the games of the match.
+     *
+     * @param games   The number of games
+     * @param threads The number of games played at the same time
+     * @param out     A writer of the games, or {@code null}
+     * @return The score of A.
+     * @throws IOException if a game cannot be written.
+     */
+    public Score run(int games, int threads, Writer out) throws IOException {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CompletionService<GameRecord> done = new ExecutorCompletionService<>(pool);
+        long start = System.currentTimeMillis();
+        Score score = new Score();
+        try {
+            // whether A plays red, by game
+            Map<Future<GameRecord>, Boolean> redIsA = new HashMap<>();
+            for (int i = 0; i < games; i++) {
+                final int[] opening = mOpenings.get((i / 2) % mOpenings.size());
+                final boolean red = (i % 2) == 0;
+                redIsA.put(done.submit(() -> red ?
+                        playGame(mEngineA, mEngineB, opening, mMaxPlies) :
+                        playGame(mEngineB, mEngineA, opening, mMaxPlies)), red);
+            }
+            for (int i = 0; i < games; i++) {
+                Future<GameRecord> future = done.take();
+                GameRecord game = future.get();
+                boolean red = redIsA.get(future);
+                score.add(game.getResult(), red);
+                if (out != null) {
+                    out.write(String.format("# red %s, black %s%n", red ? mEngineA.getName() : mEngineB.getName(),
+                            red ? mEngineB.getName() : mEngineA.getName()));
+                    out.write(game.toString());
+                    out.write(System.lineSeparator());
+                }
+                report(score, start);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("The tournament is interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("A game failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+            if (out != null) out.flush();
+        }
+        return score;
+    }
+
+    /**
+     * Play a game between 2 engine configurations.
+     *
+     * @param red      The engine configuration of red
+     * @param black    The engine configuration of black
+     * @param opening  The moves from the initial board to start from
+     * @param maxPlies The number of plies after which the game is a draw, at most {@link #fMaxPlies}
+     * @return The record of the game, including the opening.
+     * @throws IllegalArgumentException if the opening is longer than {@code maxPlies},
+     *                                  or {@code maxPlies} is out of range.
+     */
+    public static GameRecord playGame(EngineConfig red, EngineConfig black, int[] opening, int maxPlies) {
+        checkOpening(opening, maxPlies);
+        Engine redEngine = red.createEngine(), blackEngine = black.createEngine();
+        Board board = new Board();
+        int moves[] = new int[maxPlies];
+        int ply = 0;
+        for (int move : opening) {
+            board.makeMove(move);
+            moves[ply++] = move;
+        }
+        int result = GameRecord.fDraw;
+        while (ply < maxPlies) {
+            if (Engine.isLost(board)) {
+                result = board.mBlacksTurn ? GameRecord.fRedWins : GameRecord.fBlackWins;
+                break;
+            }
+            EngineConfig config = board.mBlacksTurn ? black : red;
+            Engine.Result best = (board.mBlacksTurn ? blackEngine : redEngine).search(board, config.getLimits());
+            // no legal move: the side whose turn it is loses
+            if (best.move == Board.fNoMove) {
+                result = board.mBlacksTurn ? GameRecord.fRedWins : GameRecord.fBlackWins;
+                break;
+            }
+            board.makeMove(best.move);
+            moves[ply++] = best.move;
+        }
+        int played[] = new int[ply];
+        System.arraycopy(moves, 0, played, 0, ply);
+        return new GameRecord(played, result);
+    }
+
+    /**
+     * Check that a game can be played from an opening.
+     *
+     * @param opening  The moves of the opening
+     * @param maxPlies The number of plies after which a game is a draw
+     * @throws IllegalArgumentException if the opening is longer than {@code maxPlies},
+     *                                  or {@code maxPlies} is not from 1 to {@link #fMaxPlies}.
+     */
+    static void checkOpening(int[] opening, int maxPlies) {
+        if (maxPlies < 1 || maxPlies > fMaxPlies)
+            throw new IllegalArgumentException("A game of " + maxPlies + " plies is not from 1 to " + fMaxPlies);
+        if (opening.length > maxPlies)
+            throw new IllegalArgumentException("An opening of " + opening.length +
+                    " plies is longer than a game of " + maxPlies + " plies");
+    }
+
+    /**
+     * Read openings from a text file, one line of moves from the initial board per opening.
+     * Blank lines and lines starting with # are skipped.
+     *
+     * @param file The file
+     * @return The openings.
+     * @throws IOException if the file cannot be read.
+     * @throws IllegalArgumentException if a move is illegal.
+     */
+    public static List<int[]> readOpenings(File file) throws IOException {
+        List<int[]> openings = new ArrayList<>();
+        try (BufferedReader in = new BufferedReader(new FileReader(file))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (line.trim().isEmpty() || line.startsWith("#")) continue;
+                openings.add(GameRecord.parse("draw " + line).getMoves());
+            }
+        }
+        return openings;
+    }
+
+    /**
+     * Create openings of random moves from the initial board. An opening which ends the game
+     * is replaced by another one.
+     *
+     * @param count The number of openings
+     * @param plies The number of plies of each opening
+     * @param seed  The seed of the random moves
+     * @return The openings.
+     */
+    public static List<int[]> randomOpenings(int count, int plies, long seed) {
+        Random rnd = new Random(seed);
+        List<int[]> openings = new ArrayList<>();
+        int buffer[] = new int[Board.fMaxMoves];
+        while (openings.size() < count) {
+            Board board = new Board();
+            int opening[] = new int[plies];
+            int ply = 0;
+            for (; ply < plies && !Engine.isLost(board); ply++) {
+                int moves = board.generateMoves(buffer);
+                if (moves == 0) break;
+                opening[ply] = buffer[rnd.nextInt(moves)];
+                board.makeMove(opening[ply]);
+            }
+            if (ply == plies && !Engine.isLost(board)) openings.add(opening);
+        }
+        return openings;
+    }
+
+    /**
+     * Print the score and the speed so far, every 10 games.
+     *
+     * @param score The score so far
+     * @param start The time the match started
+     */
+    private void report(Score score, long start) {
+        int games = score.getGames();
+        if (games % 10 != 0) return;
+        double seconds = Math.max(1, System.currentTimeMillis() - start) / 1000.0;
+        System.out.printf("%d games, %s vs %s: %s, %.2f games/s%n", games, mEngineA.getName(),
+                mEngineB.getName(), score, games / seconds);
+    }
+
+    /**
+     * Run a tournament from the command line, see the usage above.
+     *
+     * @param args The command line arguments.
+     * @throws IOException if a file cannot be read or written.
+     */
+    public static void main(String[] args) throws IOException {
+        int games = 100, threads = Runtime.getRuntime().availableProcessors(), randomPlies = 8;
+        int maxPlies = fDefaultMaxPlies;
+        long seed = 1;
+        File openingsFile = null, outFile = new File("games.txt");
+        List<EngineConfig> engines = new ArrayList<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "games":
+                    games = Integer.parseInt(args[i + 1]);
+                    break;
+                case "threads":
+                    threads = Integer.parseInt(args[i + 1]);
+                    break;
+                case "openings":
+                    openingsFile = new File(args[i + 1]);
+                    break;
+                case "random":
+                    randomPlies = Integer.parseInt(args[i + 1]);
+                    break;
+                case "seed":
+                    seed = Long.parseLong(args[i + 1]);
+                    break;
+                case "plies":
+                    maxPlies = Integer.parseInt(args[i + 1]);
+                    break;
+                case "out":
+                    outFile = new File(args[i + 1]);
+                    break;
+                case "engine":
+                    engines.add(EngineConfig.parse(args[i + 1]));
+                    break;
+                default:
+                    System.err.println("unknown argument: " + args[i]);
+                    System.exit(1);
+            }
+        }
+        if (maxPlies < 1 || maxPlies > fMaxPlies) {
+            System.err.println("plies must be from 1 to " + fMaxPlies);
+            System.exit(1);
+        }
+        if (engines.size() != 2) {
+            System.err.println("usage: java Tournament [games N] [threads T] [openings FILE] [random P] [seed S]");
+            System.err.println("                       [plies M] [out FILE] engine SPEC engine SPEC");
+            System.exit(1);
+        }
+
+        List<int[]> openings = (openingsFile != null) ? readOpenings(openingsFile) :
+                (randomPlies > 0) ? randomOpenings((games + 1) / 2, randomPlies, seed) :
+                        Collections.singletonList(new int[0]);
+        Tournament tournament = new Tournament(engines.get(0), engines.get(1), openings, maxPlies);
+        long start = System.currentTimeMillis();
+        Score score;
+        try (Writer out = new BufferedWriter(new FileWriter(outFile))) {
+            score = tournament.run(games, threads, out);
+        }
+        double seconds = Math.max(1, System.currentTimeMillis() - start) / 1000.0;
+        System.out.printf("%s vs %s: %s%n", engines.get(0).getName(), engines.get(1).getName(), score);
+        System.out.printf("games: %d, time: %.1f s, games/s: %.2f%n", score.getGames(), seconds,
+                score.getGames() / seconds);
+    }
+}
@@ -0,0 +1,200 @@
+//------------------------------------------------------------------------------
+//  File       : TournamentTest.java
+//  Course     : CSC610
+//  Date:      : 10/18/2026
+//  Author     : Jason Qiao Meng
+//  Author ID  : 10652564
+//  Description: This file contains unit tests against Tournament.java and EngineConfig.java
+//------------------------------------------------------------------------------
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+
+/**
+ * A unit test class against classes {@link Tournament} and {@link EngineConfig}
+ */
+public class TournamentTest {
+
+    /**
+     * Test the Elo difference of known scores.
+     */
+    @Test
+    public void testElo() {
+        System.out.println("Test the Elo difference of known scores");
+
+        Tournament.Score even = new Tournament.Score();
+        even.add(GameRecord.fRedWins, true);
+        even.add(GameRecord.fRedWins, false);
+        Tournament.Score ahead = new Tournament.Score();
+        // 3 wins, 2 draws and a loss: 2/3 of the points is about +120 Elo
+        for (int i = 0; i < 3; i++) ahead.add(GameRecord.fBlackWins, false);
+        ahead.add(GameRecord.fDraw, true);
+        ahead.add(GameRecord.fDraw, false);
+        ahead.add(GameRecord.fRedWins, false);
+        System.out.println(even + "; " + ahead);
+
+        boolean actual = even.getWins() == 1 && even.getLosses() == 1 && even.getElo() == 0.0 &&
+                ahead.getWins() == 3 && ahead.getDraws() == 2 && ahead.getLosses() == 1 &&
+                Math.abs(ahead.getPoints() - 2.0 / 3) < 1e-9 &&
+                Math.abs(ahead.getElo() - 120.4) < 0.1 && ahead.getEloMargin() > 0;
+
+        String msg = "The Elo differences are correct? Expected: %1$b, Actual: %2$b";
+        msg = String.format(msg, true, actual);
+        assertTrue(msg, actual);
+    }
+
+
+    /**
+     * Test the text form of engine configurations, and whether an engine gets the weights of its file.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testEngineConfig() throws Exception {
+        System.out.println("Test the text form of engine configurations");
+
+        EngineConfig config = EngineConfig.parse("base:depth=6,time=50,hash=8");
+        boolean actual = config.getName().equals("base") && config.getLimits().depth == 6 &&
+                config.getLimits().millis == 50 && config.getLimits().nodes == 0 &&
+                config.toString().equals("base:depth=6,time=50,hash=8") &&
+                config.createEngine().getEvaluation() == Evaluation.getDefault();
+        int weights[] = Evaluation.getDefaultWeights();
+        weights[Evaluation.fMaterial] = 1000;
+        File file = File.createTempFile("weights", ".txt");
+        file.deleteOnExit();
+        Evaluation.writeWeights(weights, file);
+        EngineConfig tuned = EngineConfig.parse("tuned:depth=6,eval=" + file.getPath());
+        actual &= tuned.toString().equals("tuned:depth=6,hash=4,eval=" + file.getPath()) &&
+                Arrays.equals(tuned.createEngine().getEvaluation().getWeights(), weights);
+        try {
+            EngineConfig.parse("missing:depth=6,eval=" + file.getPath() + ".missing");
+            actual = false;
+        } catch (IllegalArgumentException e) {
+            // a configuration of weights which cannot be read is rejected
+        }
+        try {
+            EngineConfig.parse("nolimit:hash=8");
+            actual = false;
+        } catch (IllegalArgumentException e) {
+            // a configuration without a limit is rejected
+        }
+
+        String msg = "The engine configurations are parsed? Expected: %1$b, Actual: %2$b";
+        msg = String.format(msg, true, actual);
+        assertTrue(msg, actual);
+    }
+
+
+    /**
+     * Test whether a short match plays every opening with both colors and writes every game.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testMatch() throws Exception {
+        System.out.println("Test whether a short match plays and writes every game");
+
+        List<int[]> openings = Tournament.randomOpenings(3, 6, 1);
+        Tournament tournament = new Tournament(EngineConfig.parse("a:depth=2"),
+                EngineConfig.parse("b:depth=1"), openings, 40);
+        StringWriter out = new StringWriter();
+        Tournament.Score score = tournament.run(6, 2, out);
+
+        List<GameRecord> games = new ArrayList<>();
+        String lines[] = out.toString().split("\\R");
+        for (String line : lines)
+            if (!line.startsWith("#")) games.add(GameRecord.parse(line));
+        boolean openingsPlayed = true;
+        for (int[] opening : openings) {
+            int times = 0;
+            for (GameRecord game : games) {
+                boolean same = game.getLength() >= opening.length;
+                for (int i = 0; same && i < opening.length; i++) same = game.getMove(i) == opening[i];
+                if (same) times++;
+            }
+            openingsPlayed &= times == 2;
+        }
+
+        boolean actual = score.getGames() == 6 && lines.length == 12 && games.size() == 6 && openingsPlayed;
+        String msg = "All games are played and written? Expected: %1$b, Actual: %2$b";
+        msg = String.format(msg, true, actual);
+        assertTrue(msg, actual);
+    }
+
+
+    /**
+     * Test whether an opening longer than a game is refused before any game is played.
+     */
+    @Test
+    public void testLongOpening() {
+        System.out.println("Test whether an opening longer than a game is refused");
+
+        List<int[]> openings = Tournament.randomOpenings(1, 12, 1);
+        EngineConfig a = EngineConfig.parse("a:depth=1"), b = EngineConfig.parse("b:depth=1");
+        boolean refused = false, refusedToPlay = false;
+        try {
+            new Tournament(a, b, openings, 10);
+        } catch (IllegalArgumentException e) {
+            refused = true;
+        }
+        try {
+            Tournament.playGame(a, b, openings.get(0), 10);
+        } catch (IllegalArgumentException e) {
+            refusedToPlay = true;
+        }
+        GameRecord exact = Tournament.playGame(a, b, openings.get(0), 12);
+
+        boolean actual = refused && refusedToPlay && exact.getLength() == 12;
+        String msg = "A long opening is refused? Expected: %1$b, Actual: %2$b";
+        msg = String.format(msg, true, actual);
+        assertTrue(msg, actual);
+    }
+
+
+    /**
+     * Test whether a game as long as {@link Tournament#fMaxPlies} is played and read back,
+     * while a longer one is refused before any move, and a longer record is not parsed.
+     */
+    @Test
+    public void testLongGame() {
+        System.out.println("Test whether the longest game is played and a longer one refused");
+
+        // the lions moved back and forth until 2 plies are left
+        int opening[] = new int[Tournament.fMaxPlies - 2];
+        int shuffle[] = {
+                Board.packMove(62, 61, Board.bLion, Board.rbNone), Board.packMove(0, 1, Board.rLion, Board.rbNone),
+                Board.packMove(61, 62, Board.bLion, Board.rbNone), Board.packMove(1, 0, Board.rLion, Board.rbNone)};
+        for (int ply = 0; ply < opening.length; ply++) opening[ply] = shuffle[ply % 4];
+        EngineConfig a = EngineConfig.parse("a:depth=4"), b = EngineConfig.parse("b:depth=4");
+        GameRecord longest = Tournament.playGame(a, b, opening, Tournament.fMaxPlies);
+        boolean readBack = GameRecord.parse(longest.toString()).equals(longest);
+        boolean refused = false, notParsed = false;
+        try {
+            Tournament.playGame(a, b, new int[0], Tournament.fMaxPlies + 1);
+        } catch (IllegalArgumentException e) {
+            refused = true;
+        }
+        StringBuilder line = new StringBuilder("draw");
+        for (int ply = 0; ply <= GameRecord.fMaxLength; ply++)
+            line.append(' ').append(Board.moveToString(shuffle[ply % 4]));
+        try {
+            GameRecord.parse(line.toString());
+        } catch (IllegalArgumentException e) {
+            notParsed = true;
+        }
+        System.out.println("longest: " + longest.getLength() + ", refused: " + refused + ", not parsed: " + notParsed);
+
+        boolean actual = longest.getLength() == Tournament.fMaxPlies && readBack && refused && notParsed;
+        String msg = "The longest game is played and a longer one refused? Expected: %1$b, Actual: %2$b";
+        msg = String.format(msg, true, actual);
+        assertTrue(msg, actual);
+    }
+}
@@ -0,0 +1,275 @@
+//------------------------------------------------------------------------------
+//  File       : TranspositionTable.java
+//  Course     : DouShouQi
+//  Date:      : 10/18/2026
+//  Author     : Jason Qiao Meng
+//  Author ID  : 10652564
+//  Description: This file contains a fixed-size lock-free transposition table
+//               for searching DouShouQi positions.
+//------------------------------------------------------------------------------
+
+import java.util.Arrays;
+
+/**
+ * A fixed-size transposition table keyed by a 64-bit position key, e.g. {@link Board#zobristKey()}.
+ * <pre>
+ *     Layout:
+ *         1. The table is one preallocated array of {@code long}, no object is created per entry.
+ *         2. Every entry takes 2 longs: the key XOR-ed with the data, and the data.
+ *         3. Entries are grouped into buckets of {@link #fBucketSize} entries (64 bytes).
+ *            A key always maps to the same bucket and may be stored in any entry of it.
+ *
+ *     Concurrency:
+ *         The table has no locks. Many threads may read and write it at the same time.
+ *         A reader accepts an entry only if its stored key XOR its data gives back the probed key,
+ *         so an entry torn by 2 concurrent writers is rejected as a miss instead of being trusted.
+ * </pre>
+ * The data of an entry is packed into a {@code long}:
+ * <pre>
+ *     bits  0 - 21: the best move packed by Board.packMove(), or Board.fNoMove
+ *     bits 22 - 37: the score (signed 16 bits)
+ *     bits 38 - 45: the depth (0 - 255)
+ *     bits 46 - 47: the bound
+ *     bits 48 - 55: the generation (search) that stored it
+ * </pre>
+ */
+public class TranspositionTable {
+
+    /**
+     * No bound, i.e. an empty entry
+     */
+    public static final int fBoundNone = 0;
+    /**
+     * The score is an upper bound (the search failed low)
+     */
+    public static final int fBoundUpper = 1;
+    /**
+     * The score is a lower bound (the search failed high)
+     */
+    public static final int fBoundLower = 2;
+    /**
+     * The score is exact
+     */
+    public static final int fBoundExact = 3;
+    /**
+     * The number of entries in a bucket
+     */
+    public static final int fBucketSize = 4;
+    /**
+     * The number of {@code long} of an entry
+     */
+    private static final int fEntryLongs = 2;
+    /**
+     * The number of {@code long} of a bucket
+     */
+    private static final int fBucketLongs = fBucketSize * fEntryLongs;
+
+    /**
+     * The entries, {@link #fBucketLongs} per bucket.
+     */
+    private final long mTable[];
+    /**
+     * A bit mask to turn a key into a bucket index. The number of buckets is a power of 2.
+     */
+    private final long mBucketMask;
+    /**
+     * The current generation, which tells entries of the current search from older ones.
+     */
+    private volatile int mGeneration = 0;
+
+
+    /**
+     * Create a transposition table which takes at most the given size of memory.
+     *
+     * @param megabytes The size of the table in MB, at least 1.
+     */
+    public TranspositionTable(int megabytes) {
+        if (megabytes < 1)
+            throw new IllegalArgumentException("The size of a transposition table must be at least 1 MB");
+        long buckets = Long.highestOneBit((long)megabytes * 1024 * 1024 / (fBucketLongs * Long.BYTES));
+        // keep the table within the limit of a Java array
+        while (buckets * fBucketLongs > Integer.MAX_VALUE - 8) buckets >>= 1;
+        mTable = new long[(int)(buckets * fBucketLongs)];
+        mBucketMask = buckets - 1;
+    }
+
+    /**
+     * Get the number of entries of this table.
+     *
+     * @return The number of entries.
+     */
+    public int capacity() {
+        return mTable.length / fEntryLongs;
+    }
+
+    /**
+     * Remove all the entries.
+     * It must not be called while other threads are using the table.
+     */
+    public void clear() {
+        Arrays.fill(mTable, 0);
+        mGeneration = 0;
+    }
+
+    /**
+     * Start a new search. Entries stored by older searches are replaced first.
+     */
+    public void newSearch() {
+        mGeneration = (mGeneration + 1) & 0xff;
+    }
+
+    /**
+     * Look up a position.
+     *
+     * @param key The 64-bit key of the position
+     * @return The packed data of the entry, or 0 if the position is not in the table.
+     * @see #getMove(long)
+     * @see #getScore(long)
+     * @see #getDepth(long)
+     * @see #getBound(long)
+     */
+    public long probe(long key) {
+        int i = bucketOf(key);
+        for (int end = i + fBucketLongs; i < end; i += fEntryLongs) {
+            long data = mTable[i + 1];
+            if ((mTable[i] ^ data) == key && getBound(data) != fBoundNone)
+                return data;
+        }
+        return 0;
+    }
+
+    /**
+     * Store the result of a search of a position.
+     * <pre>
+     *     Replacement:
+     *         1. An entry of the same position is replaced unless it is from the current search,
+     *            deeper and not going to be exact. Its best move is kept if the new one has none.
+     *         2. Otherwise the entry with the lowest worth is replaced: entries of older searches
+     *            are worth less than those of the current search, and shallower less than deeper.
+     * </pre>
+     *
+     * @param key   The 64-bit key of the position
+     * @param move  The best move, or {@link Board#fNoMove}
+     * @param score The score, within the range of a {@code short}
+     * @param depth The depth searched, within 0 - 255
+     * @param bound One of {@link #fBoundUpper}, {@link #fBoundLower} and {@link #fBoundExact}
+     */
+    public void store(long key, int move, int score, int depth, int bound) {
+        int generation = mGeneration;
+        int bucket = bucketOf(key);
+        int victim = bucket;
+        int lowest = Integer.MAX_VALUE;
+        for (int i = bucket, end = bucket + fBucketLongs; i < end; i += fEntryLongs) {
+            long data = mTable[i + 1];
+            if ((mTable[i] ^ data) == key) {
+                if (getGeneration(data) == generation && getDepth(data) > depth && bound != fBoundExact)
+                    return;
+                if (move == Board.fNoMove) move = getMove(data);
+                victim = i;
+                break;
+            }
+            // an entry from an older search is worth less than any of the current search
+            int worth = getDepth(data) + ((getGeneration(data) == generation) ? 256 : 0);
+            if (getBound(data) == fBoundNone) worth = -1;
+            if (worth < lowest) {
+                lowest = worth;
+                victim = i;
+            }
+        }
+        long data = pack(move, score, depth, bound, generation);
+        mTable[victim + 1] = data;
+        mTable[victim] = key ^ data;
+    }
+
+    /**
+     * Estimate how full the table is with entries of the current search, in per mill.
+     *
+     * @return An integer within 0 - 1000.
+     */
+    public int hashfull() {
+        int generation = mGeneration;
+        int samples = Math.min(1000, capacity());
+        int count = 0;
+        for (int i = 0; i < samples; i++) {
+            long data = mTable[i * fEntryLongs + 1];
+            if (getBound(data) != fBoundNone && getGeneration(data) == generation) count++;
+        }
+        return count * 1000 / samples;
+    }
+
+    /**
+     * Get the best move of an entry's data.
+     *
+     * @param data The packed data returned by {@link #probe(long)}
+     * @return The packed move or {@link Board#fNoMove}.
+     */
+    public static int getMove(long data) {
+        return (int)(data & 0x3fffff);
+    }
+
+    /**
+     * Get the score of an entry's data.
+     *
+     * @param data The packed data returned by {@link #probe(long)}
+     * @return The score.
+     */
+    public static int getScore(long data) {
+        return (short)(data >>> 22);
+    }
+
+    /**
+     * Get the depth of an entry's data.
+     *
+     * @param data The packed data returned by {@link #probe(long)}
+     * @return The depth.
+     */
+    public static int getDepth(long data) {
+        return (int)(data >>> 38) & 0xff;
+    }
+
+    /**
+     * Get the bound of an entry's data.
+     *
+     * @param data The packed data returned by {@link #probe(long)}
+     * @return One of {@link #fBoundNone}, {@link #fBoundUpper}, {@link #fBoundLower} and {@link #fBoundExact}.
+     */
+    public static int getBound(long data) {
+        return (int)(data >>> 46) & 0x3;
+    }
+
+    /**
+     * Get the generation of an entry's data.
+     *
+     * @param data The packed data of an entry
+     * @return The generation.
+     */
+    private static int getGeneration(long data) {
+        return (int)(data >>> 48) & 0xff;
+    }
+
+    /**
+     * Pack the data of an entry.
+     *
+     * @param move       The best move
+     * @param score      The score
+     * @param depth      The depth
+     * @param bound      The bound
+     * @param generation The generation
+     * @return The packed data.
+     */
+    private static long pack(int move, int score, int depth, int bound, int generation) {
+        return (move & 0x3fffffL) | ((score & 0xffffL) << 22) | ((long)(depth & 0xff) << 38) |
+                ((long)bound << 46) | ((long)generation << 48);
+    }
+
+    /**
+     * Get the index of the first {@code long} of the bucket which a key maps to.
+     *
+     * @param key The 64-bit key of a position
+     * @return The index into {@link #mTable}.
+     */
+    private int bucketOf(long key) {
+        // the low order bits pick the bucket; all 64 bits are verified on probe
+        return (int)(key & mBucketMask) * fBucketLongs;
+    }
+}
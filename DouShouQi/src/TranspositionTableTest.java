@@ -0,0 +1,202 @@
+//------------------------------------------------------------------------------
+//  File       : TranspositionTableTest.java
+//  Course     : CSC610
+//  Date:      : 10/18/2026
+//  Author     : Jason Qiao Meng
+//  Author ID  : 10652564
+//  Description: This file contains unit tests against TranspositionTable.java
+//------------------------------------------------------------------------------
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+
+/**
+ * A unit test class against class {@link TranspositionTable}
+ */
+public class TranspositionTableTest {
+
+    /**
+     * Set up the test environment for each single test method.
+     *
+     * @throws Exception
+     */
+    @Before
+    public void setUp() throws Exception {
+        System.out.println("Creating a 1 MB transposition table");
+        table = new TranspositionTable(1);
+    }
+
+
+    /**
+     * Tear down the test environment for each single test method.
+     *
+     * @throws Exception
+     */
+    @After
+    public void tearDown() throws Exception {
+        System.out.println("Finalizing TranspositionTable Test");
+        table = null;
+    }
+
+
+    /**
+     * Test whether a stored entry is found with all its fields.
+     */
+    @Test
+    public void testStoreAndProbe() {
+        System.out.println("Test whether a stored entry is found with all its fields");
+
+        Board board = new Board();
+        int[] moves = new int[Board.fMaxMoves];
+        int move = moves[board.generateMoves(moves) - 1];
+        long key = board.zobristKey();
+        table.store(key, move, -1234, 7, TranspositionTable.fBoundLower);
+
+        long data = table.probe(key);
+        boolean actual = TranspositionTable.getMove(data) == move &&
+                TranspositionTable.getScore(data) == -1234 &&
+                TranspositionTable.getDepth(data) == 7 &&
+                TranspositionTable.getBound(data) == TranspositionTable.fBoundLower;
+        actual &= table.probe(key ^ 1) == 0;
+
+        String msg = "The entry is found with all its fields? Expected: %1$b, Actual: %2$b";
+        msg = String.format(msg, true, actual);
+        assertTrue(msg, actual);
+    }
+
+
+    /**
+     * Test whether a deeper entry of the current search survives a shallower store,
+     * and whether its best move is kept by a store without a move.
+     */
+    @Test
+    public void testReplacement() {
+        System.out.println("Test the replacement of an entry of the same position");
+
+        long key = 0x123456789abcdefL;
+        table.store(key, 42, 10, 8, TranspositionTable.fBoundExact);
+        table.store(key, 43, 20, 3, TranspositionTable.fBoundUpper);
+        boolean kept = TranspositionTable.getDepth(table.probe(key)) == 8;
+
+        table.newSearch();
+        table.store(key, Board.fNoMove, 30, 3, TranspositionTable.fBoundUpper);
+        long data = table.probe(key);
+        boolean replaced = TranspositionTable.getDepth(data) == 3 && TranspositionTable.getMove(data) == 42;
+
+        String header = formatTableHeader(new String[]{"Kept", "Replaced"}, 8);
+        System.out.println(header);
+        System.out.println(formatTableRow(new Boolean[]{kept, replaced}, 8));
+
+        String msg = "Entries are replaced correctly? Expected: %1$b, Actual: %2$b";
+        msg = String.format(msg, true, kept && replaced);
+        assertTrue(msg, kept && replaced);
+    }
+
+
+    /**
+     * Test whether all the entries of a full bucket can be found,
+     * and the shallowest one is replaced by the next store.
+     */
+    @Test
+    public void testBucket() {
+        System.out.println("Test whether a bucket holds " + TranspositionTable.fBucketSize + " positions");
+
+        // keys which differ only in the high order bits map to the same bucket
+        boolean actual = true;
+        for (int i = 0; i < TranspositionTable.fBucketSize; i++)
+            table.store(((long)i + 1) << 40, i + 1, i, 10 - i, TranspositionTable.fBoundExact);
+        for (int i = 0; i < TranspositionTable.fBucketSize; i++)
+            actual &= TranspositionTable.getMove(table.probe(((long)i + 1) << 40)) == i + 1;
+
+        table.store(99L << 40, 99, 0, 20, TranspositionTable.fBoundExact);
+        actual &= table.probe(99L << 40) != 0;
+        actual &= table.probe(((long)TranspositionTable.fBucketSize) << 40) == 0;
+
+        String msg = "A bucket holds its positions? Expected: %1$b, Actual: %2$b";
+        msg = String.format(msg, true, actual);
+        assertTrue(msg, actual);
+    }
+
+
+    /**
+     * Test whether concurrent writers never make a reader accept an entry of another position.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testConcurrentAccess() throws Exception {
+        System.out.println("Test concurrent stores and probes");
+
+        // every writer stores entries whose move is derived from the key, so a reader
+        // can tell an entry of another position.
+        final boolean[] corrupted = new boolean[1];
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            final int seed = t;
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 200000; i++) {
+                    long key = Board.mix64(i % 5000 + 1);
+                    int move = (int)(key & 0x3fffff);
+                    table.store(key, move, seed, i & 0xff, TranspositionTable.fBoundExact);
+                    long data = table.probe(Board.mix64((i * 7 + seed) % 5000 + 1));
+                    if (data != 0 && TranspositionTable.getMove(data) !=
+                            (int)(Board.mix64((i * 7 + seed) % 5000 + 1) & 0x3fffff))
+                        corrupted[0] = true;
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread t : threads) t.join();
+
+        String msg = "No entry of another position is accepted? Expected: %1$b, Actual: %2$b";
+        msg = String.format(msg, false, corrupted[0]);
+        assertFalse(msg, corrupted[0]);
+    }
+
+
+    /**
+     * Generate a header row for a console/log message table
+     *
+     * @param headers     An array of {@code String} which contains the headers.
+     * @param colMinWidth An {@code Integer} for the minimum width of each column.
+     * @return A {@code String} with column separators added as a table's header row.
+     */
+    private String formatTableHeader(String[] headers, int colMinWidth) {
+        String line = "|";
+        for (String header : headers) {
+            String pat = "%-" + String.valueOf(colMinWidth) + "s";
+            line += " " + String.format(pat, header) + " |";
+        }
+        return line;
+    }
+
+
+    /**
+     * Generate a table row. This method invokes {@code toString()} method of each item.
+     *
+     * @param row         An array of {@code T} which contains the column items.
+     * @param colMinWidth An {@code Integer} for the minimum width of each column.
+     * @param <T>         A reference type of the row's items.
+     * @return A {@code String} with column separators added as a table's row.
+     */
+    private <T> String formatTableRow(T[] row, int colMinWidth) {
+        String line = "|";
+        for (T col : row) {
+            String field = col.toString();
+            String pat = "%-" + String.valueOf(colMinWidth) + "s";
+            line += " " + String.format(pat, field) + " |";
+        }
+        return line;
+    }
+
+
+    /**
+     * An instance of class {@link TranspositionTable}
+     */
+    private TranspositionTable table;
+
+}
@@ -0,0 +1,549 @@
+//------------------------------------------------------------------------------
+//  File       : Tuner.java
+//  Course     : DouShouQi
+//  Date:      : 10/18/2026
+//  Author     : Jason Qiao Meng
+//  Author ID  : 10652564
+//  Description: This file contains the tuner of the evaluation weights against
+//               the results of recorded games.
+//------------------------------------------------------------------------------
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Fit the weights of {@link Evaluation} to the results of recorded games, the Texel way:
+ * minimize the mean squared error between the result of the game of each position and
+ * the win probability its score predicts.
+ * <pre>
+ *     Usage:
+ *         java Tuner games.txt weights.txt [threads] [epochs] [skip]
+ *
+ *         games.txt    games as written by GameRecord.toString(), one per line, e.g. by Tournament,
+ *                      or positions as written by Dataset.write() if it ends in .bin
+ *         weights.txt  the file the tuned weights are written to, see Evaluation.writeWeights()
+ *         skip         the plies of each game not to take positions from, e.g. the opening book
+ *
+ *     How it works:
+ *         1. The positions are the quiet ones of the games: the side to move has no capture and
+ *            no den entry, so that the static score is what a search would return.
+ *         2. The win probability of a score s is 1 / (1 + 10^(-K s / 400)); K is fitted first
+ *            to the default weights, then kept.
+ *         3. The evaluation is linear in its weights, so the gradient of the error is exact and
+ *            cheap. Every epoch splits the positions among the threads, sums their gradients and
+ *            takes one step of Adam (adaptive moments) on all the weights.
+ *
+ *     Memory:
+ *         A position takes 17 bytes: the 2 longs of a {@link PackedPosition} and a result byte,
+ *         kept in plain arrays. The score is computed from the packed cells, with no board and
+ *         no allocation per position, so millions of positions take seconds per epoch.
+ * </pre>
+ */
+public class Tuner implements AutoCloseable {
+
+    /**
+     * The number of positions of one task of an epoch
+     */
+    private static final int fChunkSize = 1 << 16;
+    /**
+     * The step size of Adam, in the units of the weights
+     */
+    private static final double fLearningRate = 2.0;
+    /**
+     * The decay of the first moment of Adam
+     */
+    private static final double fBeta1 = 0.9;
+    /**
+     * The decay of the second moment of Adam
+     */
+    private static final double fBeta2 = 0.999;
+    /**
+     * The den proximity of each of red's cells, see {@link Evaluation#getDenProximity(int)}
+     */
+    private static final int[] fProximity = new int[Board.fCells];
+
+    static {
+        for (int sq = 0; sq < Board.fCells; sq++) fProximity[sq] = Evaluation.getDenProximity(sq);
+    }
+
+    /**
+     * The positions to fit
+     */
+    private final Dataset mData;
+    /**
+     * The threads of the epochs
+     */
+    private final ExecutorService mPool;
+
+
+    /**
+     * A compact set of positions labeled with the results of their games.
+     */
+    public static final class Dataset {
+
+        /**
+         * The low longs of the packed positions
+         */
+        private long mLows[] = new long[1024];
+        /**
+         * The high longs of the packed positions
+         */
+        private long mHighs[] = new long[1024];
+        /**
+         * The results from red's view: {@link GameRecord#fRedWins} and so on
+         */
+        private byte mResults[] = new byte[1024];
+        /**
+         * The number of positions
+         */
+        private int mSize;
+
+        /**
+         * Add a position.
+         *
+         * @param board  The board of the position
+         * @param result The result of its game: {@link GameRecord#fRedWins} and so on
+         */
+        public void add(Board board, int result) {
+            PackedPosition position = new PackedPosition(board);
+            add(position.getLow(), position.getHigh(), result);
+        }
+
+        /**
+         * Add a packed position.
+         *
+         * @param low    The low 64 bits of the position, see {@link PackedPosition#getLow()}
+         * @param high   The high 64 bits of the position, see {@link PackedPosition#getHigh()}
+         * @param result The result of its game: {@link GameRecord#fRedWins} and so on
+         */
+        private void add(long low, long high, int result) {
+            if (mSize == mResults.length) {
+                int capacity = mSize + (mSize >> 1);
+                mLows = Arrays.copyOf(mLows, capacity);
+                mHighs = Arrays.copyOf(mHighs, capacity);
+                mResults = Arrays.copyOf(mResults, capacity);
+            }
+            mLows[mSize] = low;
+            mHighs[mSize] = high;
+            mResults[mSize] = (byte)result;
+            mSize++;
+        }
+
+        /**
+         * Add the quiet positions of a game, until the game is over. A game longer than
+         * {@link GameRecord#fMaxLength} cannot be replayed on a board, so it is skipped.
+         *
+         * @param game      The game
+         * @param skipPlies The number of plies from the start not to take positions from
+         * @return The number of positions added.
+         */
+        public int addGame(GameRecord game, int skipPlies) {
+            if (game.getLength() > GameRecord.fMaxLength) return 0;
+            Board board = new Board();
+            int moves[] = new int[Board.fMaxMoves];
+            int added = 0;
+            for (int ply = 0; ply < game.getLength() && !Engine.isLost(board); ply++) {
+                if (ply >= skipPlies && isQuiet(board, moves)) {
+                    add(board, game.getResult());
+                    added++;
+                }
+                board.makeMove(game.getMove(ply));
+            }
+            return added;
+        }
+
+        /**
+         * Get the number of positions.
+         *
+         * @return The number of positions.
+         */
+        public int size() {
+            return mSize;
+        }
+
+        /**
+         * Get a position.
+         *
+         * @param index The index of the position
+         * @return The packed position.
+         */
+        public PackedPosition getPosition(int index) {
+            return new PackedPosition(mLows[index], mHighs[index]);
+        }
+
+        /**
+         * Get the result of the game of a position.
+         *
+         * @param index The index of the position
+         * @return The result from red's view: {@link GameRecord#fRedWins} and so on.
+         */
+        public int getResult(int index) {
+            return mResults[index];
+        }
+
+        /**
+         * Read the quiet positions of a file of games, one game per line as read by
+         * {@link GameRecord#read(File)}, e.g. the output of a {@link Tournament}. The games are
+         * read one by one, so only their positions are kept; a game too long to be replayed
+         * is skipped, see {@link #addGame(GameRecord, int)}.
+         *
+         * @param file      The file
+         * @param skipPlies The number of plies of each game not to take positions from
+         * @return The positions.
+         * @throws IOException if the file cannot be read.
+         * @throws IllegalArgumentException if a line is not a game.
+         */
+        public static Dataset readGames(File file, int skipPlies) throws IOException {
+            Dataset data = new Dataset();
+            try (BufferedReader in = new BufferedReader(new FileReader(file))) {
+                String line;
+                while ((line = in.readLine()) != null) {
+                    if (line.trim().isEmpty() || line.startsWith("#")) continue;
+                    if (countMoves(line) > GameRecord.fMaxLength) continue;
+                    data.addGame(GameRecord.parse(line), skipPlies);
+                }
+            }
+            return data;
+        }
+
+        /**
+         * Count the moves of a line of a game, i.e. its words after the result.
+         *
+         * @param line The line
+         * @return The number of moves.
+         */
+        private static int countMoves(String line) {
+            int words = 0;
+            for (int i = 0; i < line.length(); i++) {
+                if (!Character.isWhitespace(line.charAt(i)) && (i == 0 || Character.isWhitespace(line.charAt(i - 1))))
+                    words++;
+            }
+            return words - 1;
+        }
+
+        /**
+         * Read positions written by {@link #write(File)}.
+         *
+         * @param file The file
+         * @return The positions.
+         * @throws IOException if the file cannot be read or is not a file of positions.
+         */
+        public static Dataset read(File file) throws IOException {
+            Dataset data = new Dataset();
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+                while (true) {
+                    long low, high;
+                    try {
+                        low = in.readLong();
+                    } catch (EOFException e) {
+                        break;
+                    }
+                    high = in.readLong();
+                    int result = in.readByte();
+                    if (result < GameRecord.fBlackWins || result > GameRecord.fRedWins ||
+                            !PackedPosition.isValid(low, high))
+                        throw new IOException("Not a file of positions: " + file);
+                    data.add(low, high, result);
+                }
+            }
+            return data;
+        }
+
+        /**
+         * Write the positions, 17 bytes each: the low and the high long of the packed position,
+         * then the result byte.
+         *
+         * @param file The file
+         * @throws IOException if the file cannot be written.
+         */
+        public void write(File file) throws IOException {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+                for (int i = 0; i < mSize; i++) {
+                    out.writeLong(mLows[i]);
+                    out.writeLong(mHighs[i]);
+                    out.writeByte(mResults[i]);
+                }
+            }
+        }
+
+        /**
+         * Test whether the side to move has no capture and no den entry.
+         *
+         * @param board The board
+         * @param moves A buffer of at least {@link Board#fMaxMoves} elements
+         * @return Returns {@code true} if the position is quiet; {@code false} otherwise.
+         */
+        private static boolean isQuiet(Board board, int[] moves) {
+            int count = board.generateMoves(moves);
+            long enemyDen = board.mBlacksTurn ? Board.fRedDenBits : Board.fBlackDenBits;
+            for (int i = 0; i < count; i++) {
+                if (Board.moveCaptured(moves[i]) != Board.rbNone || (enemyDen & (1L << Board.moveTo(moves[i]))) != 0)
+                    return false;
+            }
+            return true;
+        }
+    }
+
+
+    /**
+     * Create a tuner.
+     *
+     * @param data    The positions to fit
+     * @param threads The number of threads, at least 1.
+     */
+    public Tuner(Dataset data, int threads) {
+        if (threads < 1)
+            throw new IllegalArgumentException("A tuner needs at least 1 thread");
+        if (data.size() == 0)
+            throw new IllegalArgumentException("A tuner needs at least 1 position");
+        mData = data;
+        mPool = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "tuner");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Fit the scale K of the win probability to some weights, in steps of 0.01.
+     *
+     * @param weights The weights, e.g. {@link Evaluation#getDefaultWeights()}
+     * @return The scale with the least error.
+     */
+    public double fitScale(int[] weights) {
+        double w[] = toDoubles(weights);
+        double scale = 1, error = getError(w, scale);
+        for (double step = 1; step >= 0.01; step /= 10) {
+            for (int direction : new int[]{1, -1}) {
+                while (scale + direction * step > 0) {
+                    double next = getError(w, scale + direction * step);
+                    if (next >= error) break;
+                    scale += direction * step;
+                    error = next;
+                }
+            }
+        }
+        return scale;
+    }
+
+    /**
+     * Get the mean squared error of some weights.
+     *
+     * @param weights The weights
+     * @param scale   The scale K of the win probability
+     * @return The error.
+     */
+    public double getError(int[] weights, double scale) {
+        return getError(toDoubles(weights), scale);
+    }
+
+    /**
+     * Tune weights.
+     *
+     * @param weights The weights to start from
+     * @param scale   The scale K of the win probability, see {@link #fitScale(int[])}
+     * @param epochs  The number of steps over all the positions
+     * @param log     The stream to report the error to every 10% of the epochs, or {@code null}
+     * @return The tuned weights.
+     */
+    public int[] tune(int[] weights, double scale, int epochs, PrintStream log) {
+        double w[] = toDoubles(weights);
+        double moment1[] = new double[Evaluation.fWeightCount], moment2[] = new double[Evaluation.fWeightCount];
+        for (int epoch = 1; epoch <= epochs; epoch++) {
+            double gradient[] = runEpoch(w, scale, true);
+            for (int i = 0; i < Evaluation.fWeightCount; i++) {
+                moment1[i] = fBeta1 * moment1[i] + (1 - fBeta1) * gradient[i];
+                moment2[i] = fBeta2 * moment2[i] + (1 - fBeta2) * gradient[i] * gradient[i];
+                double m = moment1[i] / (1 - Math.pow(fBeta1, epoch));
+                double v = moment2[i] / (1 - Math.pow(fBeta2, epoch));
+                w[i] -= fLearningRate * m / (Math.sqrt(v) + 1e-12);
+            }
+            if (log != null && epoch % Math.max(1, epochs / 10) == 0)
+                log.printf("epoch %d: error %.6f%n", epoch, getError(w, scale));
+        }
+        int tuned[] = new int[Evaluation.fWeightCount];
+        for (int i = 0; i < tuned.length; i++) tuned[i] = (int)Math.round(w[i]);
+        return tuned;
+    }
+
+    /**
+     * Stop the threads.
+     */
+    @Override
+    public void close() {
+        mPool.shutdownNow();
+    }
+
+    /**
+     * Get the mean squared error of some weights.
+     *
+     * @param weights The weights
+     * @param scale   The scale K of the win probability
+     * @return The error.
+     */
+    private double getError(double[] weights, double scale) {
+        return runEpoch(weights, scale, false)[Evaluation.fWeightCount];
+    }
+
+    /**
+     * Run over all the positions with all the threads.
+     *
+     * @param weights  The weights
+     * @param scale    The scale K of the win probability
+     * @param gradient Whether to compute the gradient
+     * @return The mean gradient of the error by the weights, and the mean error after them.
+     */
+    private double[] runEpoch(double[] weights, double scale, boolean gradient) {
+        List<Callable<double[]>> tasks = new ArrayList<>();
+        for (int from = 0; from < mData.size(); from += fChunkSize) {
+            final int begin = from, end = Math.min(mData.size(), from + fChunkSize);
+            tasks.add(() -> runChunk(weights, scale, gradient, begin, end));
+        }
+        try {
+            double sums[] = new double[Evaluation.fWeightCount + 1];
+            for (Future<double[]> future : mPool.invokeAll(tasks)) {
+                double chunk[] = future.get();
+                for (int i = 0; i < sums.length; i++) sums[i] += chunk[i];
+            }
+            for (int i = 0; i < sums.length; i++) sums[i] /= mData.size();
+            return sums;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("The tuning is interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("A tuning task failed", e.getCause());
+        }
+    }
+
+    /**
+     * Run over a range of the positions.
+     *
+     * @param weights  The weights
+     * @param scale    The scale K of the win probability
+     * @param gradient Whether to compute the gradient
+     * @param begin    The first index
+     * @param end      The index after the last one
+     * @return The sum of the gradients of the error by the weights, and the sum of the errors after them.
+     */
+    private double[] runChunk(double[] weights, double scale, boolean gradient, int begin, int end) {
+        double sums[] = new double[Evaluation.fWeightCount + 1];
+        double k = scale * Math.log(10) / 400;
+        for (int i = begin; i < end; i++) {
+            long low = mData.mLows[i], high = mData.mHighs[i];
+            double target = (mData.mResults[i] + 1) / 2.0;
+            double probability = 1 / (1 + Math.exp(-k * visit(low, high, weights, null, 0)));
+            double error = target - probability;
+            sums[Evaluation.fWeightCount] += error * error;
+            if (gradient) visit(low, high, weights, sums, -2 * error * probability * (1 - probability) * k);
+        }
+        return sums;
+    }
+
+    /**
+     * Walk the terms of the evaluation of a packed position, which mirrors
+     * {@link Evaluation#evaluate(Board)} term by term.
+     *
+     * @param low      The low long of the position
+     * @param high     The high long of the position
+     * @param weights  The weights
+     * @param gradient The gradient to add the terms to, each times its weight's factor, or {@code null}
+     * @param factor   The factor of the terms added to the gradient
+     * @return The score from red's view.
+     */
+    static double visit(long low, long high, double[] weights, double[] gradient, double factor) {
+        long red = 0, black = 0;
+        for (int p = Board.rRat; p <= Board.bElephant; p++) {
+            int sq = PackedPosition.getSquare(low, high, p);
+            if (sq == PackedPosition.fCaptured) continue;
+            if (p > Board.rElephant) black |= 1L << sq;
+            else red |= 1L << sq;
+        }
+        double score = 0;
+        for (int p = Board.rRat; p <= Board.bElephant; p++) {
+            int sq = PackedPosition.getSquare(low, high, p);
+            if (sq == PackedPosition.fCaptured) continue;
+            boolean isBlack = p > Board.rElephant;
+            int rank = (p - 1) % Board.rElephant + 1;
+            int redSquare = isBlack ? Evaluation.rotate(sq) : sq;
+            int material = Evaluation.fMaterial + rank - 1;
+            int square = Evaluation.fSquares + (rank - 1) * Board.fCells + redSquare;
+            int den = Evaluation.fDen + rank - 1;
+            boolean threatened = (Board.fTrapBits & (1L << sq)) != 0 &&
+                    (Evaluation.fNeighbors[sq] & (isBlack ? red : black)) != 0;
+            double sign = isBlack ? -1 : 1;
+            score += sign * (weights[material] + weights[square] + weights[den] * fProximity[redSquare]);
+            if (threatened) score -= sign * weights[Evaluation.fTrap + rank - 1];
+            if (gradient != null) {
+                gradient[material] += sign * factor;
+                gradient[square] += sign * factor;
+                gradient[den] += sign * factor * fProximity[redSquare];
+                if (threatened) gradient[Evaluation.fTrap + rank - 1] -= sign * factor;
+            }
+        }
+        return score;
+    }
+
+    /**
+     * Convert weights to doubles.
+     *
+     * @param weights The weights
+     * @return The weights as doubles.
+     */
+    private static double[] toDoubles(int[] weights) {
+        if (weights.length != Evaluation.fWeightCount)
+            throw new IllegalArgumentException("An evaluation needs " + Evaluation.fWeightCount + " weights");
+        double w[] = new double[weights.length];
+        for (int i = 0; i < w.length; i++) w[i] = weights[i];
+        return w;
+    }
+
+    /**
+     * Tune the weights to a file of games or positions.
+     *
+     * @param args The files, and optionally the number of threads, epochs and plies to skip
+     */
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.err.println("usage: java Tuner games.txt|positions.bin weights.txt [threads] [epochs] [skip]");
+            System.exit(1);
+        }
+        int threads = (args.length > 2) ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        int epochs = (args.length > 3) ? Integer.parseInt(args[3]) : 1000;
+        int skip = (args.length > 4) ? Integer.parseInt(args[4]) : 8;
+        long start = System.currentTimeMillis();
+        try {
+            File input = new File(args[0]);
+            Dataset data = input.getName().endsWith(".bin") ? Dataset.read(input) : Dataset.readGames(input, skip);
+            System.out.println("positions: " + data.size() + ", " + (System.currentTimeMillis() - start) + " ms");
+            try (Tuner tuner = new Tuner(data, threads)) {
+                int weights[] = Evaluation.getDefaultWeights();
+                double scale = tuner.fitScale(weights);
+                System.out.printf("K: %.2f, error %.6f%n", scale, tuner.getError(weights, scale));
+                weights = tuner.tune(weights, scale, epochs, System.out);
+                Evaluation.writeWeights(weights, new File(args[1]));
+            }
+        } catch (IOException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        }
+        System.out.println("time: " + (System.currentTimeMillis() - start) + " ms");
+    }
+}
@@ -0,0 +1,261 @@
+//------------------------------------------------------------------------------
+//  File       : TunerTest.java
+//  Course     : CSC610
+//  Date:      : 10/18/2026
+//  Author     : Jason Qiao Meng
+//  Author ID  : 10652564
+//  Description: This file contains unit tests against Tuner.java
+//------------------------------------------------------------------------------
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+
+/**
+ * A unit test class against class {@link Tuner}
+ */
+public class TunerTest {
+
+    /**
+     * Play a game of random moves, but a capture whenever there is one, to its end or a number of plies.
+     * The side which takes more tends to win, so the material weights matter.
+     *
+     * @param rnd      The random numbers
+     * @param maxPlies The number of plies after which the game is a draw
+     * @return The record of the game.
+     */
+    private static GameRecord playRandomGame(Random rnd, int maxPlies) {
+        Board board = new Board();
+        int moves[] = new int[Board.fMaxMoves], played[] = new int[maxPlies];
+        int plies = 0;
+        while (plies < maxPlies && !Engine.isLost(board)) {
+            int count = board.generateMoves(moves);
+            if (count == 0) break;
+            int move = moves[rnd.nextInt(count)];
+            for (int i = 0; i < count; i++) {
+                if (Board.moveCaptured(moves[i]) != Board.rbNone) move = moves[i];
+            }
+            played[plies++] = move;
+            board.makeMove(move);
+        }
+        int result = GameRecord.fDraw;
+        if (plies < maxPlies) result = board.mBlacksTurn ? GameRecord.fRedWins : GameRecord.fBlackWins;
+        return new GameRecord(Arrays.copyOf(played, plies), result);
+    }
+
+
+    /**
+     * Test whether the score of a packed position equals the one of {@link Evaluation},
+     * with random weights.
+     */
+    @Test
+    public void testScore() {
+        System.out.println("Test whether the tuner scores positions as the evaluation does");
+
+        Random rnd = new Random(3);
+        int weights[] = new int[Evaluation.fWeightCount];
+        for (int i = 0; i < weights.length; i++) weights[i] = rnd.nextInt(201) - 100;
+        double w[] = new double[weights.length];
+        for (int i = 0; i < w.length; i++) w[i] = weights[i];
+        Evaluation evaluation = new Evaluation(weights);
+        Tuner.Dataset data = new Tuner.Dataset();
+        for (int game = 0; game < 20; game++) data.addGame(playRandomGame(rnd, 200), 0);
+        boolean actual = data.size() > 100;
+        for (int i = 0; i < data.size(); i++) {
+            PackedPosition position = data.getPosition(i);
+            double score = Tuner.visit(position.getLow(), position.getHigh(), w, null, 0);
+            actual &= score == evaluation.evaluate(position.toBoard());
+        }
+        System.out.println("positions: " + data.size());
+
+        String msg = "The scores are equal? Expected: %1$b, Actual: %2$b";
+        msg = String.format(msg, true, actual);
+        assertTrue(msg, actual);
+    }
+
+
+    /**
+     * Test whether only quiet positions are taken from games, and whether positions read back
+     * from a file are the ones written.
+     */
+    @Test
+    public void testDataset() throws IOException {
+        System.out.println("Test whether a dataset takes quiet positions and reads back what it writes");
+
+        Random rnd = new Random(8);
+        Tuner.Dataset data = new Tuner.Dataset();
+        int moves[] = new int[Board.fMaxMoves];
+        for (int game = 0; game < 10; game++) data.addGame(playRandomGame(rnd, 300), 4);
+        boolean quiet = true;
+        for (int i = 0; i < data.size(); i++) {
+            Board board = data.getPosition(i).toBoard();
+            int count = board.generateMoves(moves);
+            for (int j = 0; j < count; j++) quiet &= Board.moveCaptured(moves[j]) == Board.rbNone;
+        }
+
+        File file = File.createTempFile("tuner", ".bin");
+        file.deleteOnExit();
+        data.write(file);
+        Tuner.Dataset read = Tuner.Dataset.read(file);
+        boolean same = read.size() == data.size() && file.length() == 17L * data.size();
+        for (int i = 0; same && i < data.size(); i++)
+            same = read.getPosition(i).equals(data.getPosition(i)) && read.getResult(i) == data.getResult(i);
+        System.out.println("positions: " + data.size() + ", bytes: " + file.length());
+
+        boolean actual = quiet && same;
+        String msg = "The positions are quiet and read back? Expected: %1$b, Actual: %2$b";
+        msg = String.format(msg, true, actual);
+        assertTrue(msg, actual);
+    }
+
+
+    /**
+     * Test whether the games of a file written by a {@link Tournament}, with its comment lines,
+     * are read and give the positions of their records.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testReadGames() throws IOException {
+        System.out.println("Test whether the games of a tournament are read");
+
+        File file = File.createTempFile("games", ".txt");
+        file.deleteOnExit();
+        Tournament tournament = new Tournament(EngineConfig.parse("a:depth=1"),
+                EngineConfig.parse("b:depth=1"), Tournament.randomOpenings(2, 8, 5), 60);
+        try (Writer out = new FileWriter(file)) {
+            tournament.run(4, 1, out);
+        }
+        List<String> lines = Files.readAllLines(file.toPath());
+        Tuner.Dataset expected = new Tuner.Dataset();
+        int comments = 0;
+        for (String line : lines) {
+            if (line.startsWith("#")) comments++;
+            else expected.addGame(GameRecord.parse(line), 2);
+        }
+        Tuner.Dataset data = Tuner.Dataset.readGames(file, 2);
+        boolean same = data.size() == expected.size();
+        for (int i = 0; same && i < data.size(); i++)
+            same = data.getPosition(i).equals(expected.getPosition(i)) && data.getResult(i) == expected.getResult(i);
+        System.out.println("lines: " + lines.size() + ", comments: " + comments + ", positions: " + data.size());
+
+        boolean actual = comments == 4 && lines.size() == 8 && data.size() > 0 && same;
+        String msg = "The games of the tournament are read? Expected: %1$b, Actual: %2$b";
+        msg = String.format(msg, true, actual);
+        assertTrue(msg, actual);
+    }
+
+
+    /**
+     * Test whether a game too long to be replayed is skipped, by itself and in a file of games,
+     * and whether a file with 2 pieces in 1 cell is not read as positions.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testSkipped() throws IOException {
+        System.out.println("Test whether a long game is skipped and a bad position refused");
+
+        // the lions of the initial position moved back and forth past the undo stack
+        int moves[] = new int[GameRecord.fMaxLength + 4];
+        String line = "draw";
+        for (int ply = 0; ply < moves.length; ply++) {
+            int round = ply % 4;
+            if (round == 0) moves[ply] = Board.packMove(62, 61, Board.bLion, Board.rbNone);
+            else if (round == 1) moves[ply] = Board.packMove(0, 1, Board.rLion, Board.rbNone);
+            else if (round == 2) moves[ply] = Board.packMove(61, 62, Board.bLion, Board.rbNone);
+            else moves[ply] = Board.packMove(1, 0, Board.rLion, Board.rbNone);
+            line += " " + new String[] {"g1f1", "a9b9", "f1g1", "b9a9"}[round];
+        }
+        Tuner.Dataset data = new Tuner.Dataset();
+        int added = data.addGame(new GameRecord(moves, GameRecord.fDraw), 0);
+        Random rnd = new Random(5);
+        GameRecord game = playRandomGame(rnd, 100);
+        Tuner.Dataset expected = new Tuner.Dataset();
+        expected.addGame(game, 0);
+
+        File games = File.createTempFile("games", ".txt");
+        games.deleteOnExit();
+        try (Writer out = new FileWriter(games)) {
+            out.write(line + "\n" + game + "\n");
+        }
+        Tuner.Dataset read = Tuner.Dataset.readGames(games, 0);
+        boolean same = read.size() == expected.size();
+        for (int i = 0; same && i < read.size(); i++)
+            same = read.getPosition(i).equals(expected.getPosition(i));
+
+        // the first position replaced by one of the red rat and the red cat both at (1, 0)
+        File positions = File.createTempFile("tuner", ".bin");
+        positions.deleteOnExit();
+        expected.write(positions);
+        byte bytes[] = Files.readAllBytes(positions.toPath());
+        int squares[] = new int[Board.bElephant + 1];
+        Arrays.fill(squares, -1);
+        squares[Board.rRat] = 7;
+        squares[Board.bLion] = 62;
+        int catShift = 6 * (Board.rCat - 1);
+        long low = new PackedPosition(new Board(squares, true)).getLow();
+        low = (low & ~((long)PackedPosition.fCaptured << catShift)) | 7L << catShift;
+        for (int i = 0; i < 8; i++) bytes[i] = (byte)(low >>> (56 - 8 * i));
+        Files.write(positions.toPath(), bytes);
+        boolean refused = false;
+        try {
+            Tuner.Dataset.read(positions);
+        } catch (IOException e) {
+            refused = true;
+        }
+        System.out.println("added: " + added + ", positions: " + read.size() + ", refused: " + refused);
+
+        boolean actual = added == 0 && data.size() == 0 && read.size() > 0 && same && refused;
+        String msg = "The long game is skipped and the bad position refused? Expected: %1$b, Actual: %2$b";
+        msg = String.format(msg, true, actual);
+        assertTrue(msg, actual);
+    }
+
+
+    /**
+     * Test whether tuning lowers the error, the same with 1 thread or more, and whether
+     * the weights survive a round trip through a file.
+     */
+    @Test
+    public void testTune() throws IOException {
+        System.out.println("Test whether tuning lowers the error");
+
+        Random rnd = new Random(21);
+        Tuner.Dataset data = new Tuner.Dataset();
+        for (int game = 0; game < 200; game++) data.addGame(playRandomGame(rnd, 300), 0);
+        int initial[] = Evaluation.getDefaultWeights();
+        int tuned[], tunedInParallel[];
+        double before, after;
+        try (Tuner tuner = new Tuner(data, 1)) {
+            double scale = tuner.fitScale(initial);
+            before = tuner.getError(initial, scale);
+            tuned = tuner.tune(initial, scale, 50, System.out);
+            after = tuner.getError(tuned, scale);
+        }
+        try (Tuner tuner = new Tuner(data, 3)) {
+            tunedInParallel = tuner.tune(initial, tuner.fitScale(initial), 50, null);
+        }
+        System.out.printf("positions: %d, error %.6f -> %.6f%n", data.size(), before, after);
+
+        File file = File.createTempFile("weights", ".txt");
+        file.deleteOnExit();
+        Evaluation.writeWeights(tuned, file);
+        boolean roundTrip = Arrays.equals(Evaluation.readWeights(file), tuned);
+
+        boolean actual = after < before && Arrays.equals(tuned, tunedInParallel) && roundTrip;
+        String msg = "The tuning lowers the error? Expected: %1$b, Actual: %2$b";
+        msg = String.format(msg, true, actual);
+        assertTrue(msg, actual);
+    }
+}